@@ -0,0 +1,57 @@
+package com.mis.invoicing.config;
+
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full per-request authentication path: header parsing, token verification
+ * (or cache hit) and security context population.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"10000", "0"})
+    public int cacheSize;
+
+    private JwtAuthenticationFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = JwtBenchmark.newJwtUtil();
+        VerifiedTokenCache cache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(cache, "maxSize", cacheSize);
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "tokenCache", cache);
+
+        String token = jwtUtil.generateToken(
+                new User("admin", "", List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))), "ADMIN", "System Admin");
+        authorization = "Bearer " + token;
+    }
+
+    @Benchmark
+    public void authenticate(Blackhole bh) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/invoices");
+        request.addHeader("Authorization", authorization);
+        FilterChain chain = (req, res) -> bh.consume(SecurityContextHolder.getContext().getAuthentication());
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.mis.invoicing.config;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtBenchmark {
+    static final String SECRET = "mySecretKeyForJWTTokenGenerationThatIsAtLeast256BitsLongForHS256Algorithm2026";
+
+    private JwtUtil jwtUtil;
+    private UserDetails user;
+    private String token;
+
+    static JwtUtil newJwtUtil() {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 86_400_000L);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    @Setup
+    public void setUp() {
+        jwtUtil = newJwtUtil();
+        user = new User("admin", "", List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        token = jwtUtil.generateToken(user, "ADMIN", "System Admin");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user, "ADMIN", "System Admin");
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token, user);
+    }
+
+    @Benchmark
+    public UserDetails parseToPrincipal() {
+        return jwtUtil.toPrincipal(jwtUtil.parseVerified(token));
+    }
+}
@@ -0,0 +1,105 @@
+package com.mis.invoicing.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of the entity graphs the list endpoints return, by association depth.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InvoiceSerializationBenchmark {
+
+    public enum Shape {
+        INVOICE,               // invoice -> client
+        INVOICE_WITH_ESTIMATE, // invoice -> client, estimate -> client
+        PAYMENT                // payment -> invoice -> client, estimate -> client
+    }
+
+    @Param({"INVOICE", "INVOICE_WITH_ESTIMATE", "PAYMENT"})
+    public Shape shape;
+
+    @Param({"1", "100"})
+    public int rows;
+
+    private ObjectMapper mapper;
+    private List<Object> payload;
+
+    @Setup
+    public void setUp() {
+        mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        payload = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            payload.add(build(i));
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return mapper.writeValueAsBytes(payload);
+    }
+
+    private Object build(long id) {
+        Client client = new Client();
+        client.setId(id);
+        client.setName("Client " + id);
+        client.setEmail("billing" + id + "@example.com");
+        client.setPhone("98765" + (10000 + id));
+        client.setAddress("12, MG Road, Bengaluru, Karnataka 560001");
+        client.setGstNumber("29ABCDE1234F1Z5");
+        client.setCategory("chain");
+        client.setCreatedAt(LocalDateTime.now());
+
+        Invoice invoice = new Invoice();
+        invoice.setId(id);
+        invoice.setClient(client);
+        invoice.setInvoiceNumber("INV/2026-27/" + id);
+        invoice.setItems("[{\"description\":\"Consulting\",\"quantity\":2,\"rate\":5000}]");
+        invoice.setSubtotal(new BigDecimal("10000.00"));
+        invoice.setCgst(new BigDecimal("900.00"));
+        invoice.setSgst(new BigDecimal("900.00"));
+        invoice.setIgst(BigDecimal.ZERO);
+        invoice.setTotal(new BigDecimal("11800.00"));
+        invoice.setBalanceDue(new BigDecimal("11800.00"));
+        invoice.setDueDate(LocalDate.now().plusDays(30));
+        invoice.setCreatedAt(LocalDateTime.now());
+        if (shape == Shape.INVOICE) {
+            return invoice;
+        }
+
+        Estimate estimate = new Estimate();
+        estimate.setId(id);
+        estimate.setClient(client);
+        estimate.setEstimateNumber("EST/2026-27/" + id);
+        estimate.setItems(invoice.getItems());
+        estimate.setSubtotal(invoice.getSubtotal());
+        estimate.setGstAmount(new BigDecimal("1800.00"));
+        estimate.setTotal(invoice.getTotal());
+        estimate.setCreatedAt(LocalDateTime.now());
+        invoice.setEstimate(estimate);
+        if (shape == Shape.INVOICE_WITH_ESTIMATE) {
+            return invoice;
+        }
+
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setInvoice(invoice);
+        payment.setAmount(new BigDecimal("5000.00"));
+        payment.setPaymentMode("UPI");
+        payment.setTransactionRef("UTR" + id);
+        payment.setPaymentDate(LocalDateTime.now());
+        return payment;
+    }
+}
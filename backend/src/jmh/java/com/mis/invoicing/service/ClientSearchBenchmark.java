@@ -0,0 +1,71 @@
+package com.mis.invoicing.service;
+
+import com.mis.invoicing.model.Client;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead queries against the in-memory client index, replacing a LIKE '%x%' scan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ClientSearchBenchmark {
+    private static final String[] WORDS = {"Shree", "Ganesh", "Traders", "Mehta", "Textiles", "Bharat", "Agro",
+            "Sai", "Krishna", "Enterprises", "Patel", "Steel", "Laxmi", "Foods", "Om", "Pharma", "Royal", "Motors"};
+
+    @Param({"100000"})
+    public int clients;
+
+    private ClientSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new ClientSearchIndex(null, null);
+        List<Client> rows = new ArrayList<>(clients);
+        long seed = 7;
+        for (long id = 1; id <= clients; id++) {
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            int a = (int) Math.floorMod(seed, WORDS.length);
+            int b = (int) Math.floorMod(seed >>> 20, WORDS.length);
+            int c = (int) Math.floorMod(seed >>> 40, WORDS.length);
+            String name = WORDS[a] + " " + WORDS[b] + " " + WORDS[c] + " " + id;
+            String gstin = String.format("27AAAC%c%04d%c1Z%c", (char) ('A' + id % 26), id % 10_000,
+                    (char) ('A' + id / 26 % 26), (char) ('A' + id / 676 % 26));
+            Client client = new Client();
+            client.setId(id);
+            client.setName(name);
+            client.setEmail("accounts" + id + "@" + WORDS[b].toLowerCase() + ".in");
+            client.setPhone("98" + String.format("%08d", id));
+            client.setGstNumber(gstin);
+            client.setCategory("group");
+            client.setCreatedAt(LocalDateTime.now());
+            rows.add(client);
+        }
+        index.load(rows);
+    }
+
+    @Benchmark
+    public List<Client> shortPrefix() {
+        return index.search("sh", 10);
+    }
+
+    @Benchmark
+    public List<Client> nameSubstring() {
+        return index.search("krishna ent", 10);
+    }
+
+    @Benchmark
+    public List<Client> phoneDigits() {
+        return index.search("98 0004 12", 10);
+    }
+
+    @Benchmark
+    public List<Client> exactGstin() {
+        return index.search("27AAACE0004A1ZA", 10);
+    }
+}
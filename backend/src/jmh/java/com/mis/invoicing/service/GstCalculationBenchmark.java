@@ -0,0 +1,81 @@
+package com.mis.invoicing.service;
+
+import com.mis.invoicing.model.Estimate;
+import com.mis.invoicing.model.Invoice;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GST math used on every invoice and estimate write: the fixed-point engine, its
+ * BigDecimal reference path, and the primitive batch API. Run with {@code -prof gc}
+ * to compare allocation per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GstCalculationBenchmark {
+    private static final int SAMPLES = 1024;
+
+    private final BigDecimal[] subtotals = new BigDecimal[SAMPLES];
+    private final GstCalculator.Batch batch = new GstCalculator.Batch(SAMPLES);
+    private int next;
+
+    @Setup
+    public void setUp() {
+        // Deterministic spread of realistic subtotals, 1.00 to ~1,00,000.00
+        long seed = 42;
+        for (int i = 0; i < SAMPLES; i++) {
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            subtotals[i] = BigDecimal.valueOf(Math.floorMod(seed, 10_000_000L) + 100, 2);
+            batch.add(subtotals[i].unscaledValue().longValue(), GstCalculator.DEFAULT_RATE_BP, (seed & 8) == 0);
+        }
+    }
+
+    private BigDecimal nextSubtotal() {
+        next = (next + 1) & (SAMPLES - 1);
+        return subtotals[next];
+    }
+
+    @Benchmark
+    public void invoiceIntraState(Blackhole bh) {
+        Invoice invoice = new Invoice();
+        invoice.setSubtotal(nextSubtotal());
+        GstCalculator.apply(invoice, false);
+        bh.consume(invoice.getTotal());
+    }
+
+    @Benchmark
+    public void invoiceIntraStateDecimal(Blackhole bh) {
+        Invoice invoice = new Invoice();
+        invoice.setSubtotal(nextSubtotal());
+        GstCalculator.applyDecimal(invoice, false);
+        bh.consume(invoice.getTotal());
+    }
+
+    @Benchmark
+    public void invoiceInterState(Blackhole bh) {
+        Invoice invoice = new Invoice();
+        invoice.setSubtotal(nextSubtotal());
+        GstCalculator.apply(invoice, true);
+        bh.consume(invoice.getTotal());
+    }
+
+    @Benchmark
+    public void estimate(Blackhole bh) {
+        Estimate estimate = new Estimate();
+        estimate.setSubtotal(nextSubtotal());
+        GstCalculator.apply(estimate);
+        bh.consume(estimate.getTotal());
+    }
+
+    // Whole batch of SAMPLES documents per op
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public long batch() {
+        batch.compute();
+        return batch.total(SAMPLES - 1);
+    }
+}
@@ -0,0 +1,322 @@
+package com.mis.invoicing.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-loop HTTP load driver replaying a mixed billing workload against a running
+ * instance: login, cursor-paged lists, invoice creation, payment recording and the
+ * dashboard. Each worker models one connection; latencies are kept raw per worker
+ * and merged at the end, so percentiles are exact rather than bucketed.
+ *
+ * <p>Configured through system properties ({@code load.*}); see the README.
+ */
+public class LoadDriver {
+
+    enum Op { LOGIN, LIST_INVOICES, LIST_CLIENTS, LIST_PAYMENTS, CREATE_INVOICE, RECORD_PAYMENT, DASHBOARD }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String baseUrl;
+    private final String username = System.getProperty("load.username", "admin");
+    private final String password = System.getProperty("load.password", "admin123");
+    private final int threads = Integer.getInteger("load.threads", 32);
+    private final int warmupSeconds = Integer.getInteger("load.warmup", 10);
+    private final int durationSeconds = Integer.getInteger("load.duration", 60);
+    private final String report = System.getProperty("load.report", "");
+
+    // Relative weights, e.g. -Dload.mix=login:2,list:45,create:15,pay:15,dashboard:23
+    private final Map<String, Integer> mix = parseMix(System.getProperty("load.mix",
+            "login:2,list:45,create:15,pay:15,dashboard:23"));
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private volatile String token;
+    private long[] clientIds;
+    private long[] openInvoiceIds;
+
+    public static void main(String[] args) throws Exception {
+        new LoadDriver().run();
+    }
+
+    LoadDriver() {
+        this(System.getProperty("load.url", "http://localhost:8080"));
+    }
+
+    LoadDriver(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    /** Drives the workload and returns the summary that {@code load.report} would contain. */
+    Map<String, Object> run() throws Exception {
+        token = login();
+        clientIds = ids("/api/clients/page?limit=200");
+        openInvoiceIds = ids("/api/invoices/page?limit=200&status=PENDING");
+        if (clientIds.length == 0) {
+            throw new IllegalStateException("No clients found; seed data first (app.seed.enabled=true)");
+        }
+
+        System.out.printf("Driving %s with %d workers: %ds warm-up, %ds measured, mix %s%n",
+                baseUrl, threads, warmupSeconds, durationSeconds, mix);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            phase(pool, warmupSeconds);
+            long started = System.nanoTime();
+            List<Recorder> recorders = phase(pool, durationSeconds);
+            double elapsed = (System.nanoTime() - started) / 1e9;
+            return print(recorders, elapsed);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private List<Recorder> phase(ExecutorService pool, int seconds) throws Exception {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Future<Recorder>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(pool.submit(() -> worker(deadline)));
+        }
+        List<Recorder> recorders = new ArrayList<>();
+        for (Future<Recorder> f : futures) {
+            recorders.add(f.get());
+        }
+        return recorders;
+    }
+
+    private Recorder worker(long deadline) {
+        Recorder recorder = new Recorder();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            Op op = pick(random);
+            long start = System.nanoTime();
+            boolean ok;
+            try {
+                ok = execute(op, random);
+            } catch (IOException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            recorder.record(op, System.nanoTime() - start, ok);
+        }
+        return recorder;
+    }
+
+    private boolean execute(Op op, ThreadLocalRandom random) throws IOException, InterruptedException {
+        switch (op) {
+            case LOGIN:
+                return send(post("/api/auth/login", credentials(), false)) == 200;
+            case LIST_INVOICES:
+                return send(get("/api/invoices/page?limit=50")) == 200;
+            case LIST_CLIENTS:
+                return send(get("/api/clients/page?limit=50")) == 200;
+            case LIST_PAYMENTS:
+                return send(get("/api/payments/page?limit=50")) == 200;
+            case CREATE_INVOICE: {
+                long clientId = clientIds[random.nextInt(clientIds.length)];
+                String body = "{\"subtotal\":" + (500 + random.nextInt(100_000)) + ".00,\"dueDate\":\""
+                        + LocalDate.now().plusDays(30) + "\",\"items\":\"Load test item\"}";
+                return send(post("/api/invoices?clientId=" + clientId, body, true)) == 201;
+            }
+            case RECORD_PAYMENT: {
+                if (openInvoiceIds.length == 0) {
+                    return send(get("/api/dashboard/stats")) == 200;
+                }
+                long invoiceId = openInvoiceIds[random.nextInt(openInvoiceIds.length)];
+                // Small amounts so the shared invoice pool stays open for the whole run
+                String body = "{\"amount\":1.00,\"paymentMode\":\"UPI\",\"transactionRef\":\"LOAD\"}";
+                return send(post("/api/payments?invoiceId=" + invoiceId, body, true)) == 201;
+            }
+            case DASHBOARD:
+            default:
+                return send(get("/api/dashboard/stats")) == 200;
+        }
+    }
+
+    private Op pick(ThreadLocalRandom random) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int roll = random.nextInt(total);
+        for (Map.Entry<String, Integer> e : mix.entrySet()) {
+            roll -= e.getValue();
+            if (roll < 0) {
+                switch (e.getKey()) {
+                    case "login":
+                        return Op.LOGIN;
+                    case "list": {
+                        int which = random.nextInt(3);
+                        return which == 0 ? Op.LIST_INVOICES : which == 1 ? Op.LIST_CLIENTS : Op.LIST_PAYMENTS;
+                    }
+                    case "create":
+                        return Op.CREATE_INVOICE;
+                    case "pay":
+                        return Op.RECORD_PAYMENT;
+                    default:
+                        return Op.DASHBOARD;
+                }
+            }
+        }
+        return Op.DASHBOARD;
+    }
+
+    private String login() throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(post("/api/auth/login", credentials(), false),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed: HTTP " + response.statusCode());
+        }
+        return MAPPER.readTree(response.body()).get("token").asText();
+    }
+
+    private long[] ids(String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(get(path), HttpResponse.BodyHandlers.ofString());
+        JsonNode items = MAPPER.readTree(response.body()).path("items");
+        long[] ids = new long[items.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = items.get(i).get("id").asLong();
+        }
+        return ids;
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String body, boolean authenticated) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (authenticated) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private String credentials() {
+        return "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}";
+    }
+
+    private Map<String, Object> print(List<Recorder> recorders, double elapsed) throws IOException {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("workers", threads);
+        summary.put("durationSeconds", elapsed);
+
+        System.out.printf("%n%-16s %10s %8s %10s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        long[] all = new long[0];
+        long allErrors = 0;
+        Map<String, Object> ops = new LinkedHashMap<>();
+        for (Op op : Op.values()) {
+            long[] samples = merge(recorders, op);
+            long errors = recorders.stream().mapToLong(r -> r.errors[op.ordinal()]).sum();
+            if (samples.length == 0) {
+                continue;
+            }
+            ops.put(op.name(), line(op.name(), samples, errors, elapsed));
+            all = concat(all, samples);
+            allErrors += errors;
+        }
+        summary.put("operations", ops);
+        summary.put("total", line("TOTAL", all, allErrors, elapsed));
+
+        if (!report.isBlank()) {
+            Files.writeString(Path.of(report), MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(summary));
+            System.out.println("Report written to " + report);
+        }
+        return summary;
+    }
+
+    private static Map<String, Object> line(String name, long[] samples, long errors, double elapsed) {
+        Arrays.sort(samples);
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("requests", samples.length);
+        row.put("errors", errors);
+        row.put("throughput", samples.length / elapsed);
+        row.put("p50Ms", percentile(samples, 0.50));
+        row.put("p99Ms", percentile(samples, 0.99));
+        row.put("p999Ms", percentile(samples, 0.999));
+        row.put("maxMs", samples[samples.length - 1] / 1e6);
+        System.out.printf(Locale.ROOT, "%-16s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                name, samples.length, errors, samples.length / elapsed,
+                row.get("p50Ms"), row.get("p99Ms"), row.get("p999Ms"), row.get("maxMs"));
+        return row;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    private static long[] merge(List<Recorder> recorders, Op op) {
+        long[] merged = new long[0];
+        for (Recorder r : recorders) {
+            merged = concat(merged, Arrays.copyOf(r.latencies[op.ordinal()], r.counts[op.ordinal()]));
+        }
+        return merged;
+    }
+
+    private static long[] concat(long[] a, long[] b) {
+        long[] out = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
+    }
+
+    private static Map<String, Integer> parseMix(String spec) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split(":");
+            weights.put(kv[0], Integer.parseInt(kv[1]));
+        }
+        return weights;
+    }
+
+    /** Per-worker latency log; no sharing, so recording is a plain array store. */
+    static final class Recorder {
+        final long[][] latencies = new long[Op.values().length][1024];
+        final int[] counts = new int[Op.values().length];
+        final long[] errors = new long[Op.values().length];
+
+        void record(Op op, long nanos, boolean ok) {
+            int i = op.ordinal();
+            if (!ok) {
+                errors[i]++;
+            }
+            if (counts[i] == latencies[i].length) {
+                latencies[i] = Arrays.copyOf(latencies[i], counts[i] * 2);
+            }
+            latencies[i][counts[i]++] = nanos;
+        }
+    }
+}
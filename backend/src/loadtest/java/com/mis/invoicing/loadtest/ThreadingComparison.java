@@ -0,0 +1,142 @@
+package com.mis.invoicing.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link LoadDriver} against a fresh server per request-threading mode, platform
+ * threads first and then virtual threads, and prints the totals side by side. Each
+ * server is a separate JVM with the same seed data, so the only difference between
+ * runs is {@code spring.threads.virtual.enabled}.
+ *
+ * <p>Virtual threads need the server JVM ({@code load.java}) to be Java 21+; an older
+ * one keeps platform threads, which is reported instead of a misleading comparison.
+ */
+public class ThreadingComparison {
+
+    private static final String VIRTUAL_ACTIVE = "run on virtual threads";
+    private static final String VIRTUAL_UNSUPPORTED = "virtual threads need Java 21+";
+
+    private final String java = System.getProperty("load.java",
+            Path.of(System.getProperty("java.home"), "bin", "java").toString());
+    private final String classpath = System.getProperty("load.server.classpath", "");
+    private final String jvmArgs = System.getProperty("load.server.jvm-args", "-Xmx1g");
+    private final String serverArgs = System.getProperty("load.server.args",
+            "--app.seed.enabled=true --app.seed.clients=1000 --app.seed.invoices=20000");
+    private final int port = Integer.getInteger("load.port", 18080);
+    private final int startupSeconds = Integer.getInteger("load.startup", 300);
+    private final List<String> modes = Arrays.asList(System.getProperty("load.modes", "platform,virtual").split(","));
+    private final Path logDir = Path.of(System.getProperty("load.log-dir", "target"));
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        new ThreadingComparison().run();
+    }
+
+    void run() throws Exception {
+        if (classpath.isBlank()) {
+            throw new IllegalStateException("load.server.classpath is not set; run through ./mvnw -Ploadtest");
+        }
+        if (System.getProperty("load.threads") == null) {
+            System.setProperty("load.threads", "1000");
+        }
+        Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+        for (String mode : modes) {
+            results.put(mode, measure(mode.trim()));
+        }
+
+        System.out.printf("%n%-10s %-10s %10s %8s %10s %9s %9s %9s%n",
+                "mode", "threads", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms");
+        for (Map.Entry<String, Map<String, Object>> e : results.entrySet()) {
+            Map<String, Object> result = e.getValue();
+            @SuppressWarnings("unchecked")
+            Map<String, Object> total = (Map<String, Object>) result.get("total");
+            System.out.printf(Locale.ROOT, "%-10s %-10s %10d %8d %10.1f %9.2f %9.2f %9.2f%n",
+                    e.getKey(), result.get("threading"), total.get("requests"), total.get("errors"),
+                    total.get("throughput"), total.get("p50Ms"), total.get("p99Ms"), total.get("p999Ms"));
+        }
+    }
+
+    private Map<String, Object> measure(String mode) throws Exception {
+        Path log = logDir.resolve("threading-" + mode + ".log");
+        Files.createDirectories(logDir);
+        Process server = start(mode, log);
+        try {
+            awaitReady(server, log);
+            String threading = Files.readString(log).contains(VIRTUAL_ACTIVE) ? "virtual" : "platform";
+            if ("virtual".equals(mode) && !"virtual".equals(threading)) {
+                System.out.printf("%s: server JVM has no virtual threads (%s), measuring platform threads%n",
+                        mode, Files.readString(log).contains(VIRTUAL_UNSUPPORTED) ? "Java < 21" : "see " + log);
+            }
+            System.out.printf("%n== %s (server log %s)%n", mode, log);
+            Map<String, Object> summary = new LoadDriver("http://localhost:" + port).run();
+            summary.put("threading", threading);
+            return summary;
+        } finally {
+            server.destroy();
+            if (!server.waitFor(30, TimeUnit.SECONDS)) {
+                server.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private Process start(String mode, Path log) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(Arrays.asList(jvmArgs.trim().split("\\s+")));
+        command.add("-cp");
+        command.add(classpath);
+        command.add("com.mis.invoicing.InvoicingApplication");
+        command.add("--server.port=" + port);
+        command.add("--spring.threads.virtual.enabled=" + "virtual".equals(mode));
+        // Private in-memory database per run, so both modes start from the same seed
+        command.add("--spring.datasource.url=jdbc:h2:mem:threading-" + mode + ";DB_CLOSE_DELAY=-1");
+        command.addAll(Arrays.asList(serverArgs.trim().split("\\s+")));
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+    }
+
+    // Seeding finishes after the port opens and the admin user is created last, so a working login means ready
+    private void awaitReady(Process server, Path log) throws Exception {
+        long deadline = System.nanoTime() + startupSeconds * 1_000_000_000L;
+        HttpRequest login = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(5))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\""
+                        + System.getProperty("load.username", "admin") + "\",\"password\":\""
+                        + System.getProperty("load.password", "admin123") + "\"}"))
+                .build();
+        while (System.nanoTime() < deadline) {
+            if (!server.isAlive()) {
+                throw new IllegalStateException("Server exited with " + server.exitValue() + "; see " + log);
+            }
+            try {
+                if (http.send(login, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(1000);
+        }
+        throw new IllegalStateException("Server not ready after " + startupSeconds + "s; see " + log);
+    }
+}
@@ -2,8 +2,10 @@ package com.mis.invoicing;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class InvoicingApplication {
     public static void main(String[] args) {
         SpringApplication.run(InvoicingApplication.class, args);
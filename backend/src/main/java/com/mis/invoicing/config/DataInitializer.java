@@ -1,6 +1,7 @@
 package com.mis.invoicing.config;
 
 import com.mis.invoicing.model.User;
+import com.mis.invoicing.repository.InvoiceRepository;
 import com.mis.invoicing.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
@@ -16,6 +17,9 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
     @Override
     public void run(String... args) {
         // Create default admin if no users exist
@@ -30,5 +34,11 @@ public class DataInitializer implements CommandLineRunner {
 
             System.out.println("==> Default admin user created (username: admin, password: admin123)");
         }
+
+        // Invoices created before the payment ledger columns existed
+        int backfilled = invoiceRepository.backfillLedger();
+        if (backfilled > 0) {
+            System.out.println("==> Backfilled payment ledger for " + backfilled + " invoice(s)");
+        }
     }
 }
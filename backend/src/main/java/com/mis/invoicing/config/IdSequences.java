@@ -0,0 +1,68 @@
+package com.mis.invoicing.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Keeps the pooled id sequences ahead of the rows already in their tables. That
+ * matters when a table moves from IDENTITY to a sequence on an existing database,
+ * and after rows are inserted with explicit ids. Sequences are only ever moved
+ * forward, so blocks already handed to other instances stay valid.
+ */
+@Slf4j
+@Component
+public class IdSequences {
+    // table -> sequence; allocation size must match the entities' @SequenceGenerator
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "invoices", "invoices_seq",
+            "line_items", "line_items_seq");
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbc;
+
+    // Depending on the EntityManagerFactory makes sure the schema (and sequences) exist first
+    public IdSequences(JdbcTemplate jdbc, EntityManagerFactory entityManagerFactory) {
+        this.jdbc = jdbc;
+    }
+
+    // Runs before the web server starts, so nothing has drawn ids yet
+    @PostConstruct
+    public void alignAll() {
+        SEQUENCES.keySet().forEach(this::align);
+    }
+
+    /**
+     * The pooled optimizer treats a sequence value as the top of its next block, so the
+     * value must sit at least a full block above the highest existing id.
+     */
+    public void align(String table) {
+        String sequence = SEQUENCES.get(table);
+        Long max = jdbc.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        if (max == null) {
+            return;
+        }
+        long target = max + ALLOCATION_SIZE;
+        String product = jdbc.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if ("H2".equals(product)) {
+            Long current = jdbc.queryForObject("SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES "
+                    + "WHERE SEQUENCE_NAME = ?", Long.class, sequence.toUpperCase());
+            if (current != null && current < target) {
+                jdbc.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + target);
+                log.info("Moved {} from {} to {}", sequence, current, target);
+            }
+        } else if ("MySQL".equals(product)) {
+            // MySQL has no sequences; Hibernate keeps the value in a one-row table
+            if (jdbc.update("UPDATE " + sequence + " SET next_val = ? WHERE next_val < ?", target, target) > 0) {
+                log.info("Moved {} to {}", sequence, target);
+            }
+        } else {
+            log.warn("Not aligning {} on {}; make sure it is above {}", sequence, product, target);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.mis.invoicing.config;
 
 import com.mis.invoicing.service.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,6 +12,7 @@ import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -22,6 +25,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
@@ -31,23 +37,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     @NonNull FilterChain filterChain) throws ServletException, IOException {
 
         final String authHeader = request.getHeader("Authorization");
-        String username = null;
-        String jwt = null;
-
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwt = authHeader.substring(7);
-            try {
-                username = jwtUtil.extractUsername(jwt);
-            } catch (Exception e) {
-                // Invalid token — continue without authentication
-            }
-        }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails principal = resolvePrincipal(authHeader.substring(7));
+            if (principal != null) {
                 UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                        new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
@@ -55,4 +51,31 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private UserDetails resolvePrincipal(String jwt) {
+        UserDetails principal = tokenCache.get(jwt);
+        if (principal != null) {
+            return principal;
+        }
+
+        Claims claims;
+        try {
+            claims = jwtUtil.parseVerified(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            // Invalid token — continue without authentication
+            return null;
+        }
+
+        principal = jwtUtil.toPrincipal(claims);
+        if (principal == null) {
+            // Tokens issued without a role claim still need the user record
+            try {
+                principal = userDetailsService.loadUserByUsername(claims.getSubject());
+            } catch (UsernameNotFoundException e) {
+                return null;
+            }
+        }
+        tokenCache.put(jwt, principal, claims.getExpiration().getTime());
+        return principal;
+    }
 }
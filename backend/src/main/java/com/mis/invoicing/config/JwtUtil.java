@@ -2,12 +2,16 @@ package com.mis.invoicing.config;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -22,8 +26,14 @@ public class JwtUtil {
     @Value("${app.jwt.expiration}")
     private long expiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    // Key and parser are immutable and thread-safe, so build them once
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signingKey).build();
     }
 
     public String extractUsername(String token) {
@@ -40,15 +50,33 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    /**
+     * Verifies signature and expiry in a single parse. Throws {@link JwtException}
+     * if the token is malformed, tampered with, expired or has no expiry at all
+     * (every token issued here carries one, and verified tokens are cached until it).
+     */
+    public Claims parseVerified(String token) {
+        Claims claims = extractAllClaims(token);
+        if (claims.getExpiration() == null) {
+            throw new JwtException("JWT has no exp claim");
+        }
+        return claims;
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Builds the authenticated principal straight from the verified claims, or
+     * returns null for tokens issued without a role claim.
+     */
+    public UserDetails toPrincipal(Claims claims) {
+        String role = claims.get("role", String.class);
+        if (role == null) {
+            return null;
+        }
+        return new User(claims.getSubject(), "",
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role)));
     }
 
     public String generateToken(UserDetails userDetails, String role, String fullName) {
@@ -59,18 +87,23 @@ public class JwtUtil {
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .claims(claims)
                 .subject(subject)
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + expiration))
+                .signWith(signingKey)
                 .compact();
     }
 
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        try {
+            // The parser already rejects expired tokens
+            return parseVerified(token).getSubject().equals(userDetails.getUsername());
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
     }
 
     public String extractRole(String token) {
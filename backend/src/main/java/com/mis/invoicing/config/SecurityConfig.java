@@ -1,17 +1,25 @@
 package com.mis.invoicing.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -23,16 +31,54 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Value("${app.metrics.username}")
+    private String metricsUsername;
+
+    @Value("${app.metrics.password:}")
+    private String metricsPassword;
+
+    // Prometheus scrapes with HTTP basic as a dedicated metrics user, which does not expire the way
+    // a login token does; an ADMIN bearer token is still accepted. No password, no metrics user.
+    @Bean
+    @Order(1)
+    public SecurityFilterChain metricsFilterChain(HttpSecurity http) throws Exception {
+        InMemoryUserDetailsManager metricsUsers = new InMemoryUserDetailsManager();
+        if (!metricsPassword.isBlank()) {
+            metricsUsers.createUser(User.withUsername(metricsUsername)
+                    .password(passwordEncoder().encode(metricsPassword))
+                    .roles("METRICS")
+                    .build());
+        }
+        DaoAuthenticationProvider metricsProvider = new DaoAuthenticationProvider(metricsUsers);
+        metricsProvider.setPasswordEncoder(passwordEncoder());
+
+        http
+            .securityMatcher("/actuator/prometheus")
+            .csrf(csrf -> csrf.disable())
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .authorizeHttpRequests(auth -> auth.anyRequest().hasAnyRole("METRICS", "ADMIN"))
+            .httpBasic(Customizer.withDefaults())
+            .authenticationManager(new ProviderManager(metricsProvider))
+            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // Streaming responses re-dispatch once the body is written; the original request was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 // Public endpoints
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
-                // Admin-only endpoints
+                .requestMatchers("/actuator/health/**").permitAll()
+                // Admin-only endpoints; metrics included, since they expose per-endpoint traffic and billing volumes
+                // (the Prometheus scrape has its own chain above)
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.DELETE, "/api/**").hasRole("ADMIN")
                 .requestMatchers("/api/users/**").hasRole("ADMIN")
                 // All other API endpoints require authentication
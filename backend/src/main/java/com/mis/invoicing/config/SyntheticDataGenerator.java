@@ -0,0 +1,347 @@
+package com.mis.invoicing.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import com.mis.invoicing.service.GstCalculator;
+import com.mis.invoicing.service.RevenueRollup;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Bulk-loads synthetic clients, estimates, invoices, line items and payments with
+ * batched JDBC inserts so production-scale behaviour can be reproduced locally.
+ * Only runs when {@code app.seed.enabled=true}; rows are appended after the
+ * current max ids.
+ *
+ * <p>Invoices per client follow a power-law skew ({@code app.seed.skew}) so a few
+ * large accounts own most of the volume, as in real group/chain customers. For
+ * MySQL add {@code rewriteBatchedStatements=true} to the JDBC URL.
+ */
+@Slf4j
+@Component
+@Order(10)
+@ConditionalOnProperty(name = "app.seed.enabled", havingValue = "true")
+public class SyntheticDataGenerator implements CommandLineRunner {
+
+    private static final String[] CATEGORIES = {"group", "chain", "brand"};
+    private static final String[] PAYMENT_MODES = {"UPI", "Bank Transfer", "Card", "Cash", "Cheque"};
+    private static final String[] STATE_CODES = {"27", "29", "07", "33", "24", "09", "19", "36"};
+    private static final String[] ESTIMATE_STATUSES = {"DRAFT", "SENT", "APPROVED", "CONVERTED"};
+    // description, HSN/SAC, GST rate
+    private static final String[][] CATALOG = {
+            {"Corrugated cartons", "4819", "12"}, {"Printed labels", "4821", "12"}, {"Office chairs", "9401", "18"},
+            {"Steel fasteners", "7318", "18"}, {"Air conditioners", "8415", "28"}, {"Edible oil", "1512", "5"},
+            {"Printed books", "4901", "0"}, {"IT consulting", "998313", "18"}, {"Road freight", "996511", "5"},
+            {"Maintenance services", "998729", "18"}};
+    private static final String LINE_SQL = "INSERT INTO line_items (id, invoice_id, estimate_id, line_no, description, "
+            + "hsn_sac, quantity, unit_price, gst_rate, taxable_value, tax_amount) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate chunkTx;
+    private final EntityManagerFactory entityManagerFactory;
+    private final IdSequences idSequences;
+    private final RevenueRollup revenueRollup;
+
+    @Value("${app.seed.clients:1000}")
+    private int clientCount;
+
+    @Value("${app.seed.invoices:10000}")
+    private long invoiceCount;
+
+    @Value("${app.seed.estimate-ratio:0.3}")
+    private double estimateRatio;
+
+    @Value("${app.seed.days:730}")
+    private int days;
+
+    @Value("${app.seed.skew:2.5}")
+    private double skew;
+
+    @Value("${app.seed.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${app.seed.random-seed:42}")
+    private long randomSeed;
+
+    private long nextLineId;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+                                  EntityManagerFactory entityManagerFactory, IdSequences idSequences,
+                                  RevenueRollup revenueRollup) {
+        this.jdbc = jdbc;
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.idSequences = idSequences;
+        this.revenueRollup = revenueRollup;
+    }
+
+    @Override
+    public void run(String... args) {
+        SplittableRandom random = new SplittableRandom(randomSeed);
+        LocalDateTime now = LocalDateTime.now();
+        long started = System.nanoTime();
+
+        long firstClientId = nextId("clients");
+        long firstLineId = nextId("line_items");
+        nextLineId = firstLineId;
+        seedClients(random, firstClientId, now);
+        long estimates = seedEstimates(random, firstClientId, now);
+        long[] invoicesAndPayments = seedInvoicesAndPayments(random, firstClientId, now);
+
+        for (String table : List.of("clients", "estimates", "payments")) {
+            restartIdentity(table);
+        }
+        idSequences.align("invoices");
+        idSequences.align("line_items");
+        // Rows went in behind Hibernate's back, so cached entities and query results are stale
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        revenueRollup.backfill(null, null);
+        log.info("Seeded {} clients, {} estimates, {} invoices, {} payments, {} line items in {} s",
+                clientCount, estimates, invoicesAndPayments[0], invoicesAndPayments[1], nextLineId - firstLineId,
+                (System.nanoTime() - started) / 1_000_000_000);
+    }
+
+    private void seedClients(SplittableRandom random, long firstId, LocalDateTime now) {
+        String sql = "INSERT INTO clients (id, name, email, phone, address, gst_number, category, version, created_at, "
+                + "updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, 0, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < clientCount; i++) {
+            long id = firstId + i;
+            String state = STATE_CODES[random.nextInt(STATE_CODES.length)];
+            Timestamp createdAt = Timestamp.valueOf(now.minusDays(days).minusDays(random.nextInt(365)));
+            batch.add(new Object[]{
+                    id,
+                    "Synthetic Client " + id,
+                    "accounts" + id + "@example.com",
+                    "9" + (100_000_000L + random.nextLong(900_000_000L)),
+                    (1 + random.nextInt(200)) + ", Industrial Area Phase " + (1 + random.nextInt(4)),
+                    syntheticGstin(state, id),
+                    CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    createdAt,
+                    createdAt
+            });
+            if (batch.size() == batchSize) {
+                flush(new Batch(sql, batch));
+            }
+        }
+        flush(new Batch(sql, batch));
+    }
+
+    private long seedEstimates(SplittableRandom random, long firstClientId, LocalDateTime now) {
+        long count = Math.round(invoiceCount * estimateRatio);
+        long firstId = nextId("estimates");
+        String sql = "INSERT INTO estimates (id, client_id, estimate_number, items, subtotal, gst_amount, total, "
+                + "status, version, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        List<Object[]> lines = new ArrayList<>(batchSize * 3);
+        for (long i = 0; i < count; i++) {
+            long id = firstId + i;
+            long[] amounts = addLines(random, lines, null, id);
+            long subtotal = amounts[0];
+            long gst = amounts[1];
+            Timestamp createdAt = Timestamp.valueOf(now.minusMinutes(random.nextLong(days * 1440L)));
+            batch.add(new Object[]{
+                    id,
+                    pickClient(random, firstClientId),
+                    "SYN-EST-" + id,
+                    null,
+                    paise(subtotal),
+                    paise(gst),
+                    paise(subtotal + gst),
+                    ESTIMATE_STATUSES[random.nextInt(ESTIMATE_STATUSES.length)],
+                    createdAt,
+                    createdAt
+            });
+            if (batch.size() == batchSize) {
+                flush(new Batch(sql, batch), new Batch(LINE_SQL, lines));
+            }
+        }
+        flush(new Batch(sql, batch), new Batch(LINE_SQL, lines));
+        return count;
+    }
+
+    private long[] seedInvoicesAndPayments(SplittableRandom random, long firstClientId, LocalDateTime now) {
+        long firstInvoiceId = nextId("invoices");
+        long nextPaymentId = nextId("payments");
+        LocalDate today = now.toLocalDate();
+        String invoiceSql = "INSERT INTO invoices (id, client_id, invoice_number, items, subtotal, cgst, sgst, igst, "
+                + "total, amount_paid, balance_due, version, status, due_date, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?, ?, ?)";
+        String paymentSql = "INSERT INTO payments (id, invoice_id, amount, payment_mode, transaction_ref, payment_date, "
+                + "version, updated_at) VALUES (?, ?, ?, ?, ?, ?, 0, ?)";
+
+        List<Object[]> invoices = new ArrayList<>(batchSize);
+        List<Object[]> payments = new ArrayList<>(batchSize);
+        List<Object[]> lines = new ArrayList<>(batchSize * 3);
+        long paymentCount = 0;
+        for (long i = 0; i < invoiceCount; i++) {
+            long id = firstInvoiceId + i;
+            LocalDateTime createdAt = now.minusMinutes(random.nextLong(days * 1440L));
+            LocalDate dueDate = createdAt.toLocalDate().plusDays(15 + random.nextInt(31));
+            long[] amounts = addLines(random, lines, id, null);
+            long subtotal = amounts[0];
+            long gst = amounts[1];
+            boolean interState = random.nextInt(5) == 0;
+            long half = GstCalculator.half(gst);
+            long total = subtotal + gst;
+
+            // Older invoices are mostly settled; a tail stays open or part-paid
+            long paid;
+            int roll = random.nextInt(100);
+            if (dueDate.isBefore(today)) {
+                paid = roll < 75 ? total : roll < 87 ? total / (2 + random.nextInt(3)) : 0;
+            } else {
+                paid = roll < 25 ? total : roll < 35 ? total / 2 : 0;
+            }
+            String status = paid >= total ? "PAID" : dueDate.isBefore(today) ? "OVERDUE" : "PENDING";
+
+            invoices.add(new Object[]{
+                    id,
+                    pickClient(random, firstClientId),
+                    "SYN-INV-" + id,
+                    null,
+                    paise(subtotal),
+                    paise(interState ? 0 : half),
+                    paise(interState ? 0 : half),
+                    paise(interState ? gst : 0),
+                    paise(total),
+                    paise(paid),
+                    paise(total - paid),
+                    status,
+                    Date.valueOf(dueDate),
+                    Timestamp.valueOf(createdAt),
+                    Timestamp.valueOf(createdAt)
+            });
+
+            if (paid > 0) {
+                // Split larger settlements into two instalments
+                int instalments = paid > 5_000_000 && random.nextBoolean() ? 2 : 1;
+                long remaining = paid;
+                for (int k = 0; k < instalments; k++) {
+                    long amount = k == instalments - 1 ? remaining : remaining / 2;
+                    remaining -= amount;
+                    LocalDateTime paidAt = createdAt.plusDays(1 + random.nextInt(45));
+                    Timestamp paymentDate = Timestamp.valueOf(paidAt.isAfter(now) ? now : paidAt);
+                    payments.add(new Object[]{
+                            nextPaymentId,
+                            id,
+                            paise(amount),
+                            PAYMENT_MODES[random.nextInt(PAYMENT_MODES.length)],
+                            "SYN" + nextPaymentId,
+                            paymentDate,
+                            paymentDate
+                    });
+                    nextPaymentId++;
+                    paymentCount++;
+                }
+            }
+
+            if (invoices.size() == batchSize) {
+                flush(new Batch(invoiceSql, invoices), new Batch(LINE_SQL, lines), new Batch(paymentSql, payments));
+            }
+            if ((i + 1) % 100_000 == 0) {
+                log.info("Seeded {} / {} invoices", i + 1, invoiceCount);
+            }
+        }
+        flush(new Batch(invoiceSql, invoices), new Batch(LINE_SQL, lines), new Batch(paymentSql, payments));
+        return new long[]{invoiceCount, paymentCount};
+    }
+
+    /** Appends 1-4 catalogue lines for one document and returns its {subtotal, gst} in paise. */
+    private long[] addLines(SplittableRandom random, List<Object[]> lines, Long invoiceId, Long estimateId) {
+        int count = 1 + random.nextInt(4);
+        long subtotal = 0;
+        long gst = 0;
+        for (int lineNo = 1; lineNo <= count; lineNo++) {
+            String[] item = CATALOG[random.nextInt(CATALOG.length)];
+            int rate = Integer.parseInt(item[2]);
+            long quantity = 1 + random.nextInt(20);
+            long unitPrice = Math.max(100, subtotalPaise(random) / count / quantity / 100 * 100);
+            long taxable = unitPrice * quantity;
+            long tax = GstCalculator.tax(taxable, rate * 100);
+            lines.add(new Object[]{
+                    nextLineId++,
+                    invoiceId,
+                    estimateId,
+                    lineNo,
+                    item[0],
+                    item[1],
+                    BigDecimal.valueOf(quantity),
+                    paise(unitPrice),
+                    BigDecimal.valueOf(rate),
+                    paise(taxable),
+                    paise(tax)
+            });
+            subtotal += taxable;
+            gst += tax;
+        }
+        return new long[]{subtotal, gst};
+    }
+
+    private record Batch(String sql, List<Object[]> rows) {
+    }
+
+    // Parents first so foreign keys resolve; all batches commit together
+    private void flush(Batch... batches) {
+        chunkTx.executeWithoutResult(status -> {
+            for (Batch batch : batches) {
+                if (!batch.rows().isEmpty()) {
+                    jdbc.batchUpdate(batch.sql(), batch.rows());
+                }
+            }
+        });
+        for (Batch batch : batches) {
+            batch.rows().clear();
+        }
+    }
+
+    private long pickClient(SplittableRandom random, long firstClientId) {
+        // u^skew piles probability mass onto the low (largest) client indices
+        return firstClientId + (long) (clientCount * Math.pow(random.nextDouble(), skew));
+    }
+
+    private static long subtotalPaise(SplittableRandom random) {
+        // Log-uniform between ₹500 and ₹5,00,000
+        double rupees = 500 * Math.pow(1000, random.nextDouble());
+        return Math.round(rupees) * 100;
+    }
+
+    private static BigDecimal paise(long value) {
+        return BigDecimal.valueOf(value, 2);
+    }
+
+    private static String syntheticGstin(String state, long id) {
+        String pan = "AAAC" + (char) ('A' + (id % 26)) + String.format("%04d", id % 10_000) + (char) ('A' + (id / 26 % 26));
+        return state + pan + "1Z" + (char) ('A' + (id / 676 % 26));
+    }
+
+    private long nextId(String table) {
+        Long max = jdbc.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        return max == null ? 1 : max + 1;
+    }
+
+    // Explicit ids don't advance H2's identity generator; MySQL moves AUTO_INCREMENT on its own
+    private void restartIdentity(String table) {
+        String product = jdbc.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if ("H2".equals(product)) {
+            jdbc.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + nextId(table));
+        }
+    }
+}
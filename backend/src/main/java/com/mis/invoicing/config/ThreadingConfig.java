@@ -0,0 +1,29 @@
+package com.mis.invoicing.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+/**
+ * Virtual threads are opt-in ({@code spring.threads.virtual.enabled}) and need a
+ * JDK 21+ runtime. Spring Boot quietly stays on platform threads otherwise, so the
+ * mode actually in use is logged at startup.
+ */
+@Slf4j
+@Configuration
+public class ThreadingConfig {
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportThreading(ApplicationReadyEvent event) {
+        Environment environment = event.getApplicationContext().getEnvironment();
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("Requests, @Async and @Scheduled work run on virtual threads");
+        } else if (environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+            log.warn("spring.threads.virtual.enabled is set, but virtual threads need Java 21+ (running {}); "
+                    + "staying on platform threads", Runtime.version().feature());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.mis.invoicing.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded map of already-verified tokens to their principals. Entries are never
+ * served past the token's own expiry, so a hit is as trustworthy as a fresh parse.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${app.jwt.cache-size:10000}")
+    private int maxSize;
+
+    private record Entry(UserDetails principal, long expiresAtMillis) {
+    }
+
+    public UserDetails get(String token) {
+        Entry entry = entries.get(token);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis() <= System.currentTimeMillis()) {
+            entries.remove(token, entry);
+            return null;
+        }
+        return entry.principal();
+    }
+
+    public void put(String token, UserDetails principal, long expiresAtMillis) {
+        if (maxSize <= 0) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(token, new Entry(principal, expiresAtMillis));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+        // Still full of live tokens: drop arbitrary entries, they will simply be re-verified
+        Iterator<String> it = entries.keySet().iterator();
+        while (entries.size() >= maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
@@ -1,41 +1,65 @@
 package com.mis.invoicing.controller;
 
+import com.mis.invoicing.dto.CursorPage;
 import com.mis.invoicing.model.Client;
+import com.mis.invoicing.model.Tombstone;
+import com.mis.invoicing.service.ChangeFeed;
 import com.mis.invoicing.service.ClientService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/clients")
 @RequiredArgsConstructor
 public class ClientController {
     private final ClientService clientService;
+    private final ChangeFeed changeFeed;
     
     @GetMapping
-    public ResponseEntity<List<Client>> getAllClients() {
-        return ResponseEntity.ok(clientService.getAllClients());
+    public ResponseEntity<List<Client>> getAllClients(WebRequest request) {
+        return ConditionalGet.respond(request, listTag(), clientService::getAllClients);
+    }
+    
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<Client>> getClientPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest request) {
+        return ConditionalGet.respond(request, listTag(),
+                () -> clientService.getClientPage(cursor, limit, category, from, to));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Client> getClientById(@PathVariable @NonNull Long id) {
-        return clientService.getClientById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Client> getClientById(@PathVariable @NonNull Long id, WebRequest request) {
+        // Clients come from the second-level cache, so the version is read off the entity without a query
+        Optional<Client> client = clientService.getClientById(id);
+        String etag = client.map(c -> ConditionalGet.strong(String.valueOf(c.getVersion()))).orElse(null);
+        return ConditionalGet.respondIfPresent(request, etag, () -> client);
     }
     
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Client>> getClientsByCategory(@PathVariable String category) {
-        return ResponseEntity.ok(clientService.getClientsByCategory(category));
+    public ResponseEntity<List<Client>> getClientsByCategory(@PathVariable String category, WebRequest request) {
+        return ConditionalGet.respond(request, listTag(), () -> clientService.getClientsByCategory(category));
     }
     
+    // Typeahead over name, email, phone and GSTIN; `name` is the query (kept for existing callers)
     @GetMapping("/search")
-    public ResponseEntity<List<Client>> searchClients(@RequestParam String name) {
-        return ResponseEntity.ok(clientService.searchClients(name));
+    public ResponseEntity<List<Client>> searchClients(
+            @RequestParam String name,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(clientService.searchClients(name, limit));
     }
     
     @PostMapping
@@ -54,4 +78,8 @@ public class ClientController {
         clientService.deleteClient(id);
         return ResponseEntity.noContent().build();
     }
+    
+    private String listTag() {
+        return ConditionalGet.weak(changeFeed, Tombstone.EntityType.CLIENT);
+    }
 }
@@ -0,0 +1,62 @@
+package com.mis.invoicing.controller;
+
+import com.mis.invoicing.model.Tombstone;
+import com.mis.invoicing.service.ChangeFeed;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET. Single resources carry strong ETags built from entity versions;
+ * lists carry weak ETags built from the change feed's state of their tables, which
+ * every instance reads from the database alike. The tag is worked out before anything
+ * is loaded, so a matching If-None-Match costs one small query instead of the body's
+ * and its serialization.
+ */
+final class ConditionalGet {
+    // Kept by the browser but revalidated on every use (Spring Security would otherwise send no-store)
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    
+    private ConditionalGet() {
+    }
+    
+    static String strong(String versionStamp) {
+        return "\"" + versionStamp + "\"";
+    }
+    
+    static String weak(ChangeFeed changeFeed, Tombstone.EntityType... tables) {
+        return "W/\"" + changeFeed.listVersion(tables) + "\"";
+    }
+    
+    static <T> ResponseEntity<T> respond(WebRequest request, String etag, Supplier<T> body) {
+        return respondIfPresent(request, etag, () -> Optional.of(body.get()));
+    }
+    
+    /** Answers 404 when {@code etag} is null (nothing to version) or the body turns out to be gone. */
+    static <T> ResponseEntity<T> respondIfPresent(WebRequest request, String etag, Supplier<Optional<T>> body) {
+        if (etag == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+        return body.get()
+                .map(b -> ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(b))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    // If-None-Match uses the weak comparison (RFC 9110 13.1.2)
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        ETag current = ETag.create(etag);
+        return ETag.parse(ifNoneMatch).stream().anyMatch(tag -> tag.isWildcard() || tag.compare(current, false));
+    }
+}
@@ -1,14 +1,22 @@
 package com.mis.invoicing.controller;
 
+import com.mis.invoicing.dto.CursorPage;
+import com.mis.invoicing.dto.EstimateRow;
 import com.mis.invoicing.model.Estimate;
 import com.mis.invoicing.model.Invoice;
+import com.mis.invoicing.model.Job;
 import com.mis.invoicing.service.EstimateService;
+import com.mis.invoicing.service.JobService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -16,12 +24,24 @@ import java.util.List;
 @RequiredArgsConstructor
 public class EstimateController {
     private final EstimateService estimateService;
+    private final JobService jobService;
     
     @GetMapping
-    public ResponseEntity<List<Estimate>> getAllEstimates() {
+    public ResponseEntity<List<EstimateRow>> getAllEstimates() {
         return ResponseEntity.ok(estimateService.getAllEstimates());
     }
     
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<EstimateRow>> getEstimatePage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Estimate.EstimateStatus status,
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(estimateService.getEstimatePage(cursor, limit, status, clientId, from, to));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<Estimate> getEstimateById(@PathVariable @NonNull Long id) {
         return estimateService.getEstimateById(id)
@@ -30,7 +50,7 @@ public class EstimateController {
     }
     
     @GetMapping("/client/{clientId}")
-    public ResponseEntity<List<Estimate>> getEstimatesByClientId(@PathVariable Long clientId) {
+    public ResponseEntity<List<EstimateRow>> getEstimatesByClientId(@PathVariable Long clientId) {
         return ResponseEntity.ok(estimateService.getEstimatesByClientId(clientId));
     }
     
@@ -55,6 +75,14 @@ public class EstimateController {
                 .body(estimateService.convertToInvoice(id));
     }
     
+    // Converts all approved estimates, optionally of one client, as a background job
+    @PostMapping("/convert")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Job> convertApproved(@RequestParam(required = false) Long clientId) {
+        Job job = jobService.submit(Job.JobType.ESTIMATE_CONVERSION, JobService.params("clientId", clientId));
+        return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.getId())).body(job);
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteEstimate(@PathVariable @NonNull Long id) {
         estimateService.deleteEstimate(id);
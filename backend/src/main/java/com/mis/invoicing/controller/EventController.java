@@ -0,0 +1,26 @@
+package com.mis.invoicing.controller;
+
+import com.mis.invoicing.service.LiveUpdates;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+public class EventController {
+    private final LiveUpdates liveUpdates;
+    
+    // Server-sent events: "dashboard" carries the stats, "changes" lists the records that changed
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                // Stops nginx from buffering the stream
+                .header("X-Accel-Buffering", "no")
+                .body(liveUpdates.subscribe());
+    }
+}
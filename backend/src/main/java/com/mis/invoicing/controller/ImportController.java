@@ -0,0 +1,58 @@
+package com.mis.invoicing.controller;
+
+import com.mis.invoicing.model.Job;
+import com.mis.invoicing.service.CsvImportService;
+import com.mis.invoicing.service.JobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.NonNull;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/imports")
+@RequiredArgsConstructor
+public class ImportController {
+    private final CsvImportService csvImportService;
+    private final JobService jobService;
+    
+    // The header row is checked up front; the rows themselves are imported as a background job
+    @PostMapping(value = "/clients", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Job> importClients(@RequestParam MultipartFile file) throws IOException {
+        return submit(CsvImportService.Kind.CLIENTS, file);
+    }
+    
+    @PostMapping(value = "/invoices", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Job> importInvoices(@RequestParam MultipartFile file) throws IOException {
+        return submit(CsvImportService.Kind.INVOICES, file);
+    }
+    
+    // Rejected rows so far: line number, reason and the original fields, so as private as the upload itself
+    @GetMapping("/{jobId}/errors")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Resource> getErrorReport(@PathVariable @NonNull Long jobId) {
+        return csvImportService.getErrorReport(jobId)
+                .map(report -> ResponseEntity.ok()
+                        .contentType(new MediaType("text", "csv"))
+                        .header(HttpHeaders.CONTENT_DISPOSITION,
+                                "attachment; filename=\"import-" + jobId + "-errors.csv\"")
+                        .<Resource>body(new FileSystemResource(report)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    private ResponseEntity<Job> submit(CsvImportService.Kind kind, MultipartFile file) throws IOException {
+        String stored = csvImportService.store(kind, file);
+        Job job = jobService.submit(Job.JobType.CSV_IMPORT, JobService.params("kind", kind, "file", stored));
+        return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.getId())).body(job);
+    }
+}
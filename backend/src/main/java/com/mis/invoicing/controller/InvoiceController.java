@@ -1,13 +1,35 @@
 package com.mis.invoicing.controller;
 
+import com.mis.invoicing.dto.BulkInvoiceItem;
+import com.mis.invoicing.dto.BulkInvoiceResult;
+import com.mis.invoicing.dto.CursorPage;
+import com.mis.invoicing.dto.InvoiceRow;
+import com.mis.invoicing.model.BatchCheckpoint;
 import com.mis.invoicing.model.Invoice;
+import com.mis.invoicing.model.Job;
+import com.mis.invoicing.model.Tombstone;
+import com.mis.invoicing.service.ChangeFeed;
+import com.mis.invoicing.service.ExportService;
+import com.mis.invoicing.service.InvoiceBulkService;
+import com.mis.invoicing.service.InvoicePdfService;
 import com.mis.invoicing.service.InvoiceService;
+import com.mis.invoicing.service.JobService;
+import com.mis.invoicing.service.OverdueInvoiceJob;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -15,27 +37,106 @@ import java.util.List;
 @RequiredArgsConstructor
 public class InvoiceController {
     private final InvoiceService invoiceService;
+    private final InvoiceBulkService invoiceBulkService;
+    private final ExportService exportService;
+    private final OverdueInvoiceJob overdueInvoiceJob;
+    private final InvoicePdfService invoicePdfService;
+    private final JobService jobService;
+    private final ChangeFeed changeFeed;
     
     @GetMapping
-    public ResponseEntity<List<Invoice>> getAllInvoices() {
-        return ResponseEntity.ok(invoiceService.getAllInvoices());
+    public ResponseEntity<List<InvoiceRow>> getAllInvoices(WebRequest request) {
+        return ConditionalGet.respond(request, listTag(), invoiceService::getAllInvoices);
     }
     
-    @GetMapping("/{id}")
-    public ResponseEntity<Invoice> getInvoiceById(@PathVariable @NonNull Long id) {
-        return invoiceService.getInvoiceById(id)
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<InvoiceRow>> getInvoicePage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Invoice.InvoiceStatus status,
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest request) {
+        return ConditionalGet.respond(request, listTag(),
+                () -> invoiceService.getInvoicePage(cursor, limit, status, clientId, from, to));
+    }
+    
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportInvoices(
+            @RequestParam(defaultValue = "NDJSON") ExportService.Format format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        boolean csv = format == ExportService.Format.CSV;
+        StreamingResponseBody body = out -> exportService.exportInvoices(format, from, to, out);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : new MediaType("application", "x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"invoices." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
+    }
+    
+    // ZIP of the month's tax invoice PDFs, rendered in parallel and streamed as they complete
+    @GetMapping("/pdf")
+    public ResponseEntity<StreamingResponseBody> downloadMonthPdfs(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        StreamingResponseBody body = out -> invoicePdfService.writeMonthZip(month, out);
+        return ResponseEntity.ok()
+                .contentType(new MediaType("application", "zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"invoices-" + month + ".zip\"")
+                .body(body);
+    }
+    
+    // Renders the month's invoices into the PDF output directory as a background job
+    @PostMapping("/pdf")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Job> renderMonthPdfs(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        Job job = jobService.submit(Job.JobType.INVOICE_PDF_EXPORT, JobService.params("month", month));
+        return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.getId())).body(job);
+    }
+    
+    @GetMapping("/overdue-run")
+    public ResponseEntity<BatchCheckpoint> getOverdueRun() {
+        return overdueInvoiceJob.getLastRun()
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    @PostMapping("/overdue-run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BatchCheckpoint> runOverdueTransition(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        return ResponseEntity.ok(overdueInvoiceJob.run(asOf != null ? asOf : overdueInvoiceJob.today()));
+    }
+    
+    @GetMapping("/{id}/pdf")
+    public ResponseEntity<StreamingResponseBody> getInvoicePdf(@PathVariable @NonNull Long id) {
+        // Loaded up front so a missing invoice fails before the response is committed
+        Invoice invoice = invoicePdfService.getInvoice(id);
+        StreamingResponseBody body = out -> invoicePdfService.render(invoice, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "inline; filename=\"" + InvoicePdfService.fileName(invoice) + "\"")
+                .body(body);
+    }
+    
+    @GetMapping("/{id}")
+    public ResponseEntity<Invoice> getInvoiceById(@PathVariable @NonNull Long id, WebRequest request) {
+        String etag = invoiceService.getInvoiceVersion(id).map(ConditionalGet::strong).orElse(null);
+        return ConditionalGet.respondIfPresent(request, etag, () -> invoiceService.getInvoiceById(id));
+    }
+    
     @GetMapping("/client/{clientId}")
-    public ResponseEntity<List<Invoice>> getInvoicesByClientId(@PathVariable Long clientId) {
-        return ResponseEntity.ok(invoiceService.getInvoicesByClientId(clientId));
+    public ResponseEntity<List<InvoiceRow>> getInvoicesByClientId(@PathVariable Long clientId, WebRequest request) {
+        return ConditionalGet.respond(request, listTag(), () -> invoiceService.getInvoicesByClientId(clientId));
     }
     
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<Invoice>> getInvoicesByStatus(@PathVariable Invoice.InvoiceStatus status) {
-        return ResponseEntity.ok(invoiceService.getInvoicesByStatus(status));
+    public ResponseEntity<List<InvoiceRow>> getInvoicesByStatus(@PathVariable Invoice.InvoiceStatus status,
+                                                                WebRequest request) {
+        return ConditionalGet.respond(request, listTag(), () -> invoiceService.getInvoicesByStatus(status));
     }
     
     @PostMapping
@@ -47,6 +148,12 @@ public class InvoiceController {
                 .body(invoiceService.createInvoice(clientId, invoice, isInterState));
     }
     
+    // Up to app.invoices.bulk-max-items invoices; the response has one result per item, in order
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkInvoiceResult> createInvoices(@RequestBody List<BulkInvoiceItem> invoices) {
+        return ResponseEntity.ok(invoiceBulkService.createInvoices(invoices));
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<Invoice> updateInvoice(
             @PathVariable @NonNull Long id,
@@ -60,4 +167,9 @@ public class InvoiceController {
         invoiceService.deleteInvoice(id);
         return ResponseEntity.noContent().build();
     }
+    
+    // Rows carry the client name, so client edits change the list too
+    private String listTag() {
+        return ConditionalGet.weak(changeFeed, Tombstone.EntityType.INVOICE, Tombstone.EntityType.CLIENT);
+    }
 }
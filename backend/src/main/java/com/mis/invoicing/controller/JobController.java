@@ -0,0 +1,49 @@
+package com.mis.invoicing.controller;
+
+import com.mis.invoicing.model.Job;
+import com.mis.invoicing.service.JobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.NonNull;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/jobs")
+@RequiredArgsConstructor
+public class JobController {
+    private final JobService jobService;
+    
+    // Newest first
+    @GetMapping
+    public ResponseEntity<List<Job>> getRecentJobs(
+            @RequestParam(required = false) Job.JobStatus status,
+            @RequestParam(required = false) Job.JobType type,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(jobService.getRecentJobs(status, type, limit));
+    }
+    
+    // Status and progress (processed/failed of total) of one job
+    @GetMapping("/{id}")
+    public ResponseEntity<Job> getJob(@PathVariable @NonNull Long id) {
+        return jobService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    // A queued job is cancelled at once; a running one stops after its current chunk
+    @PostMapping("/{id}/cancel")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Job> cancelJob(@PathVariable @NonNull Long id) {
+        return ResponseEntity.ok(jobService.cancel(id));
+    }
+    
+    // Queues a failed or cancelled job again from its last checkpoint
+    @PostMapping("/{id}/resume")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Job> resumeJob(@PathVariable @NonNull Long id) {
+        return ResponseEntity.ok(jobService.resume(id));
+    }
+}
@@ -1,13 +1,24 @@
 package com.mis.invoicing.controller;
 
+import com.mis.invoicing.dto.CursorPage;
+import com.mis.invoicing.dto.PaymentRow;
 import com.mis.invoicing.model.Payment;
+import com.mis.invoicing.model.Tombstone;
+import com.mis.invoicing.service.ChangeFeed;
+import com.mis.invoicing.service.ExportService;
 import com.mis.invoicing.service.PaymentService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -15,22 +26,51 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PaymentController {
     private final PaymentService paymentService;
+    private final ExportService exportService;
+    private final ChangeFeed changeFeed;
     
     @GetMapping
-    public ResponseEntity<List<Payment>> getAllPayments() {
-        return ResponseEntity.ok(paymentService.getAllPayments());
+    public ResponseEntity<List<PaymentRow>> getAllPayments(WebRequest request) {
+        return ConditionalGet.respond(request, listTag(), paymentService::getAllPayments);
+    }
+    
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<PaymentRow>> getPaymentPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long invoiceId,
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest request) {
+        return ConditionalGet.respond(request, listTag(),
+                () -> paymentService.getPaymentPage(cursor, limit, invoiceId, clientId, from, to));
+    }
+    
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam(defaultValue = "NDJSON") ExportService.Format format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        boolean csv = format == ExportService.Format.CSV;
+        StreamingResponseBody body = out -> exportService.exportPayments(format, from, to, out);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : new MediaType("application", "x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"payments." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Payment> getPaymentById(@PathVariable @NonNull Long id) {
-        return paymentService.getPaymentById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Payment> getPaymentById(@PathVariable @NonNull Long id, WebRequest request) {
+        String etag = paymentService.getPaymentVersion(id).map(ConditionalGet::strong).orElse(null);
+        return ConditionalGet.respondIfPresent(request, etag, () -> paymentService.getPaymentById(id));
     }
     
     @GetMapping("/invoice/{invoiceId}")
-    public ResponseEntity<List<Payment>> getPaymentsByInvoiceId(@PathVariable @NonNull Long invoiceId) {
-        return ResponseEntity.ok(paymentService.getPaymentsByInvoiceId(invoiceId));
+    public ResponseEntity<List<PaymentRow>> getPaymentsByInvoiceId(@PathVariable @NonNull Long invoiceId,
+                                                                   WebRequest request) {
+        return ConditionalGet.respond(request, listTag(), () -> paymentService.getPaymentsByInvoiceId(invoiceId));
     }
     
     @PostMapping
@@ -46,4 +86,10 @@ public class PaymentController {
         paymentService.deletePayment(id);
         return ResponseEntity.noContent().build();
     }
+    
+    // Rows carry the invoice number and client name
+    private String listTag() {
+        return ConditionalGet.weak(changeFeed, Tombstone.EntityType.PAYMENT,
+                Tombstone.EntityType.INVOICE, Tombstone.EntityType.CLIENT);
+    }
 }
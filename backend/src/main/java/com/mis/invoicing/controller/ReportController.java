@@ -0,0 +1,80 @@
+package com.mis.invoicing.controller;
+
+import com.mis.invoicing.dto.AgingReport;
+import com.mis.invoicing.dto.AgingRow;
+import com.mis.invoicing.dto.HsnSummary;
+import com.mis.invoicing.dto.ItemSummary;
+import com.mis.invoicing.dto.RevenuePoint;
+import com.mis.invoicing.model.Job;
+import com.mis.invoicing.service.AgingReportService;
+import com.mis.invoicing.service.JobService;
+import com.mis.invoicing.service.ReportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reports")
+@RequiredArgsConstructor
+public class ReportController {
+    private final ReportService reportService;
+    private final AgingReportService agingReportService;
+    private final JobService jobService;
+    
+    // HSN-wise summary of invoiced supplies (GSTR-1 table 12)
+    @GetMapping("/hsn")
+    public ResponseEntity<List<HsnSummary>> getHsnSummary(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(reportService.getHsnSummary(from, to));
+    }
+    
+    @GetMapping("/items")
+    public ResponseEntity<List<ItemSummary>> getTopItems(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(reportService.getTopItems(from, to, limit));
+    }
+    
+    // Daily/weekly/monthly revenue, GST and collections from the rollup; byCategory splits by client category
+    @GetMapping("/revenue")
+    public ResponseEntity<List<RevenuePoint>> getRevenueSeries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") ReportService.Granularity granularity,
+            @RequestParam(defaultValue = "false") boolean byCategory) {
+        return ResponseEntity.ok(reportService.getRevenueSeries(from, to, granularity, byCategory));
+    }
+    
+    // Recomputes the rollup from invoices and payments as a background job; open bounds cover all history
+    @PostMapping("/revenue/backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Job> backfillRevenue(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        Job job = jobService.submit(Job.JobType.REVENUE_BACKFILL, JobService.params("from", from, "to", to));
+        return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.getId())).body(job);
+    }
+    
+    // Receivables aging by days past due; asOf defaults to today
+    @GetMapping("/aging")
+    public ResponseEntity<AgingReport> getAging(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(agingReportService.getReport(asOf, limit));
+    }
+    
+    @GetMapping("/aging/clients/{clientId}")
+    public ResponseEntity<AgingRow> getClientAging(
+            @PathVariable Long clientId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        return ResponseEntity.ok(agingReportService.getClientAging(clientId, asOf));
+    }
+}
@@ -0,0 +1,21 @@
+package com.mis.invoicing.controller;
+
+import com.mis.invoicing.dto.SyncBatch;
+import com.mis.invoicing.service.ChangeFeed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+public class SyncController {
+    private final ChangeFeed changeFeed;
+    
+    // Start from 0, then pass back the returned cursor; 410 means the cursor is too old to resume from
+    @GetMapping
+    public ResponseEntity<SyncBatch> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(changeFeed.changesSince(since, limit));
+    }
+}
@@ -0,0 +1,17 @@
+package com.mis.invoicing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/** Accounts-receivable aging as of a date: overall totals plus clients by outstanding amount, largest first. */
+@Data
+@AllArgsConstructor
+public class AgingReport {
+    private LocalDate asOf;
+    private AgingRow totals;
+    private List<AgingRow> clients;
+    private long computedMillis;
+}
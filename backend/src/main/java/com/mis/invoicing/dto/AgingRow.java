@@ -0,0 +1,24 @@
+package com.mis.invoicing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Outstanding receivables of one client (or of all clients, with a null id) split by
+ * days past the due date.
+ */
+@Data
+@AllArgsConstructor
+public class AgingRow {
+    private Long clientId;
+    private String clientName;
+    private long openInvoices;
+    private BigDecimal notDue;
+    private BigDecimal days0To30;
+    private BigDecimal days31To60;
+    private BigDecimal days61To90;
+    private BigDecimal over90;
+    private BigDecimal total;
+}
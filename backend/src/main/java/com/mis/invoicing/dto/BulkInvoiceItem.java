@@ -0,0 +1,21 @@
+package com.mis.invoicing.dto;
+
+import com.mis.invoicing.model.LineItem;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/** One invoice in a bulk create request; numbers are always allocated by the server. */
+@Data
+@NoArgsConstructor
+public class BulkInvoiceItem {
+    private Long clientId;
+    private boolean interState;
+    private String items;
+    private BigDecimal subtotal;
+    private List<LineItem> lineItems;
+    private LocalDate dueDate;
+}
@@ -0,0 +1,32 @@
+package com.mis.invoicing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/** Outcome of a bulk create, with one entry per submitted invoice in request order. */
+@Data
+@AllArgsConstructor
+public class BulkInvoiceResult {
+    private int created;
+    private int failed;
+    private List<Item> results;
+
+    @Data
+    @AllArgsConstructor
+    public static class Item {
+        private int index;
+        private Long id;
+        private String invoiceNumber;
+        private String error;
+
+        public static Item created(int index, Long id, String invoiceNumber) {
+            return new Item(index, id, invoiceNumber, null);
+        }
+
+        public static Item failed(int index, String error) {
+            return new Item(index, null, null, error);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.mis.invoicing.dto;
+
+import com.mis.invoicing.model.Estimate;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** Flat estimate list row carrying only the client's id and name. */
+@Data
+@AllArgsConstructor
+public class EstimateRow {
+    private Long id;
+    private String estimateNumber;
+    private Long clientId;
+    private String clientName;
+    private BigDecimal subtotal;
+    private BigDecimal gstAmount;
+    private BigDecimal total;
+    private Estimate.EstimateStatus status;
+    private LocalDateTime createdAt;
+}
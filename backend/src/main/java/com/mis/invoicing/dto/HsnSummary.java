@@ -0,0 +1,18 @@
+package com.mis.invoicing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/** Invoiced quantity, taxable value and tax for one HSN/SAC code at one GST rate. */
+@Data
+@AllArgsConstructor
+public class HsnSummary {
+    private String hsnSac;
+    private BigDecimal gstRate;
+    private Long lines;
+    private BigDecimal quantity;
+    private BigDecimal taxableValue;
+    private BigDecimal taxAmount;
+}
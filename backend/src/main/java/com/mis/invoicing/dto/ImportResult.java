@@ -0,0 +1,19 @@
+package com.mis.invoicing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Outcome of a CSV import job. Rejected rows, with their line number and reason,
+ * are in the error report when {@code errorReport} is set.
+ */
+@Data
+@AllArgsConstructor
+public class ImportResult {
+    private String kind;
+    private long rows;
+    private long imported;
+    private long rejected;
+    private String errorReport;
+    private long durationMs;
+}
@@ -0,0 +1,43 @@
+package com.mis.invoicing.dto;
+
+import com.mis.invoicing.model.Invoice;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Flat invoice list row: the client is reduced to its id and name and the estimate
+ * to its id, so list payloads don't repeat whole client records per row.
+ */
+@Data
+@AllArgsConstructor
+public class InvoiceRow {
+    private Long id;
+    private String invoiceNumber;
+    private Long clientId;
+    private String clientName;
+    private Long estimateId;
+    private BigDecimal subtotal;
+    private BigDecimal cgst;
+    private BigDecimal sgst;
+    private BigDecimal igst;
+    private BigDecimal total;
+    private BigDecimal amountPaid;
+    private BigDecimal balanceDue;
+    private Invoice.InvoiceStatus status;
+    private LocalDate dueDate;
+    private LocalDateTime createdAt;
+
+    // Only the proxy id is read from the associations, so this never triggers a lazy load
+    public static InvoiceRow of(Invoice invoice, String clientName) {
+        return new InvoiceRow(invoice.getId(), invoice.getInvoiceNumber(),
+                invoice.getClient() != null ? invoice.getClient().getId() : null, clientName,
+                invoice.getEstimate() != null ? invoice.getEstimate().getId() : null,
+                invoice.getSubtotal(), invoice.getCgst(), invoice.getSgst(), invoice.getIgst(),
+                invoice.getTotal(), invoice.getAmountPaid(), invoice.getBalanceDue(),
+                invoice.getStatus(), invoice.getDueDate(), invoice.getCreatedAt());
+    }
+}
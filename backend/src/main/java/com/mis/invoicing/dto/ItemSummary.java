@@ -0,0 +1,18 @@
+package com.mis.invoicing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/** Invoiced totals for one item, identified by its description and HSN/SAC code. */
+@Data
+@AllArgsConstructor
+public class ItemSummary {
+    private String description;
+    private String hsnSac;
+    private Long lines;
+    private BigDecimal quantity;
+    private BigDecimal taxableValue;
+    private BigDecimal taxAmount;
+}
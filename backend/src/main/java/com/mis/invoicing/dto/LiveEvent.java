@@ -0,0 +1,24 @@
+package com.mis.invoicing.dto;
+
+import com.mis.invoicing.model.Tombstone;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of a {@code changes} event on /api/events. RELOAD stands for more
+ * changes to {@code type} than were worth listing and carries no id; the list
+ * should simply be fetched again.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveEvent {
+    public enum Op {
+        UPSERT, DELETE, RELOAD
+    }
+
+    private Tombstone.EntityType type;
+    private Long id;
+    private Op op;
+}
@@ -0,0 +1,22 @@
+package com.mis.invoicing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** Flat payment list row with the invoice number and client name it was applied to. */
+@Data
+@AllArgsConstructor
+public class PaymentRow {
+    private Long id;
+    private Long invoiceId;
+    private String invoiceNumber;
+    private Long clientId;
+    private String clientName;
+    private BigDecimal amount;
+    private String paymentMode;
+    private String transactionRef;
+    private LocalDateTime paymentDate;
+}
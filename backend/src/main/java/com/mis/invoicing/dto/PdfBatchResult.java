@@ -0,0 +1,17 @@
+package com.mis.invoicing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.YearMonth;
+
+/** Outcome of a job rendering a month's invoices to the PDF output directory. */
+@Data
+@AllArgsConstructor
+public class PdfBatchResult {
+    private YearMonth month;
+    private String directory;
+    private long documents;
+    private long failed;
+    private long durationMs;
+}
@@ -0,0 +1,24 @@
+package com.mis.invoicing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Revenue, GST and payments for one period of a time series, optionally for one
+ * client category (null when categories are combined or the client has none).
+ */
+@Data
+@AllArgsConstructor
+public class RevenuePoint {
+    private LocalDate periodStart;
+    private String category;
+    private long invoices;
+    private BigDecimal taxableValue;
+    private BigDecimal taxAmount;
+    private BigDecimal invoiced;
+    private long payments;
+    private BigDecimal received;
+}
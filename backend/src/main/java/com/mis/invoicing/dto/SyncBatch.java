@@ -0,0 +1,18 @@
+package com.mis.invoicing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Changes after a sync cursor, in sequence order. Pass {@code cursor} back as
+ * {@code since} to continue; while {@code hasMore} is true another batch is ready.
+ */
+@Data
+@AllArgsConstructor
+public class SyncBatch {
+    private List<SyncChange> changes;
+    private long cursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,45 @@
+package com.mis.invoicing.dto;
+
+import com.mis.invoicing.model.Tombstone;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the /api/sync feed. An UPSERT carries the record's current list row
+ * (Client, EstimateRow, InvoiceRow or PaymentRow) in {@code data}; a DELETE only
+ * names the record.
+ */
+@Data
+@NoArgsConstructor
+public class SyncChange {
+    public enum Op {
+        UPSERT, DELETE
+    }
+
+    private long seq;
+    private Tombstone.EntityType type;
+    private Long id;
+    private Op op;
+    private Long version;
+    private LocalDateTime updatedAt;
+    private Object data;
+
+    // Changed row; the type is filled in by the caller
+    public SyncChange(Long seq, Long id, Long version, LocalDateTime updatedAt) {
+        this.seq = seq;
+        this.id = id;
+        this.op = Op.UPSERT;
+        this.version = version;
+        this.updatedAt = updatedAt;
+    }
+
+    public SyncChange(Long seq, Tombstone.EntityType type, Long id, LocalDateTime deletedAt) {
+        this.seq = seq;
+        this.type = type;
+        this.id = id;
+        this.op = Op.DELETE;
+        this.updatedAt = deletedAt;
+    }
+}
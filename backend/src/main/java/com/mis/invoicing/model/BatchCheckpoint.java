@@ -0,0 +1,41 @@
+package com.mis.invoicing.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "batch_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCheckpoint {
+    @Id
+    @Column(length = 50)
+    private String jobName;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private RunStatus status;
+    
+    private LocalDate asOfDate;
+    
+    private Long lastProcessedId;
+    
+    private long rowsUpdated;
+    
+    private long chunks;
+    
+    private LocalDateTime startedAt;
+    
+    private LocalDateTime finishedAt;
+    
+    private Long lastDurationMs;
+    
+    public enum RunStatus {
+        RUNNING, COMPLETED
+    }
+}
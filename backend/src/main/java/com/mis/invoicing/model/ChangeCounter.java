@@ -0,0 +1,30 @@
+package com.mis.invoicing.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single-row state of the change feed: the last sequence number handed out and the
+ * highest one whose tombstones have been purged. Locked by every sequencing run, so
+ * runs on different instances take turns.
+ */
+@Entity
+@Table(name = "change_counter")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeCounter {
+    public static final int ID = 1;
+    
+    @Id
+    private Integer id;
+    
+    @Column(name = "last_seq", nullable = false)
+    private long lastSeq;
+    
+    // A cursor below this may have missed deletes and has to start over
+    @Column(name = "purged_through", nullable = false)
+    private long purgedThrough;
+}
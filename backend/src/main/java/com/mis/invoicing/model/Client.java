@@ -1,13 +1,23 @@
 package com.mis.invoicing.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "clients")
+@Table(name = "clients", indexes = {
+        @Index(name = "idx_clients_category", columnList = "category"),
+        @Index(name = "idx_clients_created_at", columnList = "created_at"),
+        @Index(name = "idx_clients_change_seq", columnList = "change_seq")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "clients")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -30,11 +40,30 @@ public class Client {
     @Column(length = 50)
     private String category; // group, chain, brand
     
+    @Version
+    @ColumnDefault("0") // rows that predate the column start at version 0
+    private Long version;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Position in the /api/sync feed; cleared on every write and reassigned by ChangeFeed once committed
+    @Column(name = "change_seq")
+    @JsonIgnore
+    private Long changeSeq;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+        changeSeq = null;
     }
 }
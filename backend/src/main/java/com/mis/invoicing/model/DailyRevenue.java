@@ -0,0 +1,56 @@
+package com.mis.invoicing.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Invoiced and received amounts for one day and one client category. Maintained
+ * incrementally by the invoice and payment write paths; time-series reports read
+ * only this table.
+ */
+@Entity
+@Table(name = "daily_revenue")
+@IdClass(DailyRevenue.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyRevenue {
+    @Id
+    @Column(name = "revenue_date")
+    private LocalDate revenueDate; // invoice issue date or payment date
+    
+    @Id
+    @Column(length = 50)
+    private String category; // client category, empty when the client has none
+    
+    @Column(nullable = false)
+    private Long invoiceCount;
+    
+    @Column(precision = 15, scale = 2, nullable = false)
+    private BigDecimal taxableValue;
+    
+    @Column(precision = 15, scale = 2, nullable = false)
+    private BigDecimal taxAmount;
+    
+    @Column(precision = 15, scale = 2, nullable = false)
+    private BigDecimal invoicedTotal;
+    
+    @Column(nullable = false)
+    private Long paymentCount;
+    
+    @Column(precision = 15, scale = 2, nullable = false)
+    private BigDecimal paymentsReceived;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate revenueDate;
+        private String category;
+    }
+}
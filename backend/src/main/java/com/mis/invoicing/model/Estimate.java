@@ -1,14 +1,24 @@
 package com.mis.invoicing.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
-@Table(name = "estimates")
+@Table(name = "estimates", indexes = {
+        @Index(name = "idx_estimates_status", columnList = "status"),
+        @Index(name = "idx_estimates_created_at", columnList = "created_at"),
+        @Index(name = "idx_estimates_change_seq", columnList = "change_seq")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,7 +27,7 @@ public class Estimate {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "client_id", nullable = false)
     private Client client;
     
@@ -25,7 +35,13 @@ public class Estimate {
     private String estimateNumber;
     
     @Column(columnDefinition = "TEXT")
-    private String items; // JSON string for line items
+    private String items; // free-text notes; priced lines live in lineItems
+    
+    @OneToMany(mappedBy = "estimate", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("lineNo")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<LineItem> lineItems = new ArrayList<>();
     
     @Column(precision = 12, scale = 2)
     private BigDecimal subtotal;
@@ -39,15 +55,31 @@ public class Estimate {
     @Enumerated(EnumType.STRING)
     private EstimateStatus status = EstimateStatus.DRAFT;
     
+    @Version
+    @ColumnDefault("0") // rows that predate the column start at version 0
+    private Long version;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Position in the /api/sync feed; cleared on every write and reassigned by ChangeFeed once committed
+    @Column(name = "change_seq")
+    @JsonIgnore
+    private Long changeSeq;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
-        if (estimateNumber == null) {
-            estimateNumber = "EST-" + System.currentTimeMillis();
-        }
+        updatedAt = createdAt;
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+        changeSeq = null;
     }
     
     public enum EstimateStatus {
@@ -1,28 +1,39 @@
 package com.mis.invoicing.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
-@Table(name = "invoices")
+@Table(name = "invoices", indexes = {
+        @Index(name = "idx_invoices_status_due_date", columnList = "status, due_date"),
+        @Index(name = "idx_invoices_created_at", columnList = "created_at"),
+        @Index(name = "idx_invoices_change_seq", columnList = "change_seq")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Invoice {
+    // Pooled sequence so bulk creates are inserted in JDBC batches (IDENTITY disables batching)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoices_seq")
+    @SequenceGenerator(name = "invoices_seq", sequenceName = "invoices_seq", allocationSize = 50)
     private Long id;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "client_id", nullable = false)
     private Client client;
     
-    @OneToOne(fetch = FetchType.EAGER)
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "estimate_id")
     private Estimate estimate;
     
@@ -30,7 +41,13 @@ public class Invoice {
     private String invoiceNumber;
     
     @Column(columnDefinition = "TEXT")
-    private String items; // JSON string for line items
+    private String items; // free-text notes; priced lines live in lineItems
+    
+    @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("lineNo")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<LineItem> lineItems = new ArrayList<>();
     
     @Column(precision = 12, scale = 2)
     private BigDecimal subtotal;
@@ -47,6 +64,15 @@ public class Invoice {
     @Column(precision = 12, scale = 2)
     private BigDecimal total;
     
+    @Column(precision = 12, scale = 2)
+    private BigDecimal amountPaid = BigDecimal.ZERO; // running sum of recorded payments
+    
+    @Column(precision = 12, scale = 2)
+    private BigDecimal balanceDue;
+    
+    @Version
+    private Long version;
+    
     @Enumerated(EnumType.STRING)
     private InvoiceStatus status = InvoiceStatus.PENDING;
     
@@ -55,12 +81,24 @@ public class Invoice {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Position in the /api/sync feed; cleared on every write and reassigned by ChangeFeed once committed
+    @Column(name = "change_seq")
+    @JsonIgnore
+    private Long changeSeq;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
-        if (invoiceNumber == null) {
-            invoiceNumber = "INV-" + System.currentTimeMillis();
-        }
+        updatedAt = createdAt;
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+        changeSeq = null;
     }
     
     public enum InvoiceStatus {
@@ -0,0 +1,79 @@
+package com.mis.invoicing.model;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "jobs", indexes = {
+        @Index(name = "idx_jobs_status", columnList = "status"),
+        @Index(name = "idx_jobs_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Job {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(length = 30, nullable = false)
+    private JobType type;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private JobStatus status;
+    
+    @JsonRawValue
+    @Column(columnDefinition = "TEXT")
+    private String params; // JSON object of string values
+    
+    private String checkpoint; // resume point, written by the handler together with each chunk
+    
+    private long processed;
+    
+    private long failed;
+    
+    private Long total;
+    
+    private boolean cancelRequested;
+    
+    private int attempts;
+    
+    @JsonRawValue
+    @Column(columnDefinition = "TEXT")
+    private String result; // JSON summary returned by the handler
+    
+    @Column(length = 1000)
+    private String error;
+    
+    @Column(length = 100)
+    private String createdBy;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    private LocalDateTime startedAt;
+    
+    private LocalDateTime updatedAt;
+    
+    private LocalDateTime finishedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+    
+    public enum JobType {
+        ESTIMATE_CONVERSION, INVOICE_PDF_EXPORT, REVENUE_BACKFILL, CSV_IMPORT
+    }
+    
+    public enum JobStatus {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED
+    }
+}
@@ -0,0 +1,75 @@
+package com.mis.invoicing.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import java.math.BigDecimal;
+
+/**
+ * One priced line of an invoice or an estimate (exactly one of the two is set).
+ * Taxable value and tax are computed on the server from quantity, unit price and
+ * the line's GST slab.
+ */
+@Entity
+@Table(name = "line_items", indexes = {
+        @Index(name = "idx_line_items_invoice", columnList = "invoice_id, line_no"),
+        @Index(name = "idx_line_items_estimate", columnList = "estimate_id, line_no"),
+        @Index(name = "idx_line_items_hsn_rate", columnList = "hsn_sac, gst_rate")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LineItem {
+    // Pooled sequence so a document's lines go out as one JDBC batch (IDENTITY disables batching)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "line_items_seq")
+    @SequenceGenerator(name = "line_items_seq", sequenceName = "line_items_seq", allocationSize = 50)
+    private Long id;
+    
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "invoice_id")
+    private Invoice invoice;
+    
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "estimate_id")
+    private Estimate estimate;
+    
+    @Column(name = "line_no", nullable = false)
+    private Integer lineNo;
+    
+    @Column(nullable = false)
+    private String description;
+    
+    @Column(name = "hsn_sac", length = 8)
+    private String hsnSac; // HSN for goods, SAC for services
+    
+    @Column(precision = 12, scale = 3, nullable = false)
+    private BigDecimal quantity;
+    
+    @Column(precision = 12, scale = 2, nullable = false)
+    private BigDecimal unitPrice;
+    
+    @Column(name = "gst_rate", precision = 5, scale = 2, nullable = false)
+    private BigDecimal gstRate; // percent: 0, 5, 12, 18 or 28
+    
+    @Column(precision = 12, scale = 2)
+    private BigDecimal taxableValue;
+    
+    @Column(precision = 12, scale = 2)
+    private BigDecimal taxAmount;
+    
+    /** Detached copy for another document; amounts are recomputed when it is priced. */
+    public LineItem copy() {
+        return new LineItem(null, null, null, null, description, hsnSac, quantity, unitPrice, gstRate, null, null);
+    }
+}
@@ -0,0 +1,20 @@
+package com.mis.invoicing.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "number_series")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NumberSeries {
+    @Id
+    @Column(length = 40)
+    private String seriesKey; // e.g. INV/2026-27
+    
+    @Column(nullable = false)
+    private Long nextValue; // first number not yet handed to any instance
+}
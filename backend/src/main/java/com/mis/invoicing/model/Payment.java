@@ -1,14 +1,19 @@
 package com.mis.invoicing.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payments_payment_date", columnList = "payment_date"),
+        @Index(name = "idx_payments_change_seq", columnList = "change_seq")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,7 +22,7 @@ public class Payment {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "invoice_id", nullable = false)
     private Invoice invoice;
     
@@ -33,10 +38,29 @@ public class Payment {
     @Column(name = "payment_date")
     private LocalDateTime paymentDate;
     
+    @Version
+    @ColumnDefault("0") // rows that predate the column start at version 0
+    private Long version;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Position in the /api/sync feed; cleared on every write and reassigned by ChangeFeed once committed
+    @Column(name = "change_seq")
+    @JsonIgnore
+    private Long changeSeq;
+    
     @PrePersist
     protected void onCreate() {
         if (paymentDate == null) {
             paymentDate = LocalDateTime.now();
         }
+        updatedAt = LocalDateTime.now();
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+        changeSeq = null;
     }
 }
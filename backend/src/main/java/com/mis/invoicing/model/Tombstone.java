@@ -0,0 +1,43 @@
+package com.mis.invoicing.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Marks a deleted client, estimate, invoice or payment so that /api/sync can tell
+ * clients to drop it. Written in the deleting transaction and sequenced like any
+ * other change; purged after app.sync.tombstone-retention-days.
+ */
+@Entity
+@Table(name = "tombstones", indexes = {
+        @Index(name = "idx_tombstones_change_seq", columnList = "change_seq"),
+        @Index(name = "idx_tombstones_deleted_at", columnList = "deleted_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Tombstone {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private EntityType entityType;
+    
+    @Column(nullable = false)
+    private Long entityId;
+    
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+    
+    @Column(name = "change_seq")
+    private Long changeSeq;
+    
+    public enum EntityType {
+        CLIENT, ESTIMATE, INVOICE, PAYMENT
+    }
+}
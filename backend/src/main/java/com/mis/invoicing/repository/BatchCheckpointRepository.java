@@ -0,0 +1,9 @@
+package com.mis.invoicing.repository;
+
+import com.mis.invoicing.model.BatchCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BatchCheckpointRepository extends JpaRepository<BatchCheckpoint, String> {
+}
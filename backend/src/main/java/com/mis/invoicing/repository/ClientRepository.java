@@ -1,12 +1,45 @@
 package com.mis.invoicing.repository;
 
+import com.mis.invoicing.dto.SyncChange;
 import com.mis.invoicing.model.Client;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface ClientRepository extends JpaRepository<Client, Long> {
+    // Result ids are cached; Hibernate drops them whenever the clients table is written
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HINT_CACHE_REGION, value = "client-queries")})
     List<Client> findByCategory(String category);
-    List<Client> findByNameContainingIgnoreCase(String name);
+    List<Client> findTop5ByOrderByIdDesc();
+    
+    @Query("SELECT c FROM Client c WHERE (:afterId IS NULL OR c.id < :afterId) " +
+           "AND (:category IS NULL OR c.category = :category) " +
+           "AND (:from IS NULL OR c.createdAt >= :from) " +
+           "AND (:to IS NULL OR c.createdAt < :to) " +
+           "ORDER BY c.id DESC")
+    List<Client> findPage(Long afterId, String category,
+                          LocalDateTime from, LocalDateTime to, Pageable pageable);
+    
+    // Sync feed: rows sequenced after the cursor, up to the head read by the caller
+    @Query("SELECT new com.mis.invoicing.dto.SyncChange(c.changeSeq, c.id, c.version, c.updatedAt) " +
+           "FROM Client c WHERE c.changeSeq > :since AND c.changeSeq <= :head ORDER BY c.changeSeq")
+    List<SyncChange> findChanges(long since, long head, Pageable pageable);
+    
+    // Full-table scan for in-memory indexes: plain objects, never attached to a persistence context
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.mis.invoicing.model.Client(c.id, c.name, c.email, c.phone, c.address, " +
+           "c.gstNumber, c.category, c.version, c.createdAt, c.updatedAt, c.changeSeq) FROM Client c ORDER BY c.id")
+    Stream<Client> streamAllUnmanaged();
 }
@@ -0,0 +1,15 @@
+package com.mis.invoicing.repository;
+
+import com.mis.invoicing.model.DailyRevenue;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyRevenueRepository extends JpaRepository<DailyRevenue, DailyRevenue.Key> {
+    @Query("SELECT r FROM DailyRevenue r WHERE r.revenueDate >= :from AND r.revenueDate <= :to " +
+           "ORDER BY r.revenueDate, r.category")
+    List<DailyRevenue> findRange(LocalDate from, LocalDate to);
+}
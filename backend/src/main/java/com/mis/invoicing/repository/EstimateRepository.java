@@ -1,12 +1,51 @@
 package com.mis.invoicing.repository;
 
+import com.mis.invoicing.dto.EstimateRow;
+import com.mis.invoicing.dto.SyncChange;
 import com.mis.invoicing.model.Estimate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface EstimateRepository extends JpaRepository<Estimate, Long> {
-    List<Estimate> findByClientId(Long clientId);
-    List<Estimate> findByStatus(Estimate.EstimateStatus status);
+    @EntityGraph(attributePaths = {"client", "lineItems"})
+    Optional<Estimate> findDetailedById(Long id);
+    
+    @Query("SELECT new com.mis.invoicing.dto.EstimateRow(e.id, e.estimateNumber, c.id, c.name, " +
+           "e.subtotal, e.gstAmount, e.total, e.status, e.createdAt) " +
+           "FROM Estimate e JOIN e.client c WHERE (:afterId IS NULL OR e.id < :afterId) " +
+           "AND (:status IS NULL OR e.status = :status) " +
+           "AND (:clientId IS NULL OR c.id = :clientId) " +
+           "AND (:from IS NULL OR e.createdAt >= :from) " +
+           "AND (:to IS NULL OR e.createdAt < :to) " +
+           "ORDER BY e.id DESC")
+    List<EstimateRow> findPage(Long afterId, Estimate.EstimateStatus status, Long clientId,
+                               LocalDateTime from, LocalDateTime to, Pageable pageable);
+    
+    @Query("SELECT new com.mis.invoicing.dto.EstimateRow(e.id, e.estimateNumber, c.id, c.name, " +
+           "e.subtotal, e.gstAmount, e.total, e.status, e.createdAt) " +
+           "FROM Estimate e JOIN e.client c WHERE e.id IN :ids")
+    List<EstimateRow> findRowsByIdIn(Collection<Long> ids);
+    
+    // Sync feed: rows sequenced after the cursor, up to the head read by the caller
+    @Query("SELECT new com.mis.invoicing.dto.SyncChange(e.changeSeq, e.id, e.version, e.updatedAt) " +
+           "FROM Estimate e WHERE e.changeSeq > :since AND e.changeSeq <= :head ORDER BY e.changeSeq")
+    List<SyncChange> findChanges(long since, long head, Pageable pageable);
+    
+    // Ascending keyset over one status, for bulk jobs that resume after the last id they handled
+    @Query("SELECT e.id FROM Estimate e WHERE e.status = :status " +
+           "AND (:clientId IS NULL OR e.client.id = :clientId) " +
+           "AND (:afterId IS NULL OR e.id > :afterId) ORDER BY e.id")
+    List<Long> findIdsByStatus(Estimate.EstimateStatus status, Long clientId, Long afterId, Pageable pageable);
+    
+    @Query("SELECT COUNT(e) FROM Estimate e WHERE e.status = :status " +
+           "AND (:clientId IS NULL OR e.client.id = :clientId)")
+    long countByStatus(Estimate.EstimateStatus status, Long clientId);
 }
@@ -1,16 +1,39 @@
 package com.mis.invoicing.repository;
 
+import com.mis.invoicing.dto.InvoiceRow;
+import com.mis.invoicing.dto.SyncChange;
 import com.mis.invoicing.model.Invoice;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
-    List<Invoice> findByClientId(Long clientId);
-    List<Invoice> findByStatus(Invoice.InvoiceStatus status);
+    @EntityGraph(attributePaths = {"client", "estimate", "lineItems"})
+    Optional<Invoice> findDetailedById(Long id);
+    
+    // Versions behind the detailed view's ETag: the invoice, its client and the embedded estimate, if any
+    @Query("SELECT CONCAT(str(i.version), '.', str(c.version), '.', COALESCE(str(e.version), '-')) " +
+           "FROM Invoice i JOIN i.client c LEFT JOIN i.estimate e WHERE i.id = :id")
+    Optional<String> findVersionStamp(Long id);
     
     @Query("SELECT SUM(i.total) FROM Invoice i WHERE i.status = 'PAID'")
     BigDecimal getTotalPaidAmount();
@@ -19,4 +42,77 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     BigDecimal getTotalPendingAmount();
     
     long countByStatus(Invoice.InvoiceStatus status);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Invoice i WHERE i.id = :id")
+    Optional<Invoice> findByIdForUpdate(Long id);
+    
+    // Rows leave this range as soon as they are updated, so re-running from the start resumes naturally
+    @Query("SELECT i.id FROM Invoice i WHERE i.status = :status AND i.dueDate < :asOf ORDER BY i.dueDate, i.id")
+    List<Long> findIdsDueBefore(Invoice.InvoiceStatus status, LocalDate asOf, Pageable pageable);
+    
+    @Query("SELECT SUM(i.total) FROM Invoice i WHERE i.id IN :ids AND i.status = :status")
+    BigDecimal sumTotalByIdInAndStatus(List<Long> ids, Invoice.InvoiceStatus status);
+    
+    // Which of the given numbers are already taken; used to screen imported invoices before the insert
+    @Query("SELECT i.invoiceNumber FROM Invoice i WHERE i.invoiceNumber IN :numbers")
+    List<String> findExistingNumbers(Collection<String> numbers);
+    
+    // Bypasses the entity callbacks, so it re-queues the rows for the sync feed itself
+    @Modifying
+    @Query("UPDATE Invoice i SET i.status = :to, i.version = i.version + 1, i.updatedAt = :now, i.changeSeq = null " +
+           "WHERE i.id IN :ids AND i.status = :from")
+    int transitionStatus(List<Long> ids, Invoice.InvoiceStatus from, Invoice.InvoiceStatus to, LocalDateTime now);
+    
+    // One-off backfill of the payment ledger columns for rows created before they existed
+    @Transactional
+    @Modifying
+    @Query("UPDATE Invoice i SET i.amountPaid = COALESCE((SELECT SUM(p.amount) FROM Payment p WHERE p.invoice = i), 0), " +
+           "i.balanceDue = i.total - COALESCE((SELECT SUM(p.amount) FROM Payment p WHERE p.invoice = i), 0), " +
+           "i.version = 0 WHERE i.version IS NULL")
+    int backfillLedger();
+    
+    // Keyset page of list rows: newest first, resuming strictly below the cursor id
+    @Query("SELECT new com.mis.invoicing.dto.InvoiceRow(i.id, i.invoiceNumber, c.id, c.name, i.estimate.id, " +
+           "i.subtotal, i.cgst, i.sgst, i.igst, i.total, i.amountPaid, i.balanceDue, i.status, i.dueDate, i.createdAt) " +
+           "FROM Invoice i JOIN i.client c WHERE (:afterId IS NULL OR i.id < :afterId) " +
+           "AND (:status IS NULL OR i.status = :status) " +
+           "AND (:clientId IS NULL OR c.id = :clientId) " +
+           "AND (:from IS NULL OR i.createdAt >= :from) " +
+           "AND (:to IS NULL OR i.createdAt < :to) " +
+           "ORDER BY i.id DESC")
+    List<InvoiceRow> findPage(Long afterId, Invoice.InvoiceStatus status, Long clientId,
+                              LocalDateTime from, LocalDateTime to, Pageable pageable);
+    
+    @Query("SELECT new com.mis.invoicing.dto.InvoiceRow(i.id, i.invoiceNumber, c.id, c.name, i.estimate.id, " +
+           "i.subtotal, i.cgst, i.sgst, i.igst, i.total, i.amountPaid, i.balanceDue, i.status, i.dueDate, i.createdAt) " +
+           "FROM Invoice i JOIN i.client c WHERE i.id IN :ids")
+    List<InvoiceRow> findRowsByIdIn(Collection<Long> ids);
+    
+    // Sync feed: rows sequenced after the cursor, up to the head read by the caller
+    @Query("SELECT new com.mis.invoicing.dto.SyncChange(i.changeSeq, i.id, i.version, i.updatedAt) " +
+           "FROM Invoice i WHERE i.changeSeq > :since AND i.changeSeq <= :head ORDER BY i.changeSeq")
+    List<SyncChange> findChanges(long since, long head, Pageable pageable);
+    
+    // Keyset page of ids in a creation window, resuming strictly above the cursor id
+    @Query("SELECT i.id FROM Invoice i WHERE i.createdAt >= :from AND i.createdAt < :to " +
+           "AND (:afterId IS NULL OR i.id > :afterId) ORDER BY i.id")
+    List<Long> findIdsCreatedBetween(LocalDateTime from, LocalDateTime to, Long afterId, Pageable pageable);
+    
+    @Query("SELECT COUNT(i) FROM Invoice i WHERE i.createdAt >= :from AND i.createdAt < :to " +
+           "AND (:afterId IS NULL OR i.id > :afterId)")
+    long countCreatedBetween(LocalDateTime from, LocalDateTime to, Long afterId);
+    
+    // Everything a rendered document needs, for a chunk of ids in one round trip
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    @Query("SELECT DISTINCT i FROM Invoice i JOIN FETCH i.client LEFT JOIN FETCH i.lineItems " +
+           "WHERE i.id IN :ids ORDER BY i.id")
+    List<Invoice> findForRendering(List<Long> ids);
+    
+    // Cursor-backed export; must be consumed inside a read-only transaction
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT i FROM Invoice i JOIN FETCH i.client LEFT JOIN FETCH i.estimate e LEFT JOIN FETCH e.client " +
+           "WHERE (:from IS NULL OR i.createdAt >= :from) AND (:to IS NULL OR i.createdAt < :to) " +
+           "ORDER BY i.id")
+    Stream<Invoice> streamForExport(LocalDateTime from, LocalDateTime to);
 }
@@ -0,0 +1,79 @@
+package com.mis.invoicing.repository;
+
+import com.mis.invoicing.model.Job;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface JobRepository extends JpaRepository<Job, Long> {
+    List<Job> findByStatusInOrderByIdAsc(Collection<Job.JobStatus> statuses);
+    
+    @Query("SELECT j FROM Job j WHERE (:status IS NULL OR j.status = :status) " +
+           "AND (:type IS NULL OR j.type = :type) ORDER BY j.id DESC")
+    List<Job> findRecent(Job.JobStatus status, Job.JobType type, Pageable pageable);
+    
+    @Query("SELECT j.cancelRequested FROM Job j WHERE j.id = :id")
+    boolean isCancelRequested(Long id);
+    
+    // Succeeds for exactly one worker, so a job never runs twice at once
+    @Transactional
+    @Modifying
+    @Query("UPDATE Job j SET j.status = 'RUNNING', j.attempts = j.attempts + 1, " +
+           "j.startedAt = COALESCE(j.startedAt, :now), j.updatedAt = :now " +
+           "WHERE j.id = :id AND j.status = 'QUEUED' AND j.cancelRequested = false")
+    int claim(Long id, LocalDateTime now);
+    
+    // Joins the handler's chunk transaction when there is one, so progress commits with the work
+    @Transactional
+    @Modifying
+    @Query("UPDATE Job j SET j.checkpoint = :checkpoint, j.processed = j.processed + :processed, " +
+           "j.failed = j.failed + :failed, j.updatedAt = :now WHERE j.id = :id")
+    int advance(Long id, String checkpoint, long processed, long failed, LocalDateTime now);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE Job j SET j.total = :total, j.updatedAt = :now WHERE j.id = :id")
+    int updateTotal(Long id, Long total, LocalDateTime now);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE Job j SET j.status = :status, j.result = :result, j.error = :error, " +
+           "j.finishedAt = :now, j.updatedAt = :now WHERE j.id = :id AND j.status = 'RUNNING'")
+    int finish(Long id, Job.JobStatus status, String result, String error, LocalDateTime now);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE Job j SET j.cancelRequested = true, j.updatedAt = :now " +
+           "WHERE j.id = :id AND j.status IN ('QUEUED', 'RUNNING')")
+    int requestCancel(Long id, LocalDateTime now);
+    
+    // A queued job has nothing to stop, so it is cancelled on the spot
+    @Transactional
+    @Modifying
+    @Query("UPDATE Job j SET j.status = 'CANCELLED', j.finishedAt = :now, j.updatedAt = :now " +
+           "WHERE j.id = :id AND j.status = 'QUEUED'")
+    int cancelQueued(Long id, LocalDateTime now);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE Job j SET j.status = 'QUEUED', j.updatedAt = :now WHERE j.id = :id AND j.status = :from")
+    int requeue(Long id, Job.JobStatus from, LocalDateTime now);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE Job j SET j.status = 'QUEUED', j.cancelRequested = false, j.error = null, " +
+           "j.finishedAt = null, j.updatedAt = :now WHERE j.id = :id AND j.status IN ('FAILED', 'CANCELLED')")
+    int reopen(Long id, LocalDateTime now);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Job j WHERE j.status IN ('SUCCEEDED', 'FAILED', 'CANCELLED') AND j.finishedAt < :before")
+    int deleteFinishedBefore(LocalDateTime before);
+}
@@ -0,0 +1,29 @@
+package com.mis.invoicing.repository;
+
+import com.mis.invoicing.dto.HsnSummary;
+import com.mis.invoicing.dto.ItemSummary;
+import com.mis.invoicing.model.LineItem;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LineItemRepository extends JpaRepository<LineItem, Long> {
+    // Invoice lines only; estimates are quotes, not supplies
+    @Query("SELECT new com.mis.invoicing.dto.HsnSummary(l.hsnSac, l.gstRate, COUNT(l), SUM(l.quantity), " +
+           "SUM(l.taxableValue), SUM(l.taxAmount)) " +
+           "FROM LineItem l JOIN l.invoice i " +
+           "WHERE (:from IS NULL OR i.createdAt >= :from) AND (:to IS NULL OR i.createdAt < :to) " +
+           "GROUP BY l.hsnSac, l.gstRate ORDER BY l.hsnSac, l.gstRate")
+    List<HsnSummary> summarizeByHsn(LocalDateTime from, LocalDateTime to);
+    
+    @Query("SELECT new com.mis.invoicing.dto.ItemSummary(l.description, l.hsnSac, COUNT(l), SUM(l.quantity), " +
+           "SUM(l.taxableValue), SUM(l.taxAmount)) " +
+           "FROM LineItem l JOIN l.invoice i " +
+           "WHERE (:from IS NULL OR i.createdAt >= :from) AND (:to IS NULL OR i.createdAt < :to) " +
+           "GROUP BY l.description, l.hsnSac ORDER BY SUM(l.taxableValue) DESC")
+    List<ItemSummary> summarizeByItem(LocalDateTime from, LocalDateTime to, Pageable pageable);
+}
@@ -0,0 +1,22 @@
+package com.mis.invoicing.repository;
+
+import com.mis.invoicing.model.NumberSeries;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.Optional;
+
+@Repository
+public interface NumberSeriesRepository extends JpaRepository<NumberSeries, String> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM NumberSeries s WHERE s.seriesKey = :seriesKey")
+    Optional<NumberSeries> findForUpdate(String seriesKey);
+    
+    // A plain INSERT, so a row another instance created first fails on the key instead of being merged over
+    @Modifying
+    @Query("INSERT INTO NumberSeries (seriesKey, nextValue) VALUES (:seriesKey, :nextValue)")
+    int insert(String seriesKey, Long nextValue);
+}
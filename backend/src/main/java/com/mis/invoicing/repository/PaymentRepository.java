@@ -1,16 +1,63 @@
 package com.mis.invoicing.repository;
 
+import com.mis.invoicing.dto.PaymentRow;
+import com.mis.invoicing.dto.SyncChange;
 import com.mis.invoicing.model.Payment;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
-    List<Payment> findByInvoiceId(Long invoiceId);
+    @EntityGraph(attributePaths = {"invoice", "invoice.client"})
+    Optional<Payment> findDetailedById(Long id);
+    
+    // Payments are never edited, so the detailed view only changes with its invoice or client
+    @Query("SELECT CONCAT(str(i.version), '.', str(c.version)) FROM Payment p JOIN p.invoice i JOIN i.client c " +
+           "WHERE p.id = :id")
+    Optional<String> findVersionStamp(Long id);
     
     @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.invoice.id = :invoiceId")
     BigDecimal getTotalPaymentsByInvoiceId(Long invoiceId);
+    
+    @Query("SELECT new com.mis.invoicing.dto.PaymentRow(p.id, i.id, i.invoiceNumber, c.id, c.name, " +
+           "p.amount, p.paymentMode, p.transactionRef, p.paymentDate) " +
+           "FROM Payment p JOIN p.invoice i JOIN i.client c WHERE (:afterId IS NULL OR p.id < :afterId) " +
+           "AND (:invoiceId IS NULL OR i.id = :invoiceId) " +
+           "AND (:clientId IS NULL OR c.id = :clientId) " +
+           "AND (:from IS NULL OR p.paymentDate >= :from) " +
+           "AND (:to IS NULL OR p.paymentDate < :to) " +
+           "ORDER BY p.id DESC")
+    List<PaymentRow> findPage(Long afterId, Long invoiceId, Long clientId,
+                              LocalDateTime from, LocalDateTime to, Pageable pageable);
+    
+    @Query("SELECT new com.mis.invoicing.dto.PaymentRow(p.id, i.id, i.invoiceNumber, c.id, c.name, " +
+           "p.amount, p.paymentMode, p.transactionRef, p.paymentDate) " +
+           "FROM Payment p JOIN p.invoice i JOIN i.client c WHERE p.id IN :ids")
+    List<PaymentRow> findRowsByIdIn(Collection<Long> ids);
+    
+    // Sync feed: rows sequenced after the cursor, up to the head read by the caller
+    @Query("SELECT new com.mis.invoicing.dto.SyncChange(p.changeSeq, p.id, p.version, p.updatedAt) " +
+           "FROM Payment p WHERE p.changeSeq > :since AND p.changeSeq <= :head ORDER BY p.changeSeq")
+    List<SyncChange> findChanges(long since, long head, Pageable pageable);
+    
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT p FROM Payment p JOIN FETCH p.invoice i JOIN FETCH i.client " +
+           "LEFT JOIN FETCH i.estimate e LEFT JOIN FETCH e.client " +
+           "WHERE (:from IS NULL OR p.paymentDate >= :from) AND (:to IS NULL OR p.paymentDate < :to) " +
+           "ORDER BY p.id")
+    Stream<Payment> streamForExport(LocalDateTime from, LocalDateTime to);
 }
@@ -0,0 +1,28 @@
+package com.mis.invoicing.repository;
+
+import com.mis.invoicing.dto.SyncChange;
+import com.mis.invoicing.model.Tombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long> {
+    @Query("SELECT new com.mis.invoicing.dto.SyncChange(t.changeSeq, t.entityType, t.entityId, t.deletedAt) " +
+           "FROM Tombstone t WHERE t.changeSeq > :since AND t.changeSeq <= :head ORDER BY t.changeSeq")
+    List<SyncChange> findChanges(long since, long head, Pageable pageable);
+    
+    @Query("SELECT MAX(t.changeSeq) FROM Tombstone t WHERE t.deletedAt < :before")
+    Long findMaxChangeSeqDeletedBefore(LocalDateTime before);
+    
+    // Unsequenced tombstones are kept until the feed has handed them out
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Tombstone t WHERE t.changeSeq <= :through AND t.deletedAt < :before")
+    int deleteSequencedThrough(long through, LocalDateTime before);
+}
@@ -0,0 +1,28 @@
+package com.mis.invoicing.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers in-memory side effects (counters, indexes) until the surrounding
+ * transaction commits, so a rollback never leaves them ahead of the database.
+ */
+final class AfterCommit {
+    
+    private AfterCommit() {
+    }
+    
+    static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            // Repository calls outside a service transaction commit immediately
+            action.run();
+        }
+    }
+}
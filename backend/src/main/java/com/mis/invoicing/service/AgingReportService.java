@@ -0,0 +1,301 @@
+package com.mis.invoicing.service;
+
+import com.mis.invoicing.dto.AgingReport;
+import com.mis.invoicing.dto.AgingRow;
+import com.mis.invoicing.dto.CursorPage;
+import com.mis.invoicing.model.Tombstone;
+import com.mis.invoicing.repository.ClientRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Accounts-receivable aging. Open invoices are aggregated per client in a single
+ * streamed pass (amounts in paise, nothing materialized per invoice); on large
+ * ledgers the pass is split by client into partitions that run in parallel.
+ * Reports are cached per as-of date until the next committed invoice, payment or
+ * client change on any instance, as seen by the change feed.
+ *
+ * <p>Buckets are by days past the due date as of the end of {@code asOf}: an
+ * invoice due on or after that day is not yet due, 1-30 days late falls in the
+ * first bucket, and so on. Invoices without a due date age from their issue date.
+ */
+@Slf4j
+@Service
+public class AgingReportService {
+    // Accumulator slots, all in paise except the count
+    private static final int OPEN = 0;
+    private static final int NOT_DUE = 1;
+    private static final int DAYS_0_30 = 2;
+    private static final int DAYS_31_60 = 3;
+    private static final int DAYS_61_90 = 4;
+    private static final int OVER_90 = 5;
+    private static final int TOTAL = 6;
+    private static final int SLOTS = 7;
+    
+    private static final int FETCH_SIZE = 1000;
+    
+    // Up to today the ledger columns are exact and no payment rows need to be read
+    private static final String CURRENT_SQL =
+            "SELECT i.client_id, COALESCE(i.due_date, CAST(i.created_at AS DATE)), ROUND(i.balance_due * 100) "
+                    + "FROM invoices i WHERE i.balance_due > 0";
+    // Historical: only invoices issued and payments received by the end of the as-of date count
+    private static final String AS_OF_SQL =
+            "SELECT i.client_id, COALESCE(i.due_date, CAST(i.created_at AS DATE)), "
+                    + "ROUND((i.total - COALESCE(p.paid, 0)) * 100) "
+                    + "FROM invoices i LEFT JOIN (SELECT invoice_id, SUM(amount) AS paid FROM payments "
+                    + "WHERE payment_date < ? GROUP BY invoice_id) p ON p.invoice_id = i.id "
+                    + "WHERE i.created_at < ? AND i.total > COALESCE(p.paid, 0)";
+    private static final String PARTITION_SQL = " AND MOD(i.client_id, ?) = ?";
+    
+    private final JdbcTemplate jdbc;
+    private final ClientRepository clientRepository;
+    private final DashboardAggregates dashboardAggregates;
+    private final ChangeFeed changeFeed;
+    private final ZoneId zone;
+    private final int parallelism;
+    private final long parallelThreshold;
+    private final int cacheSize;
+    private final ExecutorService partitionPool;
+    private final Map<LocalDate, Entry> cache = new ConcurrentHashMap<>();
+    // One computation at a time: a concurrent request for the same date waits and then hits the cache
+    private final ReentrantLock computeLock = new ReentrantLock();
+    
+    private record Entry(String version, AgingReport report, Map<Long, AgingRow> byClient) {
+    }
+    
+    public AgingReportService(JdbcTemplate jdbc,
+                              ClientRepository clientRepository,
+                              DashboardAggregates dashboardAggregates,
+                              ChangeFeed changeFeed,
+                              @Value("${app.overdue.zone:Asia/Kolkata}") String zone,
+                              @Value("${app.aging.parallelism:4}") int parallelism,
+                              @Value("${app.aging.parallel-threshold:200000}") long parallelThreshold,
+                              @Value("${app.aging.cache-size:31}") int cacheSize) {
+        this.jdbc = new JdbcTemplate(jdbc.getDataSource());
+        this.jdbc.setFetchSize(FETCH_SIZE);
+        this.clientRepository = clientRepository;
+        this.dashboardAggregates = dashboardAggregates;
+        this.changeFeed = changeFeed;
+        this.zone = ZoneId.of(zone);
+        this.parallelism = Math.max(1, parallelism);
+        this.parallelThreshold = parallelThreshold;
+        this.cacheSize = cacheSize;
+        AtomicInteger threads = new AtomicInteger();
+        this.partitionPool = Executors.newFixedThreadPool(this.parallelism, task -> {
+            Thread thread = new Thread(task, "aging-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        partitionPool.shutdownNow();
+    }
+    
+    public AgingReport getReport(LocalDate asOf, Integer limit) {
+        AgingReport report = entryFor(asOf).report();
+        int max = CursorPage.clampLimit(limit);
+        if (report.getClients().size() <= max) {
+            return report;
+        }
+        return new AgingReport(report.getAsOf(), report.getTotals(),
+                report.getClients().subList(0, max), report.getComputedMillis());
+    }
+    
+    public AgingRow getClientAging(Long clientId, LocalDate asOf) {
+        AgingRow row = entryFor(asOf).byClient().get(clientId);
+        if (row != null) {
+            return row;
+        }
+        String name = clientRepository.findById(clientId)
+                .orElseThrow(() -> new RuntimeException("Client not found with id: " + clientId))
+                .getName();
+        return toRow(clientId, name, new long[SLOTS]);
+    }
+    
+    private Entry entryFor(LocalDate asOf) {
+        LocalDate date = asOf != null ? asOf : LocalDate.now(zone);
+        Entry entry = fresh(date, ledgerVersion());
+        if (entry != null) {
+            return entry;
+        }
+        computeLock.lock();
+        try {
+            // Read the version first: a change committed mid-scan leaves the entry already stale
+            String version = ledgerVersion();
+            entry = fresh(date, version);
+            if (entry == null) {
+                entry = compute(date, version);
+                put(date, entry);
+            }
+            return entry;
+        } finally {
+            computeLock.unlock();
+        }
+    }
+    
+    // Rows carry client names, so client edits count as well as the ledger itself
+    private String ledgerVersion() {
+        return changeFeed.listVersion(Tombstone.EntityType.INVOICE, Tombstone.EntityType.PAYMENT,
+                Tombstone.EntityType.CLIENT);
+    }
+    
+    private Entry fresh(LocalDate date, String version) {
+        Entry entry = cache.get(date);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.version().equals(version)) {
+            cache.remove(date, entry);
+            return null;
+        }
+        return entry;
+    }
+    
+    private void put(LocalDate date, Entry entry) {
+        if (cacheSize <= 0) {
+            return;
+        }
+        if (cache.size() >= cacheSize) {
+            cache.values().removeIf(e -> !e.version().equals(entry.version()));
+            Iterator<LocalDate> it = cache.keySet().iterator();
+            while (cache.size() >= cacheSize && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        cache.put(date, entry);
+    }
+    
+    private Entry compute(LocalDate asOf, String version) {
+        long started = System.nanoTime();
+        boolean current = !asOf.isBefore(LocalDate.now(zone));
+        int partitions = dashboardAggregates.invoiceCount() >= parallelThreshold ? parallelism : 1;
+    
+        Map<Long, long[]> byClient;
+        if (partitions == 1) {
+            byClient = scan(asOf, current, 1, 0);
+        } else {
+            List<Future<Map<Long, long[]>>> parts = new ArrayList<>(partitions);
+            for (int k = 0; k < partitions; k++) {
+                int partition = k;
+                parts.add(partitionPool.submit(() -> scan(asOf, current, partitions, partition)));
+            }
+            // Partitions hold disjoint clients, so merging is a plain union
+            byClient = new HashMap<>();
+            for (Future<Map<Long, long[]>> part : parts) {
+                byClient.putAll(join(part));
+            }
+        }
+    
+        Map<Long, String> names = new HashMap<>(byClient.size() * 2);
+        jdbc.query("SELECT id, name FROM clients", rs -> {
+            long id = rs.getLong(1);
+            if (byClient.containsKey(id)) {
+                names.put(id, rs.getString(2));
+            }
+        });
+    
+        long[] totals = new long[SLOTS];
+        List<AgingRow> rows = new ArrayList<>(byClient.size());
+        Map<Long, AgingRow> rowsById = new HashMap<>(byClient.size() * 2);
+        for (Map.Entry<Long, long[]> e : byClient.entrySet()) {
+            long[] acc = e.getValue();
+            for (int i = 0; i < SLOTS; i++) {
+                totals[i] += acc[i];
+            }
+            AgingRow row = toRow(e.getKey(), names.get(e.getKey()), acc);
+            rows.add(row);
+            rowsById.put(e.getKey(), row);
+        }
+        rows.sort(Comparator.comparing(AgingRow::getTotal).reversed().thenComparing(AgingRow::getClientId));
+    
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Aging report as of {}: {} open invoice(s) across {} client(s) in {} ms ({} partition(s))",
+                asOf, totals[OPEN], rows.size(), millis, partitions);
+        AgingReport report = new AgingReport(asOf, toRow(null, null, totals), List.copyOf(rows), millis);
+        return new Entry(version, report, rowsById);
+    }
+    
+    private Map<Long, long[]> scan(LocalDate asOf, boolean current, int partitions, int partition) {
+        long asOfDay = asOf.toEpochDay();
+        Map<Long, long[]> byClient = new HashMap<>();
+        List<Object> args = new ArrayList<>(4);
+        String sql = current ? CURRENT_SQL : AS_OF_SQL;
+        if (!current) {
+            LocalDateTime end = asOf.plusDays(1).atStartOfDay();
+            args.add(end);
+            args.add(end);
+        }
+        if (partitions > 1) {
+            sql += PARTITION_SQL;
+            args.add(partitions);
+            args.add(partition);
+        }
+        jdbc.query(sql, rs -> {
+            long[] acc = byClient.computeIfAbsent(rs.getLong(1), id -> new long[SLOTS]);
+            long overdueDays = asOfDay - rs.getObject(2, LocalDate.class).toEpochDay();
+            long paise = rs.getLong(3);
+            acc[OPEN]++;
+            acc[bucket(overdueDays)] += paise;
+            acc[TOTAL] += paise;
+        }, args.toArray());
+        return byClient;
+    }
+    
+    private static int bucket(long overdueDays) {
+        if (overdueDays <= 0) {
+            return NOT_DUE;
+        }
+        if (overdueDays <= 30) {
+            return DAYS_0_30;
+        }
+        if (overdueDays <= 60) {
+            return DAYS_31_60;
+        }
+        return overdueDays <= 90 ? DAYS_61_90 : OVER_90;
+    }
+    
+    private static <T> T join(Future<T> part) {
+        try {
+            return part.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Aging report interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Aging report partition failed", e.getCause());
+        }
+    }
+    
+    private static AgingRow toRow(Long clientId, String clientName, long[] acc) {
+        return new AgingRow(clientId, clientName, acc[OPEN],
+                rupees(acc[NOT_DUE]), rupees(acc[DAYS_0_30]), rupees(acc[DAYS_31_60]),
+                rupees(acc[DAYS_61_90]), rupees(acc[OVER_90]), rupees(acc[TOTAL]));
+    }
+    
+    private static BigDecimal rupees(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+}
@@ -0,0 +1,133 @@
+package com.mis.invoicing.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Domain meters for the billing write paths and background jobs, published under
+ * {@code invoicing.*} next to the HTTP, Hikari, Hibernate and JVM meters.
+ */
+@Component
+public class BillingMetrics {
+
+    private final Timer paymentSuccess;
+    private final Timer paymentError;
+    private final DistributionSummary paymentAmount;
+    private final Counter ledgerRetries;
+    private final Timer conversionSuccess;
+    private final Timer conversionError;
+    private final Timer overdueRun;
+    private final Counter overdueRows;
+    private final Counter dashboardDrift;
+    private final Counter bulkCreated;
+    private final Counter bulkFailed;
+    private final AtomicInteger eventSubscribers = new AtomicInteger();
+    private final Counter eventSubscribersDropped;
+
+    public BillingMetrics(MeterRegistry registry) {
+        this.paymentSuccess = operationTimer(registry, "invoicing.payments.record", "Recording a payment against an invoice ledger", "success");
+        this.paymentError = operationTimer(registry, "invoicing.payments.record", "Recording a payment against an invoice ledger", "error");
+        this.paymentAmount = DistributionSummary.builder("invoicing.payments.amount")
+                .description("Recorded payment amounts")
+                .baseUnit("inr")
+                .register(registry);
+        this.ledgerRetries = Counter.builder("invoicing.payments.ledger.retries")
+                .description("Ledger transactions retried after an optimistic lock conflict")
+                .register(registry);
+        this.conversionSuccess = operationTimer(registry, "invoicing.estimates.convert", "Converting an approved estimate into an invoice", "success");
+        this.conversionError = operationTimer(registry, "invoicing.estimates.convert", "Converting an approved estimate into an invoice", "error");
+        this.overdueRun = Timer.builder("invoicing.overdue.run")
+                .description("Duration of overdue invoice transition runs")
+                .register(registry);
+        this.overdueRows = Counter.builder("invoicing.overdue.rows")
+                .description("Invoices transitioned to OVERDUE")
+                .register(registry);
+        this.dashboardDrift = Counter.builder("invoicing.dashboard.drift")
+                .description("Dashboard counters found out of sync with SQL during reconciliation")
+                .register(registry);
+        this.bulkCreated = bulkCounter(registry, "created");
+        this.bulkFailed = bulkCounter(registry, "failed");
+        Gauge.builder("invoicing.events.subscribers", eventSubscribers, AtomicInteger::get)
+                .description("Open /api/events connections")
+                .register(registry);
+        this.eventSubscribersDropped = Counter.builder("invoicing.events.dropped")
+                .description("Event subscribers disconnected for falling a full buffer behind")
+                .register(registry);
+    }
+
+    public <T> T recordPayment(Supplier<T> action) {
+        return time(paymentSuccess, paymentError, action);
+    }
+
+    public void paymentAmount(BigDecimal amount) {
+        if (amount != null) {
+            paymentAmount.record(amount.doubleValue());
+        }
+    }
+
+    public void ledgerRetried() {
+        ledgerRetries.increment();
+    }
+
+    public <T> T convertEstimate(Supplier<T> action) {
+        return time(conversionSuccess, conversionError, action);
+    }
+
+    public void overdueRunFinished(long durationMs, long rowsUpdated) {
+        overdueRun.record(durationMs, TimeUnit.MILLISECONDS);
+        overdueRows.increment(rowsUpdated);
+    }
+
+    public void dashboardDrift(int counters) {
+        dashboardDrift.increment(counters);
+    }
+
+    public void bulkInvoicesProcessed(int created, int failed) {
+        bulkCreated.increment(created);
+        bulkFailed.increment(failed);
+    }
+
+    public void eventSubscribers(int count) {
+        eventSubscribers.set(count);
+    }
+
+    public void eventSubscriberDropped() {
+        eventSubscribersDropped.increment();
+    }
+
+    private static <T> T time(Timer success, Timer error, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            T result = action.get();
+            success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (RuntimeException e) {
+            error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private static Timer operationTimer(MeterRegistry registry, String name, String description, String outcome) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static Counter bulkCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("invoicing.invoices.bulk")
+                .description("Invoices submitted through the bulk create endpoint")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
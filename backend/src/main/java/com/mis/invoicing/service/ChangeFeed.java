@@ -0,0 +1,280 @@
+package com.mis.invoicing.service;
+
+import com.mis.invoicing.dto.EstimateRow;
+import com.mis.invoicing.dto.InvoiceRow;
+import com.mis.invoicing.dto.PaymentRow;
+import com.mis.invoicing.dto.SyncBatch;
+import com.mis.invoicing.dto.SyncChange;
+import com.mis.invoicing.model.ChangeCounter;
+import com.mis.invoicing.model.Client;
+import com.mis.invoicing.model.Tombstone;
+import com.mis.invoicing.repository.ClientRepository;
+import com.mis.invoicing.repository.EstimateRepository;
+import com.mis.invoicing.repository.InvoiceRepository;
+import com.mis.invoicing.repository.PaymentRepository;
+import com.mis.invoicing.repository.TombstoneRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Change feed behind /api/sync. Writes never pick a sequence number themselves: they
+ * clear {@code change_seq} (entity callbacks, or the bulk UPDATE itself) and deletes
+ * leave a tombstone. A sequencing run then numbers committed rows under the lock on
+ * {@code change_counter}, skipping rows still locked by open transactions, so
+ * numbers become visible in order and a cursor never passes a change it has not
+ * seen. Reading costs one index range scan per table, proportional to the changes.
+ */
+@Slf4j
+@Service
+public class ChangeFeed {
+    public static final int DEFAULT_LIMIT = 500;
+    public static final int MAX_LIMIT = 2000;
+    
+    // Parents first, so a batch never has an invoice ahead of a client it refers to
+    private static final List<String> TABLES = List.of("clients", "estimates", "invoices", "payments", "tombstones");
+    
+    private final JdbcTemplate jdbc;
+    private final ClientRepository clientRepository;
+    private final EstimateRepository estimateRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final PaymentRepository paymentRepository;
+    private final TombstoneRepository tombstoneRepository;
+    private final TransactionTemplate sequenceTx;
+    private final int batchSize;
+    private final int retentionDays;
+    
+    public ChangeFeed(JdbcTemplate jdbc,
+                      ClientRepository clientRepository,
+                      EstimateRepository estimateRepository,
+                      InvoiceRepository invoiceRepository,
+                      PaymentRepository paymentRepository,
+                      TombstoneRepository tombstoneRepository,
+                      PlatformTransactionManager transactionManager,
+                      @Value("${app.sync.sequence-batch:1000}") int batchSize,
+                      @Value("${app.sync.tombstone-retention-days:30}") int retentionDays) {
+        this.jdbc = jdbc;
+        this.clientRepository = clientRepository;
+        this.estimateRepository = estimateRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.paymentRepository = paymentRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.sequenceTx = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.retentionDays = Math.max(1, retentionDays);
+    }
+    
+    // Runs before the scheduler and the web server start
+    @PostConstruct
+    public void createCounter() {
+        Integer rows = jdbc.queryForObject("SELECT COUNT(*) FROM change_counter WHERE id = ?", Integer.class,
+                ChangeCounter.ID);
+        if (rows == null || rows == 0) {
+            try {
+                jdbc.update("INSERT INTO change_counter (id, last_seq, purged_through) VALUES (?, 0, 0)",
+                        ChangeCounter.ID);
+            } catch (DuplicateKeyException e) {
+                // Another instance created it first
+            }
+        }
+    }
+    
+    // --- write-path hook ---
+    
+    /** Records a delete; call inside the deleting transaction so both commit together. */
+    public void deleted(Tombstone.EntityType type, Long id) {
+        tombstoneRepository.save(new Tombstone(null, type, id, LocalDateTime.now(), null));
+    }
+    
+    // --- sequencing ---
+    
+    @Scheduled(fixedDelayString = "${app.sync.sequence-interval:500}")
+    public void assignSequence() {
+        Boolean more;
+        do {
+            more = sequenceTx.execute(status -> assignBatch());
+        } while (Boolean.TRUE.equals(more));
+    }
+    
+    /** Numbers up to one batch of pending rows per table; true if any table had more waiting. */
+    private boolean assignBatch() {
+        long seq = jdbc.queryForObject("SELECT last_seq FROM change_counter WHERE id = ? FOR UPDATE", Long.class,
+                ChangeCounter.ID);
+        long start = seq;
+        boolean more = false;
+        for (String table : TABLES) {
+            // Rows locked by an open transaction are left for a later run, once their change has committed
+            List<Long> ids = jdbc.queryForList("SELECT id FROM " + table + " WHERE change_seq IS NULL "
+                    + "ORDER BY id LIMIT " + batchSize + " FOR UPDATE SKIP LOCKED", Long.class);
+            if (ids.isEmpty()) {
+                continue;
+            }
+            List<Object[]> args = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                args.add(new Object[]{++seq, id});
+            }
+            jdbc.batchUpdate("UPDATE " + table + " SET change_seq = ? WHERE id = ?", args);
+            more |= ids.size() == batchSize;
+        }
+        if (seq > start) {
+            jdbc.update("UPDATE change_counter SET last_seq = ? WHERE id = ?", seq, ChangeCounter.ID);
+        }
+        return more;
+    }
+    
+    // --- list versions ---
+    
+    /**
+     * Weak version of the list views over the given tables, the same on every instance.
+     * Sequenced rows are covered by the highest sequence number; rows written since the
+     * last sequencing run by how many there are and their latest update, so a write is
+     * reflected as soon as it commits. Deletes count through the tombstones. One round
+     * trip, using only the change_seq indexes.
+     */
+    public String listVersion(Tombstone.EntityType... types) {
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < types.length; i++) {
+            sql.append(versionSql(i, tableOf(types[i]), "updated_at")).append(" UNION ALL ");
+        }
+        sql.append(versionSql(types.length, "tombstones", "deleted_at")).append(" ORDER BY 1");
+        StringBuilder version = new StringBuilder();
+        jdbc.query(sql.toString(), rs -> {
+            Timestamp pendingAt = rs.getTimestamp(4);
+            version.append(version.isEmpty() ? "" : ".")
+                    .append(Long.toString(rs.getLong(2), 36)).append('-')
+                    .append(Long.toString(rs.getLong(3), 36));
+            if (pendingAt != null) {
+                version.append('-').append(Long.toString(pendingAt.getTime(), 36))
+                        .append('_').append(Long.toString(pendingAt.getNanos(), 36));
+            }
+        });
+        return version.toString();
+    }
+    
+    private static String versionSql(int part, String table, String writtenAt) {
+        return "SELECT " + part + ", (SELECT COALESCE(MAX(change_seq), 0) FROM " + table + "), COUNT(*), "
+                + "MAX(" + writtenAt + ") FROM " + table + " WHERE change_seq IS NULL";
+    }
+    
+    private static String tableOf(Tombstone.EntityType type) {
+        return switch (type) {
+            case CLIENT -> "clients";
+            case ESTIMATE -> "estimates";
+            case INVOICE -> "invoices";
+            case PAYMENT -> "payments";
+        };
+    }
+    
+    // --- reading ---
+    
+    public SyncBatch changesSince(long since, Integer limit) {
+        int size = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        Map<String, Object> counter = jdbc.queryForMap(
+                "SELECT last_seq, purged_through FROM change_counter WHERE id = ?", ChangeCounter.ID);
+        long head = ((Number) counter.get("last_seq")).longValue();
+        long purgedThrough = ((Number) counter.get("purged_through")).longValue();
+        // 0 replays everything still present; a cursor from before a purge (or another database) has gaps
+        if (since < 0 || since > head || (since > 0 && since < purgedThrough)) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Cursor " + since + " is no longer valid; sync from 0");
+        }
+        if (since == head) {
+            return new SyncBatch(List.of(), head, false);
+        }
+        
+        // Everything up to head is committed, so later sequencing runs cannot change this range
+        Pageable probe = PageRequest.of(0, size + 1);
+        List<SyncChange> changes = new ArrayList<>();
+        addChanges(changes, Tombstone.EntityType.CLIENT, clientRepository.findChanges(since, head, probe));
+        addChanges(changes, Tombstone.EntityType.ESTIMATE, estimateRepository.findChanges(since, head, probe));
+        addChanges(changes, Tombstone.EntityType.INVOICE, invoiceRepository.findChanges(since, head, probe));
+        addChanges(changes, Tombstone.EntityType.PAYMENT, paymentRepository.findChanges(since, head, probe));
+        changes.addAll(tombstoneRepository.findChanges(since, head, probe));
+        changes.sort(Comparator.comparingLong(SyncChange::getSeq));
+        
+        boolean hasMore = changes.size() > size;
+        List<SyncChange> batch = hasMore ? new ArrayList<>(changes.subList(0, size)) : changes;
+        long cursor = hasMore ? batch.get(size - 1).getSeq() : head;
+        attachRows(batch);
+        return new SyncBatch(batch, cursor, hasMore);
+    }
+    
+    private static void addChanges(List<SyncChange> into, Tombstone.EntityType type, List<SyncChange> changes) {
+        changes.forEach(change -> change.setType(type));
+        into.addAll(changes);
+    }
+    
+    // A row deleted since its sequence was read is dropped; its tombstone follows in a later batch
+    private void attachRows(List<SyncChange> batch) {
+        Map<Tombstone.EntityType, List<Long>> ids = new EnumMap<>(Tombstone.EntityType.class);
+        for (SyncChange change : batch) {
+            if (change.getOp() == SyncChange.Op.UPSERT) {
+                ids.computeIfAbsent(change.getType(), t -> new ArrayList<>()).add(change.getId());
+            }
+        }
+        Map<Tombstone.EntityType, Map<Long, Object>> rows = new EnumMap<>(Tombstone.EntityType.class);
+        ids.forEach((type, typeIds) -> rows.put(type, switch (type) {
+            case CLIENT -> index(clientRepository.findAllById(typeIds), Client::getId);
+            case ESTIMATE -> index(estimateRepository.findRowsByIdIn(typeIds), EstimateRow::getId);
+            case INVOICE -> index(invoiceRepository.findRowsByIdIn(typeIds), InvoiceRow::getId);
+            case PAYMENT -> index(paymentRepository.findRowsByIdIn(typeIds), PaymentRow::getId);
+        }));
+        batch.removeIf(change -> {
+            if (change.getOp() == SyncChange.Op.DELETE) {
+                return false;
+            }
+            change.setData(rows.get(change.getType()).get(change.getId()));
+            return change.getData() == null;
+        });
+    }
+    
+    private static <T> Map<Long, Object> index(Collection<T> rows, Function<T, Long> idOf) {
+        Map<Long, Object> byId = new HashMap<>(rows.size() * 2);
+        for (T row : rows) {
+            byId.put(idOf.apply(row), row);
+        }
+        return byId;
+    }
+    
+    // --- tombstone retention ---
+    
+    @Scheduled(cron = "${app.sync.cleanup-cron:0 45 1 * * *}")
+    public void purgeTombstones() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        Integer deleted = sequenceTx.execute(status -> {
+            // Taken so a sequencing run cannot number tombstones while the horizon moves
+            jdbc.queryForObject("SELECT last_seq FROM change_counter WHERE id = ? FOR UPDATE", Long.class,
+                    ChangeCounter.ID);
+            Long through = tombstoneRepository.findMaxChangeSeqDeletedBefore(before);
+            if (through == null) {
+                return 0;
+            }
+            jdbc.update("UPDATE change_counter SET purged_through = ? WHERE id = ? AND purged_through < ?",
+                    through, ChangeCounter.ID, through);
+            return tombstoneRepository.deleteSequencedThrough(through, before);
+        });
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} tombstone(s) older than {} day(s)", deleted, retentionDays);
+        }
+    }
+}
@@ -0,0 +1,484 @@
+package com.mis.invoicing.service;
+
+import com.mis.invoicing.model.Client;
+import com.mis.invoicing.repository.ClientRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-process typeahead index over client name, email, phone and GSTIN.
+ *
+ * <p>Every field is broken into trigrams, plus the 1- and 2-character prefixes of
+ * each word for short queries. Postings are sorted {@code long[]} id arrays, so a
+ * query intersects its grams' postings, verifies the survivors against the stored
+ * fields and ranks them, without touching the database. A complete 15-character
+ * GSTIN is answered from an exact-match map.
+ *
+ * <p>Reads are lock-free; writers serialize on a lock and swap posting arrays
+ * copy-on-write. Updates are applied after the client's transaction commits.
+ */
+@Slf4j
+@Component
+public class ClientSearchIndex {
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private static final Pattern GSTIN = Pattern.compile("\\d{2}[A-Z]{5}\\d{4}[A-Z][1-9A-Z]Z[0-9A-Z]");
+    private static final Pattern WORD_BREAK = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final char PREFIX_MARK = '\u0001';
+    private static final int SHORT_QUERY_SCAN_LIMIT = 5000;
+    private static final long[] EMPTY = new long[0];
+
+    private final ClientRepository clientRepository;
+    private final TransactionTemplate readTx;
+
+    private final Map<Long, Doc> docs = new ConcurrentHashMap<>();
+    private final Map<String, long[]> postings = new ConcurrentHashMap<>();
+    private final Map<String, Long> byGstin = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public ClientSearchIndex(ClientRepository clientRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.clientRepository = clientRepository;
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setReadOnly(true);
+    }
+
+    // --- queries ---
+
+    public List<Client> search(String query, Integer limit) {
+        int k = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        String q = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (q.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        if (q.length() == 15) {
+            String gstin = q.toUpperCase(Locale.ROOT);
+            if (GSTIN.matcher(gstin).matches()) {
+                Long id = byGstin.get(gstin);
+                Doc doc = id != null ? docs.get(id) : null;
+                if (doc != null) {
+                    return List.of(doc.copy());
+                }
+            }
+        }
+
+        String digits = digitsOf(q);
+        long[] candidates = candidatesFor(q);
+        if (digits.length() > 0 && !digits.equals(q)) {
+            candidates = union(candidates, candidatesFor(digits));
+        }
+
+        // One or two characters can match most of the table; rank only the newest slice
+        int from = q.length() < 3 ? Math.max(0, candidates.length - SHORT_QUERY_SCAN_LIMIT) : 0;
+        PriorityQueue<Hit> top = new PriorityQueue<>(k + 1, Hit.ORDER.reversed());
+        for (int i = candidates.length - 1; i >= from; i--) {
+            Doc doc = docs.get(candidates[i]);
+            if (doc == null) {
+                continue;
+            }
+            int score = doc.score(q, digits);
+            if (score > 0) {
+                top.add(new Hit(doc, score));
+                if (top.size() > k) {
+                    top.poll();
+                }
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(Hit.ORDER);
+        List<Client> results = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            results.add(hit.doc.copy());
+        }
+        return results;
+    }
+
+    public int size() {
+        return docs.size();
+    }
+
+    // Intersects the postings of every gram in the query, smallest first
+    private long[] candidatesFor(String q) {
+        List<String> grams = q.length() < 3
+                ? List.of(PREFIX_MARK + q)
+                : new ArrayList<>(trigrams(q));
+        long[][] lists = new long[grams.size()][];
+        for (int i = 0; i < grams.size(); i++) {
+            long[] list = postings.get(grams.get(i));
+            if (list == null) {
+                return EMPTY;
+            }
+            lists[i] = list;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.length));
+        long[] result = lists[0];
+        for (int i = 1; i < lists.length && result.length > 0; i++) {
+            result = intersect(result, lists[i]);
+        }
+        return result;
+    }
+
+    // --- maintenance (called after commit) ---
+
+    public void clientSaved(Client client) {
+        Doc doc = new Doc(client);
+        AfterCommit.run(() -> put(doc));
+    }
+
+    // Bulk inserts: each posting list is merged with the whole batch once instead of copied per client
+    public void clientsCreated(List<Client> clients) {
+        List<Doc> batch = clients.stream().map(Doc::new).toList();
+        AfterCommit.run(() -> putAll(batch));
+    }
+
+    public void clientDeleted(Long clientId) {
+        AfterCommit.run(() -> remove(clientId));
+    }
+
+    private void put(Doc doc) {
+        writeLock.lock();
+        try {
+            Doc previous = docs.get(doc.id);
+            Set<String> oldGrams = previous != null ? previous.grams() : Collections.emptySet();
+            Set<String> newGrams = doc.grams();
+
+            for (String gram : newGrams) {
+                if (!oldGrams.contains(gram)) {
+                    postings.compute(gram, (key, list) -> insert(list, doc.id));
+                }
+            }
+            docs.put(doc.id, doc);
+            for (String gram : oldGrams) {
+                if (!newGrams.contains(gram)) {
+                    postings.computeIfPresent(gram, (key, list) -> delete(list, doc.id));
+                }
+            }
+
+            if (previous != null && previous.gstin != null) {
+                byGstin.remove(previous.gstin, doc.id);
+            }
+            if (doc.gstin != null) {
+                byGstin.put(doc.gstin, doc.id);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void putAll(List<Doc> batch) {
+        Map<String, LongList> added = new HashMap<>();
+        for (Doc doc : batch) {
+            for (String gram : doc.grams()) {
+                added.computeIfAbsent(gram, key -> new LongList()).add(doc.id);
+            }
+        }
+        writeLock.lock();
+        try {
+            added.forEach((gram, ids) -> postings.compute(gram, (key, list) -> merge(list, ids.toArray())));
+            for (Doc doc : batch) {
+                docs.put(doc.id, doc);
+                if (doc.gstin != null) {
+                    byGstin.put(doc.gstin, doc.id);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void remove(Long id) {
+        writeLock.lock();
+        try {
+            Doc previous = docs.remove(id);
+            if (previous == null) {
+                return;
+            }
+            for (String gram : previous.grams()) {
+                postings.computeIfPresent(gram, (key, list) -> delete(list, id));
+            }
+            if (previous.gstin != null) {
+                byGstin.remove(previous.gstin, id);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** Rebuilds the whole index from the clients table; searches keep using the old one meanwhile. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.nanoTime();
+        List<Client> clients = readTx.execute(status -> {
+            try (Stream<Client> rows = clientRepository.streamAllUnmanaged()) {
+                return rows.toList();
+            }
+        });
+        int grams = load(clients);
+        log.info("Client search index built: {} clients, {} grams in {} ms",
+                clients.size(), grams, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /** Replaces the index contents with {@code clients}, which must be in ascending id order. */
+    int load(List<Client> clients) {
+        List<Doc> loaded = new ArrayList<>(clients.size());
+        for (Client client : clients) {
+            loaded.add(new Doc(client));
+        }
+
+        // Docs arrive in id order, so appending keeps every posting list sorted
+        Map<String, LongList> building = new HashMap<>();
+        Map<Long, Doc> byId = new HashMap<>(loaded.size() * 2);
+        Map<String, Long> gstins = new HashMap<>();
+        for (Doc doc : loaded) {
+            for (String gram : doc.grams()) {
+                building.computeIfAbsent(gram, key -> new LongList()).add(doc.id);
+            }
+            byId.put(doc.id, doc);
+            if (doc.gstin != null) {
+                gstins.put(doc.gstin, doc.id);
+            }
+        }
+        Map<String, long[]> built = new HashMap<>(building.size() * 2);
+        building.forEach((gram, ids) -> built.put(gram, ids.toArray()));
+
+        writeLock.lock();
+        try {
+            docs.keySet().retainAll(byId.keySet());
+            docs.putAll(byId);
+            postings.keySet().retainAll(built.keySet());
+            postings.putAll(built);
+            byGstin.keySet().retainAll(gstins.keySet());
+            byGstin.putAll(gstins);
+        } finally {
+            writeLock.unlock();
+        }
+        return built.size();
+    }
+
+    // --- sorted id arrays ---
+
+    private static long[] insert(long[] list, long id) {
+        if (list == null) {
+            return new long[]{id};
+        }
+        int at = Arrays.binarySearch(list, id);
+        if (at >= 0) {
+            return list;
+        }
+        at = -at - 1;
+        long[] grown = new long[list.length + 1];
+        System.arraycopy(list, 0, grown, 0, at);
+        grown[at] = id;
+        System.arraycopy(list, at, grown, at + 1, list.length - at);
+        return grown;
+    }
+
+    private static long[] merge(long[] list, long[] ids) {
+        Arrays.sort(ids);
+        if (list == null) {
+            return ids;
+        }
+        long[] merged = new long[list.length + ids.length];
+        int i = 0, j = 0, n = 0;
+        while (i < list.length || j < ids.length) {
+            long next = j == ids.length || (i < list.length && list[i] <= ids[j]) ? list[i++] : ids[j++];
+            if (n == 0 || merged[n - 1] != next) {
+                merged[n++] = next;
+            }
+        }
+        return n == merged.length ? merged : Arrays.copyOf(merged, n);
+    }
+
+    // Returning null drops the gram from the map once its last id is gone
+    private static long[] delete(long[] list, long id) {
+        int at = Arrays.binarySearch(list, id);
+        if (at < 0) {
+            return list;
+        }
+        if (list.length == 1) {
+            return null;
+        }
+        long[] shrunk = new long[list.length - 1];
+        System.arraycopy(list, 0, shrunk, 0, at);
+        System.arraycopy(list, at + 1, shrunk, at, list.length - at - 1);
+        return shrunk;
+    }
+
+    private static long[] intersect(long[] a, long[] b) {
+        long[] out = new long[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private static long[] union(long[] a, long[] b) {
+        long[] out = new long[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                out[n++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                out[n++] = b[j++];
+            } else {
+                out[n++] = a[i++];
+                j++;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /** Growable primitive id list used while bulk-building postings. */
+    private static final class LongList {
+        private long[] values = new long[4];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    // --- normalization ---
+
+    private static Set<String> trigrams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            grams.add(value.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String digitsOf(String value) {
+        StringBuilder digits = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    private static boolean wordStart(String field, String q) {
+        for (int at = field.indexOf(q); at >= 0; at = field.indexOf(q, at + 1)) {
+            if (at == 0 || !Character.isLetterOrDigit(field.charAt(at - 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Immutable snapshot of one client's searchable fields. */
+    private static final class Doc {
+        final long id;
+        final Client client;
+        final String name;
+        final String email;
+        final String phone;
+        final String gst;
+        final String gstin;
+
+        Doc(Client source) {
+            this.id = source.getId();
+            this.client = new Client(source.getId(), source.getName(), source.getEmail(), source.getPhone(),
+                    source.getAddress(), source.getGstNumber(), source.getCategory(), source.getVersion(),
+                    source.getCreatedAt(), source.getUpdatedAt(), source.getChangeSeq());
+            this.name = normalize(source.getName());
+            this.email = normalize(source.getEmail());
+            this.phone = digitsOf(normalize(source.getPhone()));
+            this.gst = normalize(source.getGstNumber());
+            this.gstin = gst.isEmpty() ? null : gst.toUpperCase(Locale.ROOT);
+        }
+
+        Client copy() {
+            return new Client(client.getId(), client.getName(), client.getEmail(), client.getPhone(),
+                    client.getAddress(), client.getGstNumber(), client.getCategory(), client.getVersion(),
+                    client.getCreatedAt(), client.getUpdatedAt(), client.getChangeSeq());
+        }
+
+        Set<String> grams() {
+            Set<String> grams = new HashSet<>();
+            for (String field : new String[]{name, email, phone, gst}) {
+                grams.addAll(trigrams(field));
+                for (String word : WORD_BREAK.split(field)) {
+                    if (!word.isEmpty()) {
+                        grams.add(PREFIX_MARK + word.substring(0, 1));
+                        if (word.length() >= 2) {
+                            grams.add(PREFIX_MARK + word.substring(0, 2));
+                        }
+                    }
+                }
+            }
+            return grams;
+        }
+
+        // Name outranks GSTIN, then email, then phone; within a field an exact or
+        // prefix match beats a word-start match, which beats a plain substring
+        int score(String q, String digits) {
+            int best = 0;
+            if (!name.isEmpty() && name.contains(q)) {
+                best = Math.max(best, name.equals(q) ? 100 : name.startsWith(q) ? 90 : wordStart(name, q) ? 70 : 40);
+            }
+            if (!gst.isEmpty() && gst.contains(q)) {
+                best = Math.max(best, gst.startsWith(q) ? 85 : 35);
+            }
+            if (!email.isEmpty() && email.contains(q)) {
+                best = Math.max(best, email.startsWith(q) ? 60 : wordStart(email, q) ? 50 : 30);
+            }
+            if (!digits.isEmpty() && !phone.isEmpty() && phone.contains(digits)) {
+                best = Math.max(best, phone.startsWith(digits) || phone.endsWith(digits) ? 55 : 25);
+            }
+            return best;
+        }
+    }
+
+    private record Hit(Doc doc, int score) {
+        // Best score first, then shorter names, then newest
+        static final Comparator<Hit> ORDER = Comparator.comparingInt(Hit::score).reversed()
+                .thenComparingInt(hit -> hit.doc.name.length())
+                .thenComparing(Comparator.comparingLong((Hit hit) -> hit.doc.id).reversed());
+    }
+}
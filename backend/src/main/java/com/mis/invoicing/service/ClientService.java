@@ -1,10 +1,15 @@
 package com.mis.invoicing.service;
 
+import com.mis.invoicing.dto.CursorPage;
 import com.mis.invoicing.model.Client;
+import com.mis.invoicing.model.Tombstone;
 import com.mis.invoicing.repository.ClientRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,11 +17,25 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class ClientService {
     private final ClientRepository clientRepository;
+    private final DashboardAggregates dashboardAggregates;
+    private final ClientSearchIndex clientSearchIndex;
+    private final ChangeFeed changeFeed;
+    private final LiveUpdates liveUpdates;
     
     public List<Client> getAllClients() {
         return clientRepository.findAll();
     }
     
+    public CursorPage<Client> getClientPage(String cursor, Integer limit, String category,
+                                            LocalDate from, LocalDate to) {
+        int pageSize = CursorPage.clampLimit(limit);
+        LocalDateTime fromTime = from != null ? from.atStartOfDay() : null;
+        LocalDateTime toTime = to != null ? to.plusDays(1).atStartOfDay() : null;
+        List<Client> rows = clientRepository.findPage(CursorPage.decodeCursor(cursor), category,
+                fromTime, toTime, CursorPage.probe(pageSize));
+        return CursorPage.of(rows, pageSize, Client::getId);
+    }
+    
     public Optional<Client> getClientById(@NonNull Long id) {
         return clientRepository.findById(id);
     }
@@ -25,14 +44,20 @@ public class ClientService {
         return clientRepository.findByCategory(category);
     }
     
-    public List<Client> searchClients(String name) {
-        return clientRepository.findByNameContainingIgnoreCase(name);
+    public List<Client> searchClients(String query, Integer limit) {
+        return clientSearchIndex.search(query, limit);
     }
     
+    @Transactional
     public Client createClient(@NonNull Client client) {
-        return clientRepository.save(client);
+        Client saved = clientRepository.save(client);
+        dashboardAggregates.clientSaved(saved, true);
+        liveUpdates.saved(Tombstone.EntityType.CLIENT, saved.getId());
+        clientSearchIndex.clientSaved(saved);
+        return saved;
     }
     
+    @Transactional
     public Client updateClient(@NonNull Long id, Client clientDetails) {
         Client client = clientRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Client not found with id: " + id));
@@ -44,10 +69,21 @@ public class ClientService {
         client.setGstNumber(clientDetails.getGstNumber());
         client.setCategory(clientDetails.getCategory());
         
-        return clientRepository.save(client);
+        Client saved = clientRepository.save(client);
+        dashboardAggregates.clientSaved(saved, false);
+        liveUpdates.saved(Tombstone.EntityType.CLIENT, saved.getId());
+        clientSearchIndex.clientSaved(saved);
+        return saved;
     }
     
+    @Transactional
     public void deleteClient(@NonNull Long id) {
-        clientRepository.deleteById(id);
+        clientRepository.findById(id).ifPresent(client -> {
+            clientRepository.delete(client);
+            changeFeed.deleted(Tombstone.EntityType.CLIENT, id);
+            dashboardAggregates.clientDeleted(id);
+            liveUpdates.deleted(Tombstone.EntityType.CLIENT, id);
+            clientSearchIndex.clientDeleted(id);
+        });
     }
 }
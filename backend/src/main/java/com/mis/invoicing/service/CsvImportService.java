@@ -0,0 +1,786 @@
+package com.mis.invoicing.service;
+
+import com.mis.invoicing.dto.ImportResult;
+import com.mis.invoicing.model.Client;
+import com.mis.invoicing.model.Invoice;
+import com.mis.invoicing.model.Job;
+import com.mis.invoicing.model.Payment;
+import com.mis.invoicing.model.Tombstone;
+import com.mis.invoicing.repository.ClientRepository;
+import com.mis.invoicing.repository.InvoiceRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Bulk CSV import of clients and of historical invoices, run as background jobs.
+ * The upload is read one record at a time, so memory stays flat however long the
+ * file is. Rows are checked (required columns, GSTIN format and check character,
+ * amounts, dates) and de-duplicated against the database, then written with JDBC
+ * batches, one transaction per chunk. Rejected rows go to an error report - line
+ * number, reason and the original fields - that can be downloaded afterwards.
+ * <p>
+ * The checkpoint is the number of records consumed and the size of the report at
+ * the end of the last committed chunk; a resumed job cuts the report back to that
+ * size and carries on with the next record.
+ */
+@Slf4j
+@Service
+public class CsvImportService implements JobHandler {
+    public enum Kind {
+        CLIENTS, INVOICES
+    }
+    
+    // Change sequence is left NULL so ChangeFeed picks the rows up like any other write
+    private static final String CLIENT_SQL = "INSERT INTO clients (name, email, phone, address, gst_number, category, "
+            + "version, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, 0, ?, ?)";
+    private static final String INVOICE_SQL = "INSERT INTO invoices (id, client_id, invoice_number, items, subtotal, "
+            + "cgst, sgst, igst, total, amount_paid, balance_due, version, status, due_date, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?, ?, ?)";
+    private static final String PAYMENT_SQL = "INSERT INTO payments (invoice_id, amount, payment_mode, transaction_ref, "
+            + "payment_date, version, updated_at) VALUES (?, ?, ?, ?, ?, 0, ?)";
+    private static final Pattern EMAIL = Pattern.compile("[^@\\s]+@[^@\\s]+\\.[^@\\s]+");
+    private static final Pattern HEADER_NOISE = Pattern.compile("[\\s_-]");
+    private static final DateTimeFormatter DAY_FIRST = DateTimeFormatter.ofPattern("d/M/uuuu");
+    
+    private final JdbcTemplate jdbc;
+    private final EntityManager entityManager;
+    private final SessionFactoryImplementor sessionFactory;
+    private final BeforeExecutionGenerator invoiceIds;
+    private final ClientRepository clientRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final DashboardAggregates dashboardAggregates;
+    private final RevenueRollup revenueRollup;
+    private final ClientSearchIndex clientSearchIndex;
+    private final LiveUpdates liveUpdates;
+    private final OverdueInvoiceJob overdueInvoiceJob;
+    private final Path directory;
+    private final int chunkSize;
+    private final int retentionDays;
+    
+    private record CsvRow(long line, List<String> fields) {
+    }
+    
+    private record ImportedInvoice(Invoice invoice, Payment payment) {
+    }
+    
+    // Thrown while checking a row; the message is the reason written to the error report
+    private static class Rejected extends RuntimeException {
+        Rejected(String reason) {
+            super(reason, null, false, false);
+        }
+    }
+    
+    private interface Importer<T> {
+        /** Sees each chunk before its rows are checked. */
+        default void prepare(List<CsvRow> rows) {
+        }
+        
+        T check(CsvRow row);
+        
+        /** Runs inside the chunk's transaction. */
+        void write(List<T> rows);
+        
+        /** The chunk's transaction rolled back; rows accepted from it are no longer taken. */
+        default void discard(List<T> rows) {
+        }
+    }
+    
+    private interface RowSetter<T> {
+        void set(PreparedStatement statement, T row) throws SQLException;
+    }
+    
+    public CsvImportService(JdbcTemplate jdbc,
+                            EntityManager entityManager,
+                            EntityManagerFactory entityManagerFactory,
+                            ClientRepository clientRepository,
+                            InvoiceRepository invoiceRepository,
+                            DashboardAggregates dashboardAggregates,
+                            RevenueRollup revenueRollup,
+                            ClientSearchIndex clientSearchIndex,
+                            LiveUpdates liveUpdates,
+                            OverdueInvoiceJob overdueInvoiceJob,
+                            @Value("${app.imports.dir:${java.io.tmpdir}/invoicing-imports}") String directory,
+                            @Value("${app.imports.chunk-size:500}") int chunkSize,
+                            @Value("${app.jobs.retention-days:30}") int retentionDays) {
+        this.jdbc = jdbc;
+        this.entityManager = entityManager;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        // The generator (and pooled block of ids) Hibernate uses for invoices it persists itself
+        this.invoiceIds = (BeforeExecutionGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(Invoice.class).getGenerator();
+        this.clientRepository = clientRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.dashboardAggregates = dashboardAggregates;
+        this.revenueRollup = revenueRollup;
+        this.clientSearchIndex = clientSearchIndex;
+        this.liveUpdates = liveUpdates;
+        this.overdueInvoiceJob = overdueInvoiceJob;
+        this.directory = Path.of(directory).toAbsolutePath();
+        this.chunkSize = Math.max(1, chunkSize);
+        this.retentionDays = retentionDays;
+    }
+    
+    /** Checks the header row and saves the upload for an import job; returns the stored file name. */
+    public String store(Kind kind, MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The uploaded file is empty");
+        }
+        Files.createDirectories(directory);
+        String name = UUID.randomUUID() + ".csv";
+        Path target = directory.resolve(name);
+        file.transferTo(target);
+        String problem;
+        try (CsvReader csv = open(target)) {
+            List<String> header = csv.next();
+            problem = header == null ? "The file has no header row" : missingColumns(kind, Columns.of(header));
+        } catch (IOException e) {
+            problem = e.getMessage();
+        }
+        if (problem != null) {
+            Files.deleteIfExists(target);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, problem);
+        }
+        return name;
+    }
+    
+    /** Error report of an import job, once it has rejected at least one row. */
+    public Optional<Path> getErrorReport(Long jobId) {
+        Path report = reportFile(jobId);
+        return Files.isRegularFile(report) ? Optional.of(report) : Optional.empty();
+    }
+    
+    @Override
+    public Job.JobType type() {
+        return Job.JobType.CSV_IMPORT;
+    }
+    
+    @Override
+    public ImportResult run(JobContext job) throws IOException {
+        long started = System.nanoTime();
+        Kind kind = Kind.valueOf(job.param("kind"));
+        Path source = directory.resolve(job.param("file"));
+        Path report = reportFile(job.id());
+        long consumed = 0;
+        long reportSize = 0;
+        if (job.checkpoint() != null) {
+            String[] checkpoint = job.checkpoint().split(":");
+            consumed = Long.parseLong(checkpoint[0]);
+            reportSize = Long.parseLong(checkpoint[1]);
+        }
+        job.total(countRows(source));
+        
+        try (CsvReader csv = open(source);
+             FileChannel channel = FileChannel.open(report, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            List<String> header = csv.next();
+            Columns columns = Columns.of(header);
+            // Anything past the checkpoint was written for a chunk that never committed
+            channel.truncate(reportSize);
+            channel.position(reportSize);
+            Writer out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+            if (reportSize == 0) {
+                out.write("line,error");
+                for (String name : header) {
+                    out.write(',');
+                    out.write(ExportService.csv(name));
+                }
+                out.write('\n');
+            }
+            for (long skipped = 0; skipped < consumed; skipped++) {
+                csv.next();
+            }
+            Importer<?> importer = kind == Kind.CLIENTS ? new ClientImporter(columns, job) : new InvoiceImporter(columns, job);
+            importChunks(job, csv, importer, out, channel, consumed);
+        }
+        
+        long rejected = job.failed();
+        if (rejected == 0) {
+            Files.deleteIfExists(report);
+        }
+        Files.deleteIfExists(source);
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Imported {} of {} {} row(s) in {} ms ({} rejected)",
+                job.processed() - rejected, job.processed(), kind, durationMs, rejected);
+        return new ImportResult(kind.name(), job.processed(), job.processed() - rejected, rejected,
+                rejected > 0 ? "/api/imports/" + job.id() + "/errors" : null, durationMs);
+    }
+    
+    // Uploads and reports outlive their job only until the job itself is cleaned up
+    @Scheduled(cron = "${app.jobs.cleanup-cron:0 30 1 * * *}")
+    public void deleteOldFiles() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        FileTime cutoff = FileTime.from(Instant.now().minus(retentionDays, ChronoUnit.DAYS));
+        int deleted = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                if (Files.isRegularFile(file) && Files.getLastModifiedTime(file).compareTo(cutoff) < 0) {
+                    Files.deleteIfExists(file);
+                    deleted++;
+                }
+            }
+        }
+        if (deleted > 0) {
+            log.info("Deleted {} import file(s) older than {} day(s)", deleted, retentionDays);
+        }
+    }
+    
+    private <T> void importChunks(JobContext job, CsvReader csv, Importer<T> importer, Writer out,
+                                  FileChannel channel, long consumed) throws IOException {
+        List<CsvRow> chunk = new ArrayList<>(chunkSize);
+        while (true) {
+            chunk.clear();
+            List<String> fields;
+            while (chunk.size() < chunkSize && (fields = csv.next()) != null) {
+                chunk.add(new CsvRow(csv.line(), fields));
+            }
+            if (chunk.isEmpty()) {
+                return;
+            }
+            consumed += chunk.size();
+            
+            importer.prepare(chunk);
+            List<T> rows = new ArrayList<>(chunk.size());
+            List<CsvRow> accepted = new ArrayList<>(chunk.size());
+            int rejected = 0;
+            for (CsvRow row : chunk) {
+                try {
+                    rows.add(importer.check(row));
+                    accepted.add(row);
+                } catch (Rejected e) {
+                    reject(out, row, e.getMessage());
+                    rejected++;
+                }
+            }
+            // The report is on disk before the checkpoint that covers it commits
+            out.flush();
+            
+            String checkpoint = consumed + ":" + channel.position();
+            int failed = rejected;
+            try {
+                job.inTransaction(status -> {
+                    if (!rows.isEmpty()) {
+                        importer.write(rows);
+                    }
+                    job.advance(checkpoint, chunk.size(), failed);
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                log.warn("Import job {}: chunk ending at line {} not saved: {}",
+                        job.id(), chunk.get(chunk.size() - 1).line(), e.getMessage());
+                importer.discard(rows);
+                for (CsvRow row : accepted) {
+                    reject(out, row, "Not saved: " + e.getMessage());
+                }
+                out.flush();
+                String afterFailure = consumed + ":" + channel.position();
+                job.inTransaction(status -> {
+                    job.advance(afterFailure, chunk.size(), chunk.size());
+                    return null;
+                });
+            }
+            job.checkCancelled();
+        }
+    }
+    
+    private static void reject(Writer out, CsvRow row, String reason) throws IOException {
+        out.write(Long.toString(row.line()));
+        out.write(',');
+        out.write(ExportService.csv(reason));
+        for (String field : row.fields()) {
+            out.write(',');
+            out.write(ExportService.csv(field));
+        }
+        out.write('\n');
+    }
+    
+    private Path reportFile(Long jobId) {
+        return directory.resolve(jobId + "-errors.csv");
+    }
+    
+    private static CsvReader open(Path file) throws IOException {
+        return new CsvReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+    }
+    
+    // Data rows only, for the job's progress total; a second streaming pass, no more
+    private static long countRows(Path file) throws IOException {
+        long rows = -1;
+        try (CsvReader csv = open(file)) {
+            while (csv.next() != null) {
+                rows++;
+            }
+        }
+        return Math.max(rows, 0);
+    }
+    
+    private static String missingColumns(Kind kind, Columns columns) {
+        List<String> missing = new ArrayList<>();
+        if (kind == Kind.CLIENTS) {
+            if (!columns.has("name")) {
+                missing.add("name");
+            }
+        } else {
+            for (String name : List.of("invoiceNumber", "subtotal", "invoiceDate")) {
+                if (!columns.has(name)) {
+                    missing.add(name);
+                }
+            }
+            if (!columns.has("clientGstin") && !columns.has("clientEmail")) {
+                missing.add("clientGstin or clientEmail");
+            }
+        }
+        return missing.isEmpty() ? null : "Missing column(s): " + String.join(", ", missing);
+    }
+    
+    // One JDBC batch; returns the generated ids in row order
+    private <T> List<Long> insert(String sql, List<T> rows, RowSetter<T> setter) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbc.batchUpdate(connection -> connection.prepareStatement(sql, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        setter.set(statement, rows.get(i));
+                    }
+                    
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                }, keys);
+        return keys.getKeyList().stream()
+                .map(key -> ((Number) key.values().iterator().next()).longValue())
+                .toList();
+    }
+    
+    // --- clients ---
+    
+    // Existing clients are indexed by GSTIN and e-mail; rows accepted from the file join the index as they pass
+    private class ClientImporter implements Importer<Client> {
+        private final Columns columns;
+        private final Set<String> taken = new HashSet<>();
+        
+        ClientImporter(Columns columns, JobContext job) {
+            this.columns = columns;
+            job.inTransaction(status -> {
+                try (Stream<Client> clients = clientRepository.streamAllUnmanaged()) {
+                    clients.forEach(client -> taken.addAll(keys(client)));
+                }
+                return null;
+            });
+        }
+        
+        @Override
+        public Client check(CsvRow row) {
+            Client client = new Client();
+            client.setName(text(columns.get(row, "name"), "name", 255, true));
+            client.setEmail(email(text(columns.get(row, "email"), "email", 255, false)));
+            client.setPhone(text(columns.get(row, "phone"), "phone", 255, false));
+            client.setAddress(columns.get(row, "address"));
+            client.setGstNumber(gstin(columns.get(row, "gstNumber", "gstin")));
+            client.setCategory(text(columns.get(row, "category"), "category", 50, false));
+            if (client.getGstNumber() != null && taken.contains(gstinKey(client.getGstNumber()))) {
+                throw new Rejected("Duplicate: a client with GSTIN " + client.getGstNumber() + " already exists");
+            }
+            if (client.getEmail() != null && taken.contains(emailKey(client.getEmail()))) {
+                throw new Rejected("Duplicate: a client with e-mail " + client.getEmail() + " already exists");
+            }
+            taken.addAll(keys(client));
+            return client;
+        }
+        
+        @Override
+        public void write(List<Client> clients) {
+            LocalDateTime now = LocalDateTime.now();
+            Timestamp timestamp = Timestamp.valueOf(now);
+            List<Long> ids = insert(CLIENT_SQL, clients, (statement, client) -> {
+                statement.setString(1, client.getName());
+                statement.setString(2, client.getEmail());
+                statement.setString(3, client.getPhone());
+                statement.setString(4, client.getAddress());
+                statement.setString(5, client.getGstNumber());
+                statement.setString(6, client.getCategory());
+                statement.setTimestamp(7, timestamp);
+                statement.setTimestamp(8, timestamp);
+            });
+            for (int i = 0; i < clients.size(); i++) {
+                Client client = clients.get(i);
+                client.setId(ids.get(i));
+                client.setVersion(0L);
+                client.setCreatedAt(now);
+                client.setUpdatedAt(now);
+                dashboardAggregates.clientSaved(client, true);
+            }
+            clientSearchIndex.clientsCreated(clients);
+            liveUpdates.saved(Tombstone.EntityType.CLIENT, ids);
+            // Hibernate drops cached query results when it writes the table itself; these inserts went around it
+            AfterCommit.run(() -> sessionFactory.getCache().evictQueryRegion("client-queries"));
+        }
+        
+        @Override
+        public void discard(List<Client> clients) {
+            clients.forEach(client -> keys(client).forEach(taken::remove));
+        }
+    }
+    
+    private static List<String> keys(Client client) {
+        List<String> keys = new ArrayList<>(2);
+        if (client.getGstNumber() != null && !client.getGstNumber().isBlank()) {
+            keys.add(gstinKey(client.getGstNumber()));
+        }
+        if (client.getEmail() != null && !client.getEmail().isBlank()) {
+            keys.add(emailKey(client.getEmail()));
+        }
+        return keys;
+    }
+    
+    private static String gstinKey(String gstin) {
+        return "gstin:" + gstin.trim().toUpperCase(Locale.ROOT);
+    }
+    
+    private static String emailKey(String email) {
+        return "email:" + email.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    // --- invoices ---
+    
+    // Clients are found by GSTIN or e-mail in an index built once per run; invoice numbers are screened per chunk
+    private class InvoiceImporter implements Importer<ImportedInvoice> {
+        private final Columns columns;
+        private final Map<String, Client> clients = new HashMap<>();
+        private final Set<String> existingNumbers = new HashSet<>();
+        private final Set<String> chunkNumbers = new HashSet<>();
+        // Same calendar as the overdue job, so an imported row is OVERDUE exactly when a run would make it so
+        private final LocalDate today = overdueInvoiceJob.today();
+        
+        InvoiceImporter(Columns columns, JobContext job) {
+            this.columns = columns;
+            job.inTransaction(status -> {
+                try (Stream<Client> rows = clientRepository.streamAllUnmanaged()) {
+                    // Lowest id wins when a GSTIN or e-mail is shared by several clients
+                    rows.forEach(client -> keys(client).forEach(key -> clients.putIfAbsent(key, client)));
+                }
+                return null;
+            });
+        }
+        
+        @Override
+        public void prepare(List<CsvRow> rows) {
+            existingNumbers.clear();
+            chunkNumbers.clear();
+            List<String> numbers = rows.stream()
+                    .map(row -> columns.get(row, "invoiceNumber"))
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .toList();
+            if (!numbers.isEmpty()) {
+                existingNumbers.addAll(invoiceRepository.findExistingNumbers(numbers));
+            }
+        }
+        
+        @Override
+        public ImportedInvoice check(CsvRow row) {
+            String number = text(columns.get(row, "invoiceNumber"), "invoiceNumber", 255, true);
+            Client client = client(row);
+            BigDecimal subtotal = amount(columns.get(row, "subtotal"), "subtotal", true);
+            LocalDate invoiceDate = date(columns.get(row, "invoiceDate"), "invoiceDate", true);
+            if (invoiceDate.isAfter(today)) {
+                throw new Rejected("invoiceDate " + invoiceDate + " is in the future");
+            }
+            LocalDate dueDate = date(columns.get(row, "dueDate"), "dueDate", false);
+            boolean interState = flag(columns.get(row, "interState"), "interState");
+            BigDecimal paid = amount(columns.get(row, "amountPaid"), "amountPaid", false);
+            
+            Invoice invoice = new Invoice();
+            invoice.setClient(client);
+            invoice.setInvoiceNumber(number);
+            invoice.setItems(columns.get(row, "items"));
+            invoice.setSubtotal(subtotal);
+            invoice.setAmountPaid(paid != null ? paid : BigDecimal.ZERO);
+            invoice.setDueDate(dueDate);
+            invoice.setCreatedAt(invoiceDate.atStartOfDay());
+            GstCalculator.apply(invoice, interState);
+            if (invoice.getBalanceDue().signum() < 0) {
+                throw new Rejected("amountPaid " + paid + " is more than the invoice total " + invoice.getTotal());
+            }
+            if (invoice.getBalanceDue().signum() == 0) {
+                invoice.setStatus(Invoice.InvoiceStatus.PAID);
+            } else if (dueDate != null && dueDate.isBefore(today)) {
+                invoice.setStatus(Invoice.InvoiceStatus.OVERDUE);
+            } else {
+                invoice.setStatus(Invoice.InvoiceStatus.PENDING);
+            }
+            
+            Payment payment = null;
+            if (paid != null && paid.signum() > 0) {
+                LocalDate paymentDate = date(columns.get(row, "paymentDate"), "paymentDate", false);
+                payment = new Payment();
+                payment.setInvoice(invoice);
+                payment.setAmount(paid);
+                payment.setPaymentMode(text(columns.get(row, "paymentMode"), "paymentMode", 50, false));
+                payment.setTransactionRef(text(columns.get(row, "transactionRef"), "transactionRef", 100, false));
+                payment.setPaymentDate((paymentDate != null ? paymentDate : invoiceDate).atStartOfDay());
+            }
+            
+            if (existingNumbers.contains(number)) {
+                throw new Rejected("Duplicate: invoice number " + number + " already exists");
+            }
+            if (!chunkNumbers.add(number)) {
+                throw new Rejected("Duplicate: invoice number " + number + " appears earlier in the file");
+            }
+            return new ImportedInvoice(invoice, payment);
+        }
+        
+        private Client client(CsvRow row) {
+            String gstin = gstin(columns.get(row, "clientGstin"));
+            if (gstin != null) {
+                Client client = clients.get(gstinKey(gstin));
+                if (client == null) {
+                    throw new Rejected("No client with GSTIN " + gstin);
+                }
+                return client;
+            }
+            String email = columns.get(row, "clientEmail");
+            if (email == null) {
+                throw new Rejected("clientGstin or clientEmail is required");
+            }
+            Client client = clients.get(emailKey(email));
+            if (client == null) {
+                throw new Rejected("No client with e-mail " + email);
+            }
+            return client;
+        }
+        
+        @Override
+        public void write(List<ImportedInvoice> rows) {
+            LocalDateTime now = LocalDateTime.now();
+            Timestamp timestamp = Timestamp.valueOf(now);
+            SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+            List<Long> invoiceIdList = new ArrayList<>(rows.size());
+            for (ImportedInvoice row : rows) {
+                Invoice invoice = row.invoice();
+                invoice.setId(((Number) invoiceIds.generate(session, invoice, null, EventType.INSERT)).longValue());
+                invoice.setVersion(0L);
+                invoice.setUpdatedAt(now);
+                invoiceIdList.add(invoice.getId());
+            }
+            jdbc.batchUpdate(INVOICE_SQL, rows, rows.size(), (statement, row) -> {
+                Invoice invoice = row.invoice();
+                statement.setLong(1, invoice.getId());
+                statement.setLong(2, invoice.getClient().getId());
+                statement.setString(3, invoice.getInvoiceNumber());
+                statement.setString(4, invoice.getItems());
+                statement.setBigDecimal(5, invoice.getSubtotal());
+                statement.setBigDecimal(6, invoice.getCgst());
+                statement.setBigDecimal(7, invoice.getSgst());
+                statement.setBigDecimal(8, invoice.getIgst());
+                statement.setBigDecimal(9, invoice.getTotal());
+                statement.setBigDecimal(10, invoice.getAmountPaid());
+                statement.setBigDecimal(11, invoice.getBalanceDue());
+                statement.setString(12, invoice.getStatus().name());
+                statement.setDate(13, invoice.getDueDate() != null ? Date.valueOf(invoice.getDueDate()) : null);
+                statement.setTimestamp(14, Timestamp.valueOf(invoice.getCreatedAt()));
+                statement.setTimestamp(15, timestamp);
+            });
+            List<Payment> payments = rows.stream().map(ImportedInvoice::payment).filter(Objects::nonNull).toList();
+            List<Long> paymentIds = insert(PAYMENT_SQL, payments, (statement, payment) -> {
+                statement.setLong(1, payment.getInvoice().getId());
+                statement.setBigDecimal(2, payment.getAmount());
+                statement.setString(3, payment.getPaymentMode());
+                statement.setString(4, payment.getTransactionRef());
+                statement.setTimestamp(5, Timestamp.valueOf(payment.getPaymentDate()));
+                statement.setTimestamp(6, timestamp);
+            });
+            
+            for (ImportedInvoice row : rows) {
+                dashboardAggregates.invoiceSaved(null, null, row.invoice());
+                revenueRollup.invoiceCreated(row.invoice());
+            }
+            for (int i = 0; i < payments.size(); i++) {
+                Payment payment = payments.get(i);
+                payment.setId(paymentIds.get(i));
+                payment.setVersion(0L);
+                payment.setUpdatedAt(now);
+                dashboardAggregates.paymentRecorded();
+                revenueRollup.paymentRecorded(payment);
+            }
+            liveUpdates.saved(Tombstone.EntityType.INVOICE, invoiceIdList);
+            if (!paymentIds.isEmpty()) {
+                liveUpdates.saved(Tombstone.EntityType.PAYMENT, paymentIds);
+            }
+        }
+        
+        @Override
+        public void discard(List<ImportedInvoice> rows) {
+            // Ids already drawn from the sequence are simply skipped
+            rows.forEach(row -> row.invoice().setId(null));
+        }
+    }
+    
+    // --- field parsing ---
+    
+    // Header names match ignoring case, spaces, '_' and '-': "GST Number", "gst_number" and "gstNumber" are one column
+    private record Columns(Map<String, Integer> index) {
+        static Columns of(List<String> header) {
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                index.putIfAbsent(normalize(header.get(i)), i);
+            }
+            return new Columns(index);
+        }
+        
+        // Callers name columns in camel case, so lower-casing is all a lookup needs
+        boolean has(String name) {
+            return index.containsKey(name.toLowerCase(Locale.ROOT));
+        }
+        
+        /** Trimmed value of the first of the named columns present in the file; null when blank. */
+        String get(CsvRow row, String... names) {
+            for (String name : names) {
+                Integer column = index.get(name.toLowerCase(Locale.ROOT));
+                if (column != null) {
+                    if (column >= row.fields().size()) {
+                        return null;
+                    }
+                    String value = row.fields().get(column).trim();
+                    return value.isEmpty() ? null : value;
+                }
+            }
+            return null;
+        }
+        
+        private static String normalize(String name) {
+            return HEADER_NOISE.matcher(name).replaceAll("").toLowerCase(Locale.ROOT);
+        }
+    }
+    
+    private static String text(String value, String column, int maxLength, boolean required) {
+        if (value == null) {
+            if (required) {
+                throw new Rejected(column + " is required");
+            }
+            return null;
+        }
+        if (value.length() > maxLength) {
+            throw new Rejected(column + " is longer than " + maxLength + " characters");
+        }
+        return value;
+    }
+    
+    private static String email(String value) {
+        if (value != null && !EMAIL.matcher(value).matches()) {
+            throw new Rejected("email " + value + " is not a valid address");
+        }
+        return value;
+    }
+    
+    private static String gstin(String value) {
+        String gstin = Gstin.normalize(value);
+        if (gstin != null) {
+            String problem = Gstin.problem(gstin);
+            if (problem != null) {
+                throw new Rejected(problem);
+            }
+        }
+        return gstin;
+    }
+    
+    // Digit grouping ("1,23,456.50") is accepted; at most two decimals and what a NUMERIC(12,2) column holds
+    private static BigDecimal amount(String value, String column, boolean required) {
+        if (value == null) {
+            if (required) {
+                throw new Rejected(column + " is required");
+            }
+            return null;
+        }
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(value.replace(",", ""));
+        } catch (NumberFormatException e) {
+            throw new Rejected(column + " " + value + " is not a number");
+        }
+        if (amount.signum() < 0) {
+            throw new Rejected(column + " " + value + " is negative");
+        }
+        if (amount.stripTrailingZeros().scale() > 2 || amount.precision() - amount.scale() > 10) {
+            throw new Rejected(column + " " + value + " is not an amount in rupees and paise");
+        }
+        return amount.setScale(2);
+    }
+    
+    private static LocalDate date(String value, String column, boolean required) {
+        if (value == null) {
+            if (required) {
+                throw new Rejected(column + " is required");
+            }
+            return null;
+        }
+        try {
+            return value.indexOf('/') >= 0 ? LocalDate.parse(value, DAY_FIRST) : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new Rejected(column + " " + value + " is not a date (yyyy-MM-dd or dd/MM/yyyy)");
+        }
+    }
+    
+    private static boolean flag(String value, String column) {
+        if (value == null) {
+            return false;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "yes", "y", "1" -> true;
+            case "false", "no", "n", "0" -> false;
+            default -> throw new Rejected(column + " " + value + " is not true or false");
+        };
+    }
+}
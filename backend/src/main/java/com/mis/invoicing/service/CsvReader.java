@@ -0,0 +1,105 @@
+package com.mis.invoicing.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 reader. Records are read one at a time and only the current
+ * one is held in memory; quoted fields may contain commas, doubled quotes and line
+ * breaks. Blank lines are skipped and a leading byte order mark is dropped.
+ */
+final class CsvReader implements Closeable {
+    // An unterminated quote would otherwise swallow the rest of the file into one field
+    private static final int MAX_RECORD_CHARS = 1 << 20;
+    
+    private final BufferedReader in;
+    private long line = 1;
+    private long recordLine;
+    
+    CsvReader(Reader reader) throws IOException {
+        this.in = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        in.mark(1);
+        if (in.read() != '\uFEFF') {
+            in.reset();
+        }
+    }
+    
+    /** The next record, or null at the end of the input. */
+    List<String> next() throws IOException {
+        List<String> record;
+        do {
+            record = read();
+        } while (record != null && record.size() == 1 && record.get(0).isEmpty());
+        return record;
+    }
+    
+    /** Line of the file on which the record last returned by {@link #next()} starts. */
+    long line() {
+        return recordLine;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+    
+    private List<String> read() throws IOException {
+        int c = in.read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = 0;
+        while (true) {
+            if (c == -1) {
+                if (quoted) {
+                    throw new IOException("Line " + recordLine + ": quoted field is never closed");
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            if (++length > MAX_RECORD_CHARS) {
+                throw new IOException("Line " + recordLine + ": record is longer than " + MAX_RECORD_CHARS + " characters");
+            }
+            if (quoted) {
+                if (c == '"') {
+                    c = in.read();
+                    if (c != '"') {
+                        // Closing quote; whatever follows is handled as unquoted input
+                        quoted = false;
+                        continue;
+                    }
+                }
+                if (c == '\n') {
+                    line++;
+                }
+                field.append((char) c);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n') {
+                line++;
+                if (c == '\r') {
+                    in.mark(1);
+                    if (in.read() != '\n') {
+                        in.reset();
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = in.read();
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package com.mis.invoicing.service;
+
+import com.mis.invoicing.dto.InvoiceRow;
+import com.mis.invoicing.model.Client;
+import com.mis.invoicing.model.Invoice;
+import com.mis.invoicing.repository.ClientRepository;
+import com.mis.invoicing.repository.EstimateRepository;
+import com.mis.invoicing.repository.InvoiceRepository;
+import com.mis.invoicing.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory dashboard counters kept up to date by the write paths, so the stats
+ * endpoint never scans tables. Deltas are applied only after the surrounding
+ * transaction commits; a scheduled reconciliation rebuilds everything from SQL
+ * and logs any drift it finds.
+ * <p>
+ * A write holds the shared side of {@link #rebuildLock} from just before its commit
+ * until its deltas are applied, and a rebuild takes the exclusive side around its
+ * queries. Every committed change is therefore either visible to the rebuild's
+ * queries with its deltas already applied, or committed after the rebuild finished;
+ * none is counted twice or lost by the reset.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DashboardAggregates {
+    private static final int RECENT_SIZE = 5;
+    private static final long REBUILD_POLL_MILLIS = 5;
+    
+    private final ClientRepository clientRepository;
+    private final EstimateRepository estimateRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final PaymentRepository paymentRepository;
+    private final BillingMetrics billingMetrics;
+    
+    private final AtomicLong clients = new AtomicLong();
+    private final AtomicLong estimates = new AtomicLong();
+    private final AtomicLong invoices = new AtomicLong();
+    private final AtomicLong payments = new AtomicLong();
+    private final Map<Invoice.InvoiceStatus, AtomicLong> invoicesByStatus = new EnumMap<>(Invoice.InvoiceStatus.class);
+    // Amounts are tracked in paise so they can be updated lock-free
+    private final AtomicLong paidPaise = new AtomicLong();
+    private final AtomicLong pendingPaise = new AtomicLong();
+    
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    
+    private final RecentItems<Client> recentClients = new RecentItems<>(RECENT_SIZE, Client::getId);
+    private final RecentItems<InvoiceRow> recentInvoices = new RecentItems<>(RECENT_SIZE, InvoiceRow::getId);
+    
+    {
+        for (Invoice.InvoiceStatus status : Invoice.InvoiceStatus.values()) {
+            invoicesByStatus.put(status, new AtomicLong());
+        }
+    }
+    
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalClients", clients.get());
+        stats.put("totalEstimates", estimates.get());
+        stats.put("totalInvoices", invoices.get());
+        stats.put("totalPayments", payments.get());
+        stats.put("pendingInvoices", invoicesByStatus.get(Invoice.InvoiceStatus.PENDING).get());
+        stats.put("paidInvoices", invoicesByStatus.get(Invoice.InvoiceStatus.PAID).get());
+        stats.put("overdueInvoices", invoicesByStatus.get(Invoice.InvoiceStatus.OVERDUE).get());
+        stats.put("totalPaidAmount", BigDecimal.valueOf(paidPaise.get(), 2));
+        stats.put("totalPendingAmount", BigDecimal.valueOf(pendingPaise.get(), 2));
+        stats.put("recentClients", recentClients.newestFirst());
+        stats.put("recentInvoices", recentInvoices.newestFirst());
+        return stats;
+    }
+    
+    public long invoiceCount() {
+        return invoices.get();
+    }
+    
+    // --- write-path hooks ---
+    
+    public void clientSaved(Client client, boolean created) {
+        afterCommit(() -> {
+            if (created) {
+                clients.incrementAndGet();
+                recentClients.push(client);
+            } else {
+                recentClients.replace(client);
+            }
+        });
+    }
+    
+    public void clientDeleted(Long clientId) {
+        afterCommit(() -> {
+            clients.decrementAndGet();
+            recentClients.remove(clientId);
+        });
+    }
+    
+    public void estimateCreated() {
+        afterCommit(estimates::incrementAndGet);
+    }
+    
+    public void estimateDeleted() {
+        afterCommit(estimates::decrementAndGet);
+    }
+    
+    public void paymentRecorded() {
+        afterCommit(payments::incrementAndGet);
+    }
+    
+    public void paymentDeleted() {
+        afterCommit(payments::decrementAndGet);
+    }
+    
+    /**
+     * @param previousStatus status before the change, or null if the invoice was just created
+     * @param previousTotal  total before the change, ignored when {@code previousStatus} is null
+     */
+    public void invoiceSaved(Invoice.InvoiceStatus previousStatus, BigDecimal previousTotal, Invoice invoice) {
+        // New invoices come with their client loaded; updates reuse the name already in the ring
+        String clientName = previousStatus == null ? invoice.getClient().getName() : null;
+        afterCommit(() -> {
+            if (previousStatus == null) {
+                invoices.incrementAndGet();
+                recentInvoices.push(InvoiceRow.of(invoice, clientName));
+            } else {
+                applyInvoice(previousStatus, previousTotal, -1);
+                recentInvoices.update(invoice.getId(), row -> InvoiceRow.of(invoice, row.getClientName()));
+            }
+            applyInvoice(invoice.getStatus(), invoice.getTotal(), 1);
+        });
+    }
+    
+    /** Bulk status change applied directly in SQL, bypassing the entity write paths. */
+    public void invoicesTransitioned(Invoice.InvoiceStatus from, Invoice.InvoiceStatus to, int count, BigDecimal total) {
+        afterCommit(() -> {
+            invoicesByStatus.get(from).addAndGet(-count);
+            invoicesByStatus.get(to).addAndGet(count);
+            long paise = toPaise(total);
+            adjustAmount(from, -paise);
+            adjustAmount(to, paise);
+        });
+    }
+    
+    public void invoiceDeleted(Invoice invoice) {
+        afterCommit(() -> {
+            invoices.decrementAndGet();
+            applyInvoice(invoice.getStatus(), invoice.getTotal(), -1);
+            recentInvoices.remove(invoice.getId());
+        });
+    }
+    
+    /**
+     * {@link AfterCommit#run} that also holds off a concurrent rebuild from the
+     * moment the transaction starts committing until its deltas have been applied.
+     * Write paths must call it inside their transaction: a change that is already
+     * committed could be counted by a rebuild and then again by its delta.
+     */
+    private void afterCommit(Runnable delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Dashboard deltas must be registered inside the write's transaction");
+        }
+        Lock shared = rebuildLock.readLock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean locked;
+            
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                shared.lock();
+                locked = true;
+            }
+            
+            @Override
+            public void afterCommit() {
+                delta.run();
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                if (locked) {
+                    locked = false;
+                    shared.unlock();
+                }
+            }
+        });
+    }
+    
+    private void applyInvoice(Invoice.InvoiceStatus status, BigDecimal total, int sign) {
+        if (status == null) {
+            return;
+        }
+        invoicesByStatus.get(status).addAndGet(sign);
+        adjustAmount(status, toPaise(total) * sign);
+    }
+    
+    private void adjustAmount(Invoice.InvoiceStatus status, long paise) {
+        if (status == Invoice.InvoiceStatus.PAID) {
+            paidPaise.addAndGet(paise);
+        } else if (status == Invoice.InvoiceStatus.PENDING) {
+            pendingPaise.addAndGet(paise);
+        }
+    }
+    
+    // --- rebuild from SQL ---
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild(false);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.dashboard.reconcile-interval:900000}",
+               initialDelayString = "${app.dashboard.reconcile-interval:900000}")
+    public void reconcile() {
+        rebuild(true);
+    }
+    
+    private void rebuild(boolean checkDrift) {
+        // Writers wait at commit while this runs, so it is a handful of count queries and nothing more.
+        // Polled rather than queued: a queued writer would block new readers, and a committing
+        // transaction stuck behind it may hold row locks another one holding the read lock needs.
+        Lock exclusive = rebuildLock.writeLock();
+        while (!exclusive.tryLock()) {
+            try {
+                Thread.sleep(REBUILD_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Dashboard rebuild interrupted while waiting for in-flight commits");
+                return;
+            }
+        }
+        try {
+            rebuildCounters(checkDrift);
+        } finally {
+            exclusive.unlock();
+        }
+    }
+    
+    private void rebuildCounters(boolean checkDrift) {
+        int drift = 0;
+        drift += reset("totalClients", clients, clientRepository.count(), checkDrift);
+        drift += reset("totalEstimates", estimates, estimateRepository.count(), checkDrift);
+        drift += reset("totalInvoices", invoices, invoiceRepository.count(), checkDrift);
+        drift += reset("totalPayments", payments, paymentRepository.count(), checkDrift);
+        for (Invoice.InvoiceStatus status : Invoice.InvoiceStatus.values()) {
+            drift += reset("invoices[" + status + "]", invoicesByStatus.get(status),
+                    invoiceRepository.countByStatus(status), checkDrift);
+        }
+        drift += reset("totalPaidAmount", paidPaise, toPaise(invoiceRepository.getTotalPaidAmount()), checkDrift);
+        drift += reset("totalPendingAmount", pendingPaise, toPaise(invoiceRepository.getTotalPendingAmount()), checkDrift);
+        
+        recentClients.reset(clientRepository.findTop5ByOrderByIdDesc());
+        recentInvoices.reset(invoiceRepository.findPage(null, null, null, null, null, PageRequest.of(0, RECENT_SIZE)));
+        
+        if (drift > 0) {
+            billingMetrics.dashboardDrift(drift);
+            log.warn("Dashboard aggregates reconciled with {} drifted counter(s)", drift);
+        }
+    }
+    
+    private static int reset(String name, AtomicLong counter, long actual, boolean checkDrift) {
+        long tracked = counter.getAndSet(actual);
+        if (checkDrift && tracked != actual) {
+            log.warn("Dashboard counter {} drifted: tracked={} actual={}", name, tracked, actual);
+            return 1;
+        }
+        return 0;
+    }
+    
+    private static long toPaise(BigDecimal amount) {
+        return amount != null ? amount.movePointRight(2).longValue() : 0L;
+    }
+    
+    /**
+     * Fixed-size ring of the newest items, de-duplicated by id. Guarded by a
+     * ReentrantLock rather than a monitor: writers run on request threads right after
+     * commit, and a contended monitor would pin them when those are virtual threads.
+     */
+    static final class RecentItems<T> {
+        private final Object[] ring;
+        private final Function<T, Long> idOf;
+        private final ReentrantLock lock = new ReentrantLock();
+        private int head; // next write slot
+        private int size;
+        
+        RecentItems(int capacity, Function<T, Long> idOf) {
+            this.ring = new Object[capacity];
+            this.idOf = idOf;
+        }
+        
+        void push(T item) {
+            lock.lock();
+            try {
+                remove(idOf.apply(item));
+                ring[head] = item;
+                head = (head + 1) % ring.length;
+                size = Math.min(size + 1, ring.length);
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        void replace(T item) {
+            lock.lock();
+            try {
+                int slot = indexOf(idOf.apply(item));
+                if (slot >= 0) {
+                    ring[slot] = item;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        @SuppressWarnings("unchecked")
+        void update(Long id, UnaryOperator<T> change) {
+            lock.lock();
+            try {
+                int slot = indexOf(id);
+                if (slot >= 0) {
+                    ring[slot] = change.apply((T) ring[slot]);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        void remove(Long id) {
+            lock.lock();
+            try {
+                int slot = indexOf(id);
+                if (slot < 0) {
+                    return;
+                }
+                // Shift newer entries back over the removed slot to keep the ring contiguous
+                int last = (head - 1 + ring.length) % ring.length;
+                for (int i = slot; i != last; i = (i + 1) % ring.length) {
+                    ring[i] = ring[(i + 1) % ring.length];
+                }
+                ring[last] = null;
+                head = last;
+                size--;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        void reset(List<T> newestFirst) {
+            lock.lock();
+            try {
+                Arrays.fill(ring, null);
+                head = 0;
+                size = 0;
+                for (int i = Math.min(newestFirst.size(), ring.length) - 1; i >= 0; i--) {
+                    push(newestFirst.get(i));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        @SuppressWarnings("unchecked")
+        List<T> newestFirst() {
+            lock.lock();
+            try {
+                List<T> items = new ArrayList<>(size);
+                for (int i = 1; i <= size; i++) {
+                    items.add((T) ring[(head - i + ring.length) % ring.length]);
+                }
+                return items;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        @SuppressWarnings("unchecked")
+        private int indexOf(Long id) {
+            for (int i = 1; i <= size; i++) {
+                int slot = (head - i + ring.length) % ring.length;
+                if (idOf.apply((T) ring[slot]).equals(id)) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+    }
+}
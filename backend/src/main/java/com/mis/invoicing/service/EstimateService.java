@@ -1,63 +1,139 @@
 package com.mis.invoicing.service;
 
+import com.mis.invoicing.dto.CursorPage;
+import com.mis.invoicing.dto.EstimateRow;
 import com.mis.invoicing.model.Client;
 import com.mis.invoicing.model.Estimate;
 import com.mis.invoicing.model.Invoice;
+import com.mis.invoicing.model.Job;
+import com.mis.invoicing.model.LineItem;
+import com.mis.invoicing.model.Tombstone;
 import com.mis.invoicing.repository.ClientRepository;
 import com.mis.invoicing.repository.EstimateRepository;
 import com.mis.invoicing.repository.InvoiceRepository;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
-public class EstimateService {
+public class EstimateService implements JobHandler {
+    private static final int CONVERSION_CHUNK_SIZE = 100;
+    
     private final EstimateRepository estimateRepository;
     private final InvoiceRepository invoiceRepository;
     private final ClientRepository clientRepository;
+    private final DashboardAggregates dashboardAggregates;
+    private final RevenueRollup revenueRollup;
+    private final NumberAllocator numberAllocator;
+    private final BillingMetrics billingMetrics;
+    private final ChangeFeed changeFeed;
+    private final LiveUpdates liveUpdates;
+    private final TransactionTemplate createTx;
+    private final TransactionTemplate conversionTx;
+    
+    public EstimateService(EstimateRepository estimateRepository,
+                           InvoiceRepository invoiceRepository,
+                           ClientRepository clientRepository,
+                           DashboardAggregates dashboardAggregates,
+                           RevenueRollup revenueRollup,
+                           NumberAllocator numberAllocator,
+                           BillingMetrics billingMetrics,
+                           ChangeFeed changeFeed,
+                           LiveUpdates liveUpdates,
+                           PlatformTransactionManager transactionManager) {
+        this.estimateRepository = estimateRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.clientRepository = clientRepository;
+        this.dashboardAggregates = dashboardAggregates;
+        this.revenueRollup = revenueRollup;
+        this.numberAllocator = numberAllocator;
+        this.billingMetrics = billingMetrics;
+        this.changeFeed = changeFeed;
+        this.liveUpdates = liveUpdates;
+        this.createTx = new TransactionTemplate(transactionManager);
+        this.conversionTx = new TransactionTemplate(transactionManager);
+    }
     
-    private static final BigDecimal GST_RATE = new BigDecimal("0.18"); // 18% GST
+    public List<EstimateRow> getAllEstimates() {
+        return estimateRepository.findPage(null, null, null, null, null, Pageable.unpaged());
+    }
     
-    public List<Estimate> getAllEstimates() {
-        return estimateRepository.findAll();
+    public CursorPage<EstimateRow> getEstimatePage(String cursor, Integer limit, Estimate.EstimateStatus status,
+                                                Long clientId, LocalDate from, LocalDate to) {
+        int pageSize = CursorPage.clampLimit(limit);
+        LocalDateTime fromTime = from != null ? from.atStartOfDay() : null;
+        LocalDateTime toTime = to != null ? to.plusDays(1).atStartOfDay() : null;
+        List<EstimateRow> rows = estimateRepository.findPage(CursorPage.decodeCursor(cursor), status, clientId,
+                fromTime, toTime, CursorPage.probe(pageSize));
+        return CursorPage.of(rows, pageSize, EstimateRow::getId);
     }
     
     public Optional<Estimate> getEstimateById(@NonNull Long id) {
-        return estimateRepository.findById(id);
+        return estimateRepository.findDetailedById(id);
     }
     
-    public List<Estimate> getEstimatesByClientId(Long clientId) {
-        return estimateRepository.findByClientId(clientId);
+    public List<EstimateRow> getEstimatesByClientId(Long clientId) {
+        return estimateRepository.findPage(null, null, clientId, null, null, Pageable.unpaged());
     }
     
     public Estimate createEstimate(@NonNull Long clientId, Estimate estimate) {
-        Client client = clientRepository.findById(clientId)
-                .orElseThrow(() -> new RuntimeException("Client not found with id: " + clientId));
-        
-        estimate.setClient(client);
-        calculateGst(estimate);
-        return estimateRepository.save(estimate);
+        // Numbered outside the transaction, for the same reason as invoices
+        if (estimate.getEstimateNumber() == null) {
+            estimate.setEstimateNumber(numberAllocator.nextEstimateNumber());
+        }
+        return createTx.execute(status -> {
+            Client client = clientRepository.findById(clientId)
+                    .orElseThrow(() -> new RuntimeException("Client not found with id: " + clientId));
+            
+            estimate.setClient(client);
+            attachLines(estimate, estimate.getLineItems());
+            GstCalculator.apply(estimate);
+            Estimate saved = estimateRepository.save(estimate);
+            dashboardAggregates.estimateCreated();
+            liveUpdates.saved(Tombstone.EntityType.ESTIMATE, saved.getId());
+            return saved;
+        });
     }
     
+    @Transactional
     public Estimate updateEstimate(@NonNull Long id, Estimate estimateDetails) {
-        Estimate estimate = estimateRepository.findById(id)
+        Estimate estimate = estimateRepository.findDetailedById(id)
                 .orElseThrow(() -> new RuntimeException("Estimate not found with id: " + id));
         
         estimate.setItems(estimateDetails.getItems());
         estimate.setSubtotal(estimateDetails.getSubtotal());
-        calculateGst(estimate);
+        attachLines(estimate, estimateDetails.getLineItems());
+        GstCalculator.apply(estimate);
         estimate.setStatus(estimateDetails.getStatus());
         
-        return estimateRepository.save(estimate);
+        Estimate saved = estimateRepository.save(estimate);
+        liveUpdates.saved(Tombstone.EntityType.ESTIMATE, saved.getId());
+        return saved;
     }
     
+    // One transaction: the estimate is only CONVERTED if its invoice is saved too.
+    // The number is taken before it opens, like a new invoice's.
     public Invoice convertToInvoice(@NonNull Long estimateId) {
-        Estimate estimate = estimateRepository.findById(estimateId)
+        return billingMetrics.convertEstimate(() -> {
+            String invoiceNumber = numberAllocator.nextInvoiceNumber();
+            return conversionTx.execute(status -> convert(estimateId, invoiceNumber));
+        });
+    }
+    
+    private Invoice convert(Long estimateId, String invoiceNumber) {
+        Estimate estimate = estimateRepository.findDetailedById(estimateId)
                 .orElseThrow(() -> new RuntimeException("Estimate not found with id: " + estimateId));
         
         if (estimate.getStatus() != Estimate.EstimateStatus.APPROVED) {
@@ -67,31 +143,88 @@ public class EstimateService {
         Invoice invoice = new Invoice();
         invoice.setClient(estimate.getClient());
         invoice.setEstimate(estimate);
+        invoice.setInvoiceNumber(invoiceNumber);
         invoice.setItems(estimate.getItems());
         invoice.setSubtotal(estimate.getSubtotal());
-        
-        // Split GST into CGST and SGST (9% each for intra-state)
-        BigDecimal halfGst = estimate.getGstAmount().divide(new BigDecimal("2"), 2, RoundingMode.HALF_UP);
-        invoice.setCgst(halfGst);
-        invoice.setSgst(halfGst);
-        invoice.setIgst(BigDecimal.ZERO);
-        invoice.setTotal(estimate.getTotal());
+        InvoiceService.attachLines(invoice, estimate.getLineItems().stream().map(LineItem::copy).toList());
+        invoice.setAmountPaid(BigDecimal.ZERO);
+        // Same rules as the estimate, so the quoted GST and total carry over; split as CGST + SGST (intra-state)
+        GstCalculator.apply(invoice, false);
         
         estimate.setStatus(Estimate.EstimateStatus.CONVERTED);
         estimateRepository.save(estimate);
+        liveUpdates.saved(Tombstone.EntityType.ESTIMATE, estimate.getId());
         
-        return invoiceRepository.save(invoice);
+        Invoice saved = invoiceRepository.save(invoice);
+        dashboardAggregates.invoiceSaved(null, null, saved);
+        liveUpdates.saved(Tombstone.EntityType.INVOICE, saved.getId());
+        revenueRollup.invoiceCreated(saved);
+        return saved;
+    }
+    
+    @Override
+    public Job.JobType type() {
+        return Job.JobType.ESTIMATE_CONVERSION;
+    }
+    
+    /**
+     * Converts every approved estimate (optionally of one client) to an invoice. Each
+     * estimate converts in its own transaction, so one that cannot be converted is
+     * counted as failed and skipped without undoing the rest of its chunk; the chunk's
+     * checkpoint is committed afterwards. Converted estimates leave the APPROVED set,
+     * so a run resumed after a crash between the two never converts one twice.
+     */
+    @Override
+    public Map<String, Long> run(JobContext job) {
+        Long clientId = job.param("clientId") != null ? Long.valueOf(job.param("clientId")) : null;
+        job.total(job.processed() + estimateRepository.countByStatus(Estimate.EstimateStatus.APPROVED, clientId));
+        List<Long> ids;
+        do {
+            job.checkCancelled();
+            Long afterId = job.checkpoint() != null ? Long.valueOf(job.checkpoint()) : null;
+            ids = estimateRepository.findIdsByStatus(Estimate.EstimateStatus.APPROVED, clientId, afterId,
+                    PageRequest.of(0, CONVERSION_CHUNK_SIZE));
+            int failed = 0;
+            for (Long id : ids) {
+                try {
+                    convertToInvoice(id);
+                } catch (RuntimeException e) {
+                    // e.g. converted or edited by someone else since the chunk was read
+                    log.warn("Could not convert estimate {}: {}", id, e.getMessage());
+                    failed++;
+                }
+            }
+            if (!ids.isEmpty()) {
+                String checkpoint = ids.get(ids.size() - 1).toString();
+                int processed = ids.size();
+                int skipped = failed;
+                job.inTransaction(status -> {
+                    job.advance(checkpoint, processed, skipped);
+                    return null;
+                });
+            }
+        } while (ids.size() == CONVERSION_CHUNK_SIZE);
+        return Map.of("converted", job.processed() - job.failed(), "failed", job.failed());
     }
     
+    @Transactional
     public void deleteEstimate(@NonNull Long id) {
-        estimateRepository.deleteById(id);
+        estimateRepository.findById(id).ifPresent(estimate -> {
+            estimateRepository.delete(estimate);
+            changeFeed.deleted(Tombstone.EntityType.ESTIMATE, id);
+            dashboardAggregates.estimateDeleted();
+            liveUpdates.deleted(Tombstone.EntityType.ESTIMATE, id);
+        });
     }
     
-    private void calculateGst(Estimate estimate) {
-        if (estimate.getSubtotal() != null) {
-            BigDecimal gstAmount = estimate.getSubtotal().multiply(GST_RATE).setScale(2, RoundingMode.HALF_UP);
-            estimate.setGstAmount(gstAmount);
-            estimate.setTotal(estimate.getSubtotal().add(gstAmount));
+    static void attachLines(Estimate estimate, List<LineItem> lines) {
+        List<LineItem> incoming = lines != null ? List.copyOf(lines) : List.of();
+        estimate.getLineItems().clear();
+        for (LineItem line : incoming) {
+            line.setId(null);
+            line.setEstimate(estimate);
+            line.setInvoice(null);
+            estimate.getLineItems().add(line);
         }
     }
 }
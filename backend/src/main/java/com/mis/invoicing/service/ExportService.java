@@ -0,0 +1,159 @@
+package com.mis.invoicing.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mis.invoicing.model.Invoice;
+import com.mis.invoicing.model.Payment;
+import com.mis.invoicing.repository.InvoiceRepository;
+import com.mis.invoicing.repository.PaymentRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+    private final InvoiceRepository invoiceRepository;
+    private final PaymentRepository paymentRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    
+    // Rows held in the persistence context before it is cleared
+    private static final int CLEAR_INTERVAL = 500;
+    
+    private static final String INVOICE_CSV_HEADER =
+            "id,invoiceNumber,clientId,clientName,clientGstNumber,subtotal,cgst,sgst,igst,total,status,dueDate,createdAt";
+    private static final String PAYMENT_CSV_HEADER =
+            "id,invoiceId,invoiceNumber,clientName,amount,paymentMode,transactionRef,paymentDate";
+    
+    public enum Format {
+        NDJSON, CSV
+    }
+    
+    @Transactional(readOnly = true)
+    public void exportInvoices(Format format, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        try (Stream<Invoice> rows = invoiceRepository.streamForExport(startOf(from), endOf(to))) {
+            write(rows, format, INVOICE_CSV_HEADER, this::toCsv, this::fetchLineItems, out);
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public void exportPayments(Format format, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        try (Stream<Payment> rows = paymentRepository.streamForExport(startOf(from), endOf(to))) {
+            write(rows, format, PAYMENT_CSV_HEADER, this::toCsv, block -> { }, out);
+        }
+    }
+    
+    // Rows are written a block at a time so a JSON block's associations can be loaded
+    // in one query before it is serialized, and the context cleared after it
+    private <T> void write(Stream<T> rows, Format format, String csvHeader, Function<T, String> csvLine,
+                           Consumer<List<T>> jsonBlock, OutputStream target) throws IOException {
+        BufferedOutputStream out = new BufferedOutputStream(target, 64 * 1024);
+        ObjectWriter json = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (format == Format.CSV) {
+            writeLine(out, csvHeader);
+        }
+        
+        List<T> block = new ArrayList<>(CLEAR_INTERVAL);
+        Iterator<T> it = rows.iterator();
+        while (it.hasNext()) {
+            block.add(it.next());
+            if (block.size() < CLEAR_INTERVAL && it.hasNext()) {
+                continue;
+            }
+            if (format == Format.CSV) {
+                block.forEach(row -> writeLine(out, csvLine.apply(row)));
+            } else {
+                jsonBlock.accept(block);
+                for (T row : block) {
+                    json.writeValue(out, row);
+                    out.write('\n');
+                }
+            }
+            block.clear();
+            entityManager.clear();
+            out.flush();
+        }
+        out.flush();
+    }
+    
+    // The cursor cannot fetch a collection, so a block's lines come in one IN query that
+    // initializes them on the invoices already in the persistence context
+    private void fetchLineItems(List<Invoice> block) {
+        invoiceRepository.findForRendering(block.stream().map(Invoice::getId).toList());
+    }
+    
+    private String toCsv(Invoice invoice) {
+        return String.join(",",
+                csv(invoice.getId()),
+                csv(invoice.getInvoiceNumber()),
+                csv(invoice.getClient().getId()),
+                csv(invoice.getClient().getName()),
+                csv(invoice.getClient().getGstNumber()),
+                csv(invoice.getSubtotal()),
+                csv(invoice.getCgst()),
+                csv(invoice.getSgst()),
+                csv(invoice.getIgst()),
+                csv(invoice.getTotal()),
+                csv(invoice.getStatus()),
+                csv(invoice.getDueDate()),
+                csv(invoice.getCreatedAt()));
+    }
+    
+    private String toCsv(Payment payment) {
+        Invoice invoice = payment.getInvoice();
+        return String.join(",",
+                csv(payment.getId()),
+                csv(invoice.getId()),
+                csv(invoice.getInvoiceNumber()),
+                csv(invoice.getClient().getName()),
+                csv(payment.getAmount()),
+                csv(payment.getPaymentMode()),
+                csv(payment.getTransactionRef()),
+                csv(payment.getPaymentDate()));
+    }
+    
+    private static void writeLine(OutputStream out, String line) {
+        try {
+            out.write(line.getBytes(StandardCharsets.UTF_8));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+    
+    private static LocalDateTime startOf(LocalDate date) {
+        return date != null ? date.atStartOfDay() : null;
+    }
+    
+    private static LocalDateTime endOf(LocalDate date) {
+        return date != null ? date.plusDays(1).atStartOfDay() : null;
+    }
+}
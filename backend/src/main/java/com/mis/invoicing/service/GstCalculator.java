@@ -0,0 +1,349 @@
+package com.mis.invoicing.service;
+
+import com.mis.invoicing.model.Estimate;
+import com.mis.invoicing.model.Invoice;
+import com.mis.invoicing.model.LineItem;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * GST arithmetic for invoices, estimates and their line items, done in {@code long}
+ * paise with rates in basis points (1800 = 18%). Every step rounds half-up exactly
+ * like the BigDecimal formulas it replaces:
+ * <ul>
+ *   <li>line value = quantity × unit price, and line tax = value × rate, each rounded to paise</li>
+ *   <li>without lines, GST = subtotal × 18%</li>
+ *   <li>intra-state CGST and SGST are each the GST halved and rounded, inter-state IGST is the GST</li>
+ * </ul>
+ * Inputs with more decimals than a column holds (2, or 3 for quantities) or values
+ * that would overflow a long are computed with BigDecimal instead, so results never
+ * differ from that path, down to the scale of each amount.
+ */
+public final class GstCalculator {
+    public static final int DEFAULT_RATE_BP = 1800;
+    private static final int[] SLABS_BP = {0, 500, 1200, 1800, 2800};
+    private static final BigDecimal[] SLABS = Arrays.stream(SLABS_BP)
+            .mapToObj(rateBp -> BigDecimal.valueOf(rateBp, 2)).toArray(BigDecimal[]::new);
+    private static final BigDecimal DEFAULT_RATE = new BigDecimal("18");
+    private static final BigDecimal FLAT_RATE = new BigDecimal("0.18");
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+    private static final BigDecimal TWO = new BigDecimal("2");
+
+    private GstCalculator() {
+    }
+
+    // --- primitives ---
+
+    /** {@code dividend / divisor} rounded half away from zero; {@code divisor} must be positive. */
+    public static long roundDiv(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += Long.signum(dividend);
+        }
+        return quotient;
+    }
+
+    /** GST in paise on {@code taxablePaise} at {@code rateBp} basis points. */
+    public static long tax(long taxablePaise, int rateBp) {
+        return roundDiv(Math.multiplyExact(taxablePaise, rateBp), 10_000);
+    }
+
+    /** The CGST (and equally SGST) share of an intra-state GST amount. */
+    public static long half(long gstPaise) {
+        return roundDiv(gstPaise, 2);
+    }
+
+    /** Line value in paise for a quantity in thousandths and a unit price in paise. */
+    public static long lineValue(long quantityMilli, long unitPricePaise) {
+        return roundDiv(Math.multiplyExact(quantityMilli, unitPricePaise), 1000);
+    }
+
+    public static boolean isSlab(int rateBp) {
+        return Arrays.binarySearch(SLABS_BP, rateBp) >= 0;
+    }
+
+    // --- documents ---
+
+    public static void apply(Invoice invoice, boolean isInterState) {
+        List<LineItem> lines = invoice.getLineItems();
+        if (lines.isEmpty() && invoice.getSubtotal() == null) {
+            return;
+        }
+        validate(lines);
+        try {
+            applyFixed(invoice, isInterState);
+        } catch (ArithmeticException e) {
+            applyDecimal(invoice, isInterState);
+        }
+    }
+
+    public static void apply(Estimate estimate) {
+        List<LineItem> lines = estimate.getLineItems();
+        if (lines.isEmpty() && estimate.getSubtotal() == null) {
+            return;
+        }
+        validate(lines);
+        try {
+            applyFixed(estimate);
+        } catch (ArithmeticException e) {
+            applyDecimal(estimate);
+        }
+    }
+
+    private static void applyFixed(Invoice invoice, boolean isInterState) {
+        List<LineItem> lines = invoice.getLineItems();
+        long subtotal;
+        long gst;
+        if (!lines.isEmpty()) {
+            Totals totals = priceLines(lines);
+            subtotal = totals.subtotal();
+            gst = totals.gst();
+            invoice.setSubtotal(amount(subtotal));
+        } else {
+            subtotal = fixed(invoice.getSubtotal(), 2);
+            gst = tax(subtotal, DEFAULT_RATE_BP);
+        }
+        long paid = invoice.getAmountPaid() != null ? fixed(invoice.getAmountPaid(), 2) : 0;
+        long total = Math.addExact(subtotal, gst);
+        long balance = Math.subtractExact(total, paid);
+
+        if (isInterState) {
+            invoice.setIgst(amount(gst));
+            invoice.setCgst(BigDecimal.ZERO);
+            invoice.setSgst(BigDecimal.ZERO);
+        } else {
+            BigDecimal half = amount(half(gst));
+            invoice.setCgst(half);
+            invoice.setSgst(half);
+            invoice.setIgst(BigDecimal.ZERO);
+        }
+        invoice.setTotal(amount(total));
+        invoice.setBalanceDue(amount(balance));
+    }
+
+    private static void applyFixed(Estimate estimate) {
+        List<LineItem> lines = estimate.getLineItems();
+        long subtotal;
+        long gst;
+        if (!lines.isEmpty()) {
+            Totals totals = priceLines(lines);
+            subtotal = totals.subtotal();
+            gst = totals.gst();
+            estimate.setSubtotal(amount(subtotal));
+        } else {
+            subtotal = fixed(estimate.getSubtotal(), 2);
+            gst = tax(subtotal, DEFAULT_RATE_BP);
+        }
+        estimate.setGstAmount(amount(gst));
+        estimate.setTotal(amount(Math.addExact(subtotal, gst)));
+    }
+
+    private record Totals(long subtotal, long gst) {
+    }
+
+    private static Totals priceLines(List<LineItem> lines) {
+        long subtotal = 0;
+        long gst = 0;
+        int lineNo = 1;
+        for (LineItem line : lines) {
+            long taxable = lineValue(fixed(line.getQuantity(), 3), fixed(line.getUnitPrice(), 2));
+            long tax = tax(taxable, (int) fixed(line.getGstRate(), 2));
+            line.setLineNo(lineNo++);
+            line.setTaxableValue(amount(taxable));
+            line.setTaxAmount(amount(tax));
+            subtotal = Math.addExact(subtotal, taxable);
+            gst = Math.addExact(gst, tax);
+        }
+        return new Totals(subtotal, gst);
+    }
+
+    // Unscaled value at {@code scale}; throws when the amount has more decimals or doesn't fit a long
+    private static long fixed(BigDecimal amount, int scale) {
+        if (amount.scale() > scale) {
+            throw new ArithmeticException("More than " + scale + " decimals: " + amount);
+        }
+        return amount.movePointRight(scale).longValueExact();
+    }
+
+    private static BigDecimal amount(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    // --- BigDecimal path: the reference behaviour, used when the fixed-point inputs don't fit ---
+
+    static void applyDecimal(Invoice invoice, boolean isInterState) {
+        BigDecimal gstAmount;
+        if (!invoice.getLineItems().isEmpty()) {
+            BigDecimal[] totals = priceLinesDecimal(invoice.getLineItems());
+            invoice.setSubtotal(totals[0]);
+            gstAmount = totals[1];
+        } else {
+            gstAmount = invoice.getSubtotal().multiply(FLAT_RATE).setScale(2, RoundingMode.HALF_UP);
+        }
+
+        if (isInterState) {
+            invoice.setIgst(gstAmount);
+            invoice.setCgst(BigDecimal.ZERO);
+            invoice.setSgst(BigDecimal.ZERO);
+        } else {
+            BigDecimal halfGst = gstAmount.divide(TWO, 2, RoundingMode.HALF_UP);
+            invoice.setCgst(halfGst);
+            invoice.setSgst(halfGst);
+            invoice.setIgst(BigDecimal.ZERO);
+        }
+
+        invoice.setTotal(invoice.getSubtotal().add(gstAmount));
+        BigDecimal paid = invoice.getAmountPaid() != null ? invoice.getAmountPaid() : BigDecimal.ZERO;
+        invoice.setBalanceDue(invoice.getTotal().subtract(paid));
+    }
+
+    static void applyDecimal(Estimate estimate) {
+        if (!estimate.getLineItems().isEmpty()) {
+            BigDecimal[] totals = priceLinesDecimal(estimate.getLineItems());
+            estimate.setSubtotal(totals[0]);
+            estimate.setGstAmount(totals[1]);
+        } else {
+            estimate.setGstAmount(estimate.getSubtotal().multiply(FLAT_RATE).setScale(2, RoundingMode.HALF_UP));
+        }
+        estimate.setTotal(estimate.getSubtotal().add(estimate.getGstAmount()));
+    }
+
+    private static BigDecimal[] priceLinesDecimal(List<LineItem> lines) {
+        BigDecimal subtotal = BigDecimal.ZERO.setScale(2);
+        BigDecimal gst = BigDecimal.ZERO.setScale(2);
+        int lineNo = 1;
+        for (LineItem line : lines) {
+            BigDecimal taxable = line.getQuantity().multiply(line.getUnitPrice()).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal tax = taxable.multiply(line.getGstRate()).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+            line.setLineNo(lineNo++);
+            line.setTaxableValue(taxable);
+            line.setTaxAmount(tax);
+            subtotal = subtotal.add(taxable);
+            gst = gst.add(tax);
+        }
+        return new BigDecimal[]{subtotal, gst};
+    }
+
+    // --- validation ---
+
+    private static void validate(List<LineItem> lines) {
+        int lineNo = 1;
+        for (LineItem line : lines) {
+            if (line.getDescription() == null || line.getDescription().isBlank()) {
+                throw new RuntimeException("Line " + lineNo + ": description is required");
+            }
+            if (line.getQuantity() == null || line.getQuantity().signum() <= 0) {
+                throw new RuntimeException("Line " + lineNo + ": quantity must be positive");
+            }
+            if (line.getUnitPrice() == null || line.getUnitPrice().signum() < 0) {
+                throw new RuntimeException("Line " + lineNo + ": unit price must not be negative");
+            }
+            if (line.getGstRate() == null) {
+                line.setGstRate(DEFAULT_RATE);
+            } else if (!isSlab(line.getGstRate())) {
+                throw new RuntimeException("Line " + lineNo + ": GST rate must be one of 0, 5, 12, 18, 28 but was "
+                        + line.getGstRate());
+            }
+            lineNo++;
+        }
+    }
+
+    private static boolean isSlab(BigDecimal rate) {
+        for (BigDecimal slab : SLABS) {
+            if (slab.compareTo(rate) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Flat-rate GST for many documents at once over primitive arrays, for bulk paths.
+     * Rows are added, {@link #compute()} fills the outputs, and {@link #clear()} makes
+     * the batch reusable; nothing is allocated per row once the arrays have grown.
+     */
+    public static final class Batch {
+        private long[] subtotal;
+        private int[] rateBp;
+        private boolean[] interState;
+        private long[] cgst;
+        private long[] sgst;
+        private long[] igst;
+        private long[] total;
+        private int size;
+
+        public Batch(int capacity) {
+            allocate(Math.max(1, capacity));
+        }
+
+        /** Adds a document and returns its row index. */
+        public int add(long subtotalPaise, int rateBp, boolean isInterState) {
+            if (size == subtotal.length) {
+                allocate(size * 2);
+            }
+            subtotal[size] = subtotalPaise;
+            this.rateBp[size] = rateBp;
+            interState[size] = isInterState;
+            return size++;
+        }
+
+        public void compute() {
+            for (int i = 0; i < size; i++) {
+                long gst = tax(subtotal[i], rateBp[i]);
+                if (interState[i]) {
+                    igst[i] = gst;
+                    cgst[i] = 0;
+                    sgst[i] = 0;
+                } else {
+                    long half = half(gst);
+                    cgst[i] = half;
+                    sgst[i] = half;
+                    igst[i] = 0;
+                }
+                total[i] = Math.addExact(subtotal[i], gst);
+            }
+        }
+
+        public void clear() {
+            size = 0;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long cgst(int row) {
+            return cgst[row];
+        }
+
+        public long sgst(int row) {
+            return sgst[row];
+        }
+
+        public long igst(int row) {
+            return igst[row];
+        }
+
+        public long gst(int row) {
+            return total[row] - subtotal[row];
+        }
+
+        public long total(int row) {
+            return total[row];
+        }
+
+        private void allocate(int capacity) {
+            subtotal = subtotal == null ? new long[capacity] : Arrays.copyOf(subtotal, capacity);
+            rateBp = rateBp == null ? new int[capacity] : Arrays.copyOf(rateBp, capacity);
+            interState = interState == null ? new boolean[capacity] : Arrays.copyOf(interState, capacity);
+            cgst = cgst == null ? new long[capacity] : Arrays.copyOf(cgst, capacity);
+            sgst = sgst == null ? new long[capacity] : Arrays.copyOf(sgst, capacity);
+            igst = igst == null ? new long[capacity] : Arrays.copyOf(igst, capacity);
+            total = total == null ? new long[capacity] : Arrays.copyOf(total, capacity);
+        }
+    }
+}
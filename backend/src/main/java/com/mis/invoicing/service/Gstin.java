@@ -0,0 +1,48 @@
+package com.mis.invoicing.service;
+
+import java.util.regex.Pattern;
+
+/**
+ * GSTIN format check: two-digit state code, the holder's PAN, entity number, the
+ * fixed 'Z' and a check character computed mod 36 over the first fourteen.
+ */
+public final class Gstin {
+    private static final Pattern FORMAT = Pattern.compile("[0-9]{2}[A-Z]{5}[0-9]{4}[A-Z][1-9A-Z]Z[0-9A-Z]");
+    private static final String CHARSET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    
+    private Gstin() {
+    }
+    
+    /** Upper-cased and trimmed; null for a blank value. */
+    public static String normalize(String gstin) {
+        if (gstin == null || gstin.isBlank()) {
+            return null;
+        }
+        return gstin.trim().toUpperCase();
+    }
+    
+    /** Why the (normalized) GSTIN is invalid, or null when it is valid. */
+    public static String problem(String gstin) {
+        if (!FORMAT.matcher(gstin).matches()) {
+            return "GSTIN " + gstin + " is not in the 15-character GSTIN format";
+        }
+        int state = Integer.parseInt(gstin.substring(0, 2));
+        // 97 is "other territory", 99 the centre's own registrations
+        if ((state < 1 || state > 38) && state != 97 && state != 99) {
+            return "GSTIN " + gstin + " has unknown state code " + gstin.substring(0, 2);
+        }
+        if (gstin.charAt(14) != checkCharacter(gstin)) {
+            return "GSTIN " + gstin + " has a wrong check character";
+        }
+        return null;
+    }
+    
+    private static char checkCharacter(String gstin) {
+        int sum = 0;
+        for (int i = 0; i < 14; i++) {
+            int product = CHARSET.indexOf(gstin.charAt(i)) * (i % 2 == 0 ? 1 : 2);
+            sum += product / 36 + product % 36;
+        }
+        return CHARSET.charAt((36 - sum % 36) % 36);
+    }
+}
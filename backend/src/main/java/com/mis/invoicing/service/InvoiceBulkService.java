@@ -0,0 +1,166 @@
+package com.mis.invoicing.service;
+
+import com.mis.invoicing.dto.BulkInvoiceItem;
+import com.mis.invoicing.dto.BulkInvoiceResult;
+import com.mis.invoicing.model.Client;
+import com.mis.invoicing.model.Invoice;
+import com.mis.invoicing.model.Tombstone;
+import com.mis.invoicing.repository.ClientRepository;
+import com.mis.invoicing.repository.InvoiceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates many invoices per call. Every item is validated and priced up front, all
+ * referenced clients are loaded in one query, and the valid invoices are persisted
+ * in chunked transactions whose inserts go out as JDBC batches (pooled sequence ids,
+ * {@code hibernate.jdbc.batch_size}). A failing chunk only fails its own items.
+ */
+@Slf4j
+@Service
+public class InvoiceBulkService {
+    private final InvoiceRepository invoiceRepository;
+    private final ClientRepository clientRepository;
+    private final NumberAllocator numberAllocator;
+    private final DashboardAggregates dashboardAggregates;
+    private final RevenueRollup revenueRollup;
+    private final LiveUpdates liveUpdates;
+    private final BillingMetrics billingMetrics;
+    private final TransactionTemplate chunkTx;
+    private final int maxItems;
+    private final int chunkSize;
+    
+    public InvoiceBulkService(InvoiceRepository invoiceRepository,
+                              ClientRepository clientRepository,
+                              NumberAllocator numberAllocator,
+                              DashboardAggregates dashboardAggregates,
+                              RevenueRollup revenueRollup,
+                              LiveUpdates liveUpdates,
+                              BillingMetrics billingMetrics,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.invoices.bulk-max-items:5000}") int maxItems,
+                              @Value("${app.invoices.bulk-chunk-size:500}") int chunkSize) {
+        this.invoiceRepository = invoiceRepository;
+        this.clientRepository = clientRepository;
+        this.numberAllocator = numberAllocator;
+        this.dashboardAggregates = dashboardAggregates;
+        this.revenueRollup = revenueRollup;
+        this.liveUpdates = liveUpdates;
+        this.billingMetrics = billingMetrics;
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.maxItems = maxItems;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+    
+    public BulkInvoiceResult createInvoices(List<BulkInvoiceItem> items) {
+        if (items == null || items.isEmpty()) {
+            throw new RuntimeException("No invoices to create");
+        }
+        if (items.size() > maxItems) {
+            throw new RuntimeException("At most " + maxItems + " invoices per bulk request, got " + items.size());
+        }
+        
+        BulkInvoiceResult.Item[] results = new BulkInvoiceResult.Item[items.size()];
+        Map<Long, Client> clients = loadClients(items);
+        List<Invoice> pending = new ArrayList<>(items.size());
+        List<Integer> pendingIndexes = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            try {
+                pending.add(toInvoice(items.get(i), clients));
+                pendingIndexes.add(i);
+            } catch (RuntimeException e) {
+                results[i] = BulkInvoiceResult.Item.failed(i, e.getMessage());
+            }
+        }
+        
+        int created = 0;
+        for (int from = 0; from < pending.size(); from += chunkSize) {
+            List<Invoice> chunk = pending.subList(from, Math.min(from + chunkSize, pending.size()));
+            List<Integer> indexes = pendingIndexes.subList(from, from + chunk.size());
+            try {
+                // Numbered before the chunk's transaction, so a block refill never waits on a connection it holds
+                for (Invoice invoice : chunk) {
+                    invoice.setInvoiceNumber(numberAllocator.nextInvoiceNumber());
+                }
+                chunkTx.executeWithoutResult(status -> persist(chunk));
+                for (int k = 0; k < chunk.size(); k++) {
+                    Invoice invoice = chunk.get(k);
+                    results[indexes.get(k)] = BulkInvoiceResult.Item.created(
+                            indexes.get(k), invoice.getId(), invoice.getInvoiceNumber());
+                }
+                created += chunk.size();
+            } catch (RuntimeException e) {
+                log.warn("Bulk invoice chunk of {} failed: {}", chunk.size(), e.getMessage());
+                for (Integer index : indexes) {
+                    results[index] = BulkInvoiceResult.Item.failed(index, "Not saved: " + e.getMessage());
+                }
+            }
+        }
+        
+        int failed = items.size() - created;
+        billingMetrics.bulkInvoicesProcessed(created, failed);
+        return new BulkInvoiceResult(created, failed, Arrays.asList(results));
+    }
+    
+    private Map<Long, Client> loadClients(List<BulkInvoiceItem> items) {
+        Set<Long> ids = new HashSet<>();
+        for (BulkInvoiceItem item : items) {
+            if (item != null && item.getClientId() != null) {
+                ids.add(item.getClientId());
+            }
+        }
+        Map<Long, Client> clients = new HashMap<>(ids.size() * 2);
+        for (Client client : clientRepository.findAllById(ids)) {
+            clients.put(client.getId(), client);
+        }
+        return clients;
+    }
+    
+    private Invoice toInvoice(BulkInvoiceItem item, Map<Long, Client> clients) {
+        if (item == null || item.getClientId() == null) {
+            throw new RuntimeException("clientId is required");
+        }
+        Client client = clients.get(item.getClientId());
+        if (client == null) {
+            throw new RuntimeException("Client not found with id: " + item.getClientId());
+        }
+        boolean hasLines = item.getLineItems() != null && !item.getLineItems().isEmpty();
+        if (!hasLines && item.getSubtotal() == null) {
+            throw new RuntimeException("subtotal or lineItems is required");
+        }
+        if (!hasLines && item.getSubtotal().signum() < 0) {
+            throw new RuntimeException("subtotal must not be negative");
+        }
+        
+        Invoice invoice = new Invoice();
+        invoice.setClient(client);
+        invoice.setItems(item.getItems());
+        invoice.setSubtotal(item.getSubtotal());
+        invoice.setDueDate(item.getDueDate());
+        invoice.setAmountPaid(BigDecimal.ZERO);
+        InvoiceService.attachLines(invoice, item.getLineItems());
+        GstCalculator.apply(invoice, item.isInterState());
+        return invoice;
+    }
+    
+    private void persist(List<Invoice> chunk) {
+        invoiceRepository.saveAll(chunk);
+        for (Invoice invoice : chunk) {
+            dashboardAggregates.invoiceSaved(null, null, invoice);
+            revenueRollup.invoiceCreated(invoice);
+        }
+        liveUpdates.saved(Tombstone.EntityType.INVOICE, chunk.stream().map(Invoice::getId).toList());
+    }
+}
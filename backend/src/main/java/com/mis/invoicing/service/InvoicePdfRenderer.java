@@ -0,0 +1,540 @@
+package com.mis.invoicing.service;
+
+import com.mis.invoicing.model.Client;
+import com.mis.invoicing.model.Invoice;
+import com.mis.invoicing.model.LineItem;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.fontbox.ttf.TTFParser;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Renders an invoice as a GST tax invoice PDF. The template (wording, seller
+ * details, column layout) is parsed once at startup and font files are read once;
+ * parsed fonts are pooled and reused across documents, since a parsed TrueType font
+ * must not be shared by two threads at the same time. Each document buffers at
+ * most {@code app.pdf.max-memory-per-document} bytes in memory and spills the rest
+ * to a temporary file.
+ */
+@Slf4j
+@Component
+public class InvoicePdfRenderer {
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private static final int COLUMNS = 8; // #, description, HSN/SAC, qty, rate, taxable, GST %, tax
+    private static final int DESCRIPTION = 1;
+    private static final boolean[] RIGHT_ALIGNED = {false, false, false, true, true, true, true, true};
+    private static final float LEADING = 1.35f;
+    private static final float CELL_PADDING = 3;
+    
+    private final Template template;
+    private final byte[] regularFontFile;
+    private final byte[] boldFontFile;
+    private final BlockingQueue<TrueTypeFont[]> parsedFonts;
+    private final long maxMemoryPerDocument;
+    
+    private record Template(String title, String sellerName, String sellerAddress, String sellerGstin,
+                            String sellerStateCode, String reverseCharge, String billTo, String unregistered,
+                            String declaration, String signatory, String lumpSum,
+                            String[] columnLabels, float[] columnWidths,
+                            float fontSize, float titleSize, float margin, Map<String, String> states) {
+    }
+    
+    private record Fonts(PDFont regular, PDFont bold) {
+    }
+    
+    public InvoicePdfRenderer(Environment environment,
+                              @Value("${app.pdf.template:classpath:pdf/invoice-template.properties}") Resource template,
+                              @Value("${app.pdf.font-regular:}") String regularFont,
+                              @Value("${app.pdf.font-bold:}") String boldFont,
+                              @Value("${app.pdf.max-memory-per-document:8388608}") long maxMemoryPerDocument)
+            throws IOException {
+        this.template = parseTemplate(PropertiesLoaderUtils.loadProperties(template), environment);
+        this.regularFontFile = regularFont.isBlank() ? null : Files.readAllBytes(Path.of(regularFont));
+        this.boldFontFile = boldFont.isBlank() ? regularFontFile : Files.readAllBytes(Path.of(boldFont));
+        this.parsedFonts = new ArrayBlockingQueue<>(Math.max(2, Runtime.getRuntime().availableProcessors() * 2));
+        this.maxMemoryPerDocument = maxMemoryPerDocument;
+        if (regularFontFile != null) {
+            // Parse once up front so a bad font path fails at startup, and keep the result for reuse
+            parsedFonts.offer(parseFonts());
+        }
+        log.info("Invoice PDF template loaded from {} ({} fonts)", template.getDescription(),
+                regularFontFile != null ? "embedded TrueType" : "standard Helvetica");
+    }
+    
+    public void render(Invoice invoice, OutputStream out) throws IOException {
+        TrueTypeFont[] ttf = regularFontFile != null ? borrowFonts() : null;
+        try (PDDocument document = new PDDocument(MemoryUsageSetting.setupMixed(maxMemoryPerDocument).streamCache)) {
+            Fonts fonts = ttf != null
+                    ? new Fonts(PDType0Font.load(document, ttf[0], true), PDType0Font.load(document, ttf[1], true))
+                    : new Fonts(new PDType1Font(Standard14Fonts.FontName.HELVETICA),
+                                new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD));
+            try (Layout layout = new Layout(document, fonts)) {
+                layout.draw(invoice);
+            }
+            document.getDocumentInformation().setTitle(invoice.getInvoiceNumber());
+            document.save(out);
+        } finally {
+            if (ttf != null) {
+                parsedFonts.offer(ttf);
+            }
+        }
+    }
+    
+    private TrueTypeFont[] borrowFonts() throws IOException {
+        TrueTypeFont[] fonts = parsedFonts.poll();
+        return fonts != null ? fonts : parseFonts();
+    }
+    
+    private TrueTypeFont[] parseFonts() throws IOException {
+        TrueTypeFont regular = new TTFParser().parse(new RandomAccessReadBuffer(regularFontFile));
+        TrueTypeFont bold = boldFontFile == regularFontFile ? regular
+                : new TTFParser().parse(new RandomAccessReadBuffer(boldFontFile));
+        return new TrueTypeFont[]{regular, bold};
+    }
+    
+    private static Template parseTemplate(Properties props, Environment environment) {
+        Map<String, String> states = new HashMap<>();
+        for (String key : props.stringPropertyNames()) {
+            if (key.startsWith("state.")) {
+                states.put(key.substring("state.".length()), props.getProperty(key));
+            }
+        }
+        String[] columns = props.getProperty("columns").split(",");
+        if (columns.length != COLUMNS) {
+            throw new IllegalStateException("Invoice PDF template must define " + COLUMNS + " columns");
+        }
+        String[] labels = new String[COLUMNS];
+        float[] widths = new float[COLUMNS];
+        for (int i = 0; i < COLUMNS; i++) {
+            int colon = columns[i].lastIndexOf(':');
+            labels[i] = columns[i].substring(0, colon).trim();
+            widths[i] = Float.parseFloat(columns[i].substring(colon + 1).trim());
+        }
+        return new Template(
+                value(props, environment, "title"),
+                value(props, environment, "seller.name"),
+                value(props, environment, "seller.address"),
+                value(props, environment, "seller.gstin"),
+                value(props, environment, "seller.state-code"),
+                value(props, environment, "reverse-charge"),
+                value(props, environment, "bill-to"),
+                value(props, environment, "unregistered"),
+                value(props, environment, "declaration"),
+                value(props, environment, "signatory"),
+                value(props, environment, "lump-sum"),
+                labels, widths,
+                Float.parseFloat(value(props, environment, "font.size")),
+                Float.parseFloat(value(props, environment, "font.title-size")),
+                Float.parseFloat(value(props, environment, "page.margin")),
+                Map.copyOf(states));
+    }
+    
+    private static String value(Properties props, Environment environment, String key) {
+        String raw = props.getProperty(key);
+        return raw != null ? environment.resolvePlaceholders(raw).trim() : "";
+    }
+    
+    /** Draws one document top to bottom, starting a new page whenever the next block does not fit. */
+    private final class Layout implements Closeable {
+        private final PDDocument document;
+        private final Fonts fonts;
+        private final float size = template.fontSize();
+        private final float line = template.fontSize() * LEADING;
+        private final float left = template.margin();
+        private final float right = PDRectangle.A4.getWidth() - template.margin();
+        private final float bottom = template.margin() + line; // keeps room for the page number
+        private final float[] widths;
+        private PDPageContentStream content;
+        private float y;
+    
+        Layout(PDDocument document, Fonts fonts) {
+            this.document = document;
+            this.fonts = fonts;
+            this.widths = template.columnWidths().clone();
+            float fixed = 0;
+            for (int i = 0; i < COLUMNS; i++) {
+                fixed += i == DESCRIPTION ? 0 : widths[i];
+            }
+            widths[DESCRIPTION] = right - left - fixed;
+        }
+    
+        void draw(Invoice invoice) throws IOException {
+            newPage();
+            drawHeader(invoice);
+            drawTableHeader();
+            for (String[] row : rows(invoice)) {
+                drawRow(row);
+            }
+            drawTotals(invoice);
+            drawFooter();
+            numberPages();
+        }
+    
+        private void drawHeader(Invoice invoice) throws IOException {
+            float titleWidth = width(fonts.bold(), template.titleSize(), template.title());
+            text(fonts.bold(), template.titleSize(), (left + right - titleWidth) / 2, y - template.titleSize(),
+                    template.title());
+            y -= template.titleSize() * LEADING + line / 2;
+    
+            float half = (right - left) / 2;
+            List<String[]> seller = new ArrayList<>();
+            seller.add(new String[]{template.sellerName(), "B"});
+            for (String part : wrap(fonts.regular(), template.sellerAddress(), half - CELL_PADDING)) {
+                seller.add(new String[]{part, ""});
+            }
+            seller.add(new String[]{"GSTIN: " + template.sellerGstin(), ""});
+            seller.add(new String[]{"State: " + state(template.sellerStateCode()), ""});
+    
+            Client client = invoice.getClient();
+            String clientGstin = blankToNull(client.getGstNumber());
+            String placeOfSupply = clientGstin != null && clientGstin.length() >= 2
+                    ? clientGstin.substring(0, 2) : template.sellerStateCode();
+            List<String[]> details = new ArrayList<>();
+            details.add(new String[]{"Invoice No: " + nullToEmpty(invoice.getInvoiceNumber()), "B"});
+            details.add(new String[]{"Invoice Date: " + (invoice.getCreatedAt() != null
+                    ? DATE.format(invoice.getCreatedAt()) : ""), ""});
+            if (invoice.getDueDate() != null) {
+                details.add(new String[]{"Due Date: " + DATE.format(invoice.getDueDate()), ""});
+            }
+            details.add(new String[]{"Place of Supply: " + state(placeOfSupply), ""});
+            details.add(new String[]{"Reverse Charge: " + template.reverseCharge(), ""});
+            drawColumns(seller, details, half);
+    
+            List<String[]> billTo = new ArrayList<>();
+            billTo.add(new String[]{template.billTo(), "B"});
+            billTo.add(new String[]{nullToEmpty(client.getName()), "B"});
+            for (String part : nullToEmpty(client.getAddress()).split("\\R")) {
+                for (String wrapped : wrap(fonts.regular(), part, right - left)) {
+                    billTo.add(new String[]{wrapped, ""});
+                }
+            }
+            billTo.add(new String[]{"GSTIN: " + (clientGstin != null ? clientGstin : template.unregistered()), ""});
+            if (clientGstin != null && clientGstin.length() >= 2) {
+                billTo.add(new String[]{"State: " + state(clientGstin.substring(0, 2)), ""});
+            }
+            y -= line / 2;
+            rule();
+            drawColumns(billTo, List.of(), right - left);
+            y -= line / 2;
+        }
+    
+        private void drawColumns(List<String[]> leftLines, List<String[]> rightLines, float half) throws IOException {
+            float top = y;
+            for (String[] text : leftLines) {
+                y -= line;
+                text(text[1].isEmpty() ? fonts.regular() : fonts.bold(), size, left, y, text[0]);
+            }
+            float leftEnd = y;
+            y = top;
+            for (String[] text : rightLines) {
+                y -= line;
+                text(text[1].isEmpty() ? fonts.regular() : fonts.bold(), size, left + half, y, text[0]);
+            }
+            y = Math.min(leftEnd, y);
+        }
+    
+        private List<String[]> rows(Invoice invoice) {
+            List<String[]> rows = new ArrayList<>();
+            if (invoice.getLineItems() == null || invoice.getLineItems().isEmpty()) {
+                String description = blankToNull(invoice.getItems()) != null ? invoice.getItems() : template.lumpSum();
+                rows.add(new String[]{"1", description, "", "", "", amount(invoice.getSubtotal()), "",
+                        amount(sum(invoice.getCgst(), invoice.getSgst(), invoice.getIgst()))});
+                return rows;
+            }
+            for (LineItem item : invoice.getLineItems()) {
+                rows.add(new String[]{
+                        String.valueOf(item.getLineNo()),
+                        item.getDescription(),
+                        nullToEmpty(item.getHsnSac()),
+                        item.getQuantity() != null ? item.getQuantity().stripTrailingZeros().toPlainString() : "",
+                        amount(item.getUnitPrice()),
+                        amount(item.getTaxableValue()),
+                        item.getGstRate() != null ? item.getGstRate().stripTrailingZeros().toPlainString() : "",
+                        amount(item.getTaxAmount())});
+            }
+            return rows;
+        }
+    
+        private void drawTableHeader() throws IOException {
+            ensureSpace(line * 2);
+            rule();
+            y -= line;
+            drawCells(template.columnLabels(), fonts.bold());
+            y -= line / 3;
+            rule();
+        }
+    
+        private void drawRow(String[] row) throws IOException {
+            List<String> description = wrap(fonts.regular(), row[DESCRIPTION], widths[DESCRIPTION] - 2 * CELL_PADDING);
+            float height = line * Math.max(1, description.size());
+            if (y - height < bottom) {
+                newPage();
+                drawTableHeader();
+            }
+            y -= line;
+            String[] first = row.clone();
+            first[DESCRIPTION] = description.isEmpty() ? "" : description.get(0);
+            drawCells(first, fonts.regular());
+            for (int i = 1; i < description.size(); i++) {
+                y -= line;
+                text(fonts.regular(), size, left + widths[0] + CELL_PADDING, y, description.get(i));
+            }
+        }
+    
+        private void drawCells(String[] cells, PDFont font) throws IOException {
+            float x = left;
+            for (int i = 0; i < COLUMNS; i++) {
+                String cell = printable(font, cells[i]);
+                float textX = RIGHT_ALIGNED[i] ? x + widths[i] - CELL_PADDING - width(font, size, cell) : x + CELL_PADDING;
+                text(font, size, textX, y, cell);
+                x += widths[i];
+            }
+        }
+    
+        private void drawTotals(Invoice invoice) throws IOException {
+            List<String[]> totals = new ArrayList<>();
+            totals.add(new String[]{"Taxable Value", amount(invoice.getSubtotal())});
+            if (invoice.getIgst() != null && invoice.getIgst().signum() != 0) {
+                totals.add(new String[]{"IGST", amount(invoice.getIgst())});
+            } else {
+                totals.add(new String[]{"CGST", amount(invoice.getCgst())});
+                totals.add(new String[]{"SGST", amount(invoice.getSgst())});
+            }
+            totals.add(new String[]{"Invoice Total (INR)", amount(invoice.getTotal())});
+            if (invoice.getAmountPaid() != null && invoice.getAmountPaid().signum() != 0) {
+                totals.add(new String[]{"Amount Paid", amount(invoice.getAmountPaid())});
+                totals.add(new String[]{"Balance Due", amount(invoice.getBalanceDue())});
+            }
+            ensureSpace(line * (totals.size() + 1));
+            y -= line / 3;
+            rule();
+            float labelX = right - widths[COLUMNS - 1] - widths[COLUMNS - 2] - widths[COLUMNS - 3];
+            for (String[] total : totals) {
+                y -= line;
+                PDFont font = total[0].startsWith("Invoice Total") ? fonts.bold() : fonts.regular();
+                text(font, size, labelX, y, total[0]);
+                text(font, size, right - CELL_PADDING - width(font, size, total[1]), y, total[1]);
+            }
+        }
+    
+        private void drawFooter() throws IOException {
+            List<String> declaration = wrap(fonts.regular(), template.declaration(), right - left);
+            ensureSpace(line * (declaration.size() + 5));
+            y -= line;
+            rule();
+            for (String part : declaration) {
+                y -= line;
+                text(fonts.regular(), size, left, y, part);
+            }
+            y -= line * 1.5f;
+            String forSeller = "For " + template.sellerName();
+            text(fonts.bold(), size, right - width(fonts.bold(), size, printable(fonts.bold(), forSeller)), y, forSeller);
+            y -= line * 2.5f;
+            text(fonts.regular(), size, right - width(fonts.regular(), size, template.signatory()), y,
+                    template.signatory());
+        }
+    
+        private void numberPages() throws IOException {
+            content.close();
+            content = null;
+            int pages = document.getNumberOfPages();
+            for (int i = 0; i < pages; i++) {
+                try (PDPageContentStream stamp = new PDPageContentStream(document, document.getPage(i),
+                        PDPageContentStream.AppendMode.APPEND, true)) {
+                    String label = "Page " + (i + 1) + " of " + pages;
+                    stamp.beginText();
+                    stamp.setFont(fonts.regular(), size - 1);
+                    stamp.newLineAtOffset(right - width(fonts.regular(), size - 1, label), template.margin());
+                    stamp.showText(label);
+                    stamp.endText();
+                }
+            }
+        }
+    
+        private void ensureSpace(float height) throws IOException {
+            if (y - height < bottom) {
+                newPage();
+            }
+        }
+    
+        private void newPage() throws IOException {
+            if (content != null) {
+                content.close();
+            }
+            PDPage page = new PDPage(PDRectangle.A4);
+            document.addPage(page);
+            content = new PDPageContentStream(document, page);
+            content.setLineWidth(0.5f);
+            y = PDRectangle.A4.getHeight() - template.margin();
+        }
+    
+        private void rule() throws IOException {
+            y -= line / 3;
+            content.moveTo(left, y);
+            content.lineTo(right, y);
+            content.stroke();
+        }
+    
+        private void text(PDFont font, float fontSize, float x, float baseline, String text) throws IOException {
+            String printable = printable(font, text);
+            if (printable.isEmpty()) {
+                return;
+            }
+            content.beginText();
+            content.setFont(font, fontSize);
+            content.newLineAtOffset(x, baseline);
+            content.showText(printable);
+            content.endText();
+        }
+    
+        private List<String> wrap(PDFont font, String text, float maxWidth) {
+            List<String> lines = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            for (String word : printable(font, text).split("\\s+")) {
+                if (word.isEmpty()) {
+                    continue;
+                }
+                String candidate = current.isEmpty() ? word : current + " " + word;
+                if (width(font, size, candidate) <= maxWidth) {
+                    current.setLength(0);
+                    current.append(candidate);
+                    continue;
+                }
+                if (!current.isEmpty()) {
+                    lines.add(current.toString());
+                    current.setLength(0);
+                }
+                // A single word wider than the column is broken wherever it overflows
+                for (char c : word.toCharArray()) {
+                    if (!current.isEmpty() && width(font, size, current.toString() + c) > maxWidth) {
+                        lines.add(current.toString());
+                        current.setLength(0);
+                    }
+                    current.append(c);
+                }
+            }
+            if (!current.isEmpty()) {
+                lines.add(current.toString());
+            }
+            return lines;
+        }
+    
+        @Override
+        public void close() throws IOException {
+            if (content != null) {
+                content.close();
+            }
+        }
+    }
+    
+    private String state(String code) {
+        if (code == null || code.isBlank()) {
+            return "";
+        }
+        String name = template.states().get(code);
+        return name != null ? code + " - " + name : code;
+    }
+    
+    private static float width(PDFont font, float size, String text) {
+        try {
+            return font.getStringWidth(text) / 1000 * size;
+        } catch (IOException | IllegalArgumentException e) {
+            return 0;
+        }
+    }
+    
+    // Drops characters the font cannot encode (standard fonts cover WinAnsi only) instead of failing the document
+    private static String printable(PDFont font, String text) {
+        if (text == null) {
+            return "";
+        }
+        String clean = text.replace('\t', ' ').replace('\r', ' ').replace('\n', ' ');
+        try {
+            font.encode(clean);
+            return clean;
+        } catch (IOException | IllegalArgumentException e) {
+            StringBuilder sb = new StringBuilder(clean.length());
+            clean.codePoints().forEach(cp -> {
+                String ch = new String(Character.toChars(cp));
+                try {
+                    font.encode(ch);
+                    sb.append(ch);
+                } catch (IOException | IllegalArgumentException unsupported) {
+                    sb.append('?');
+                }
+            });
+            return sb.toString();
+        }
+    }
+    
+    // Indian digit grouping: 12,34,567.89
+    static String amount(BigDecimal value) {
+        if (value == null) {
+            return "";
+        }
+        BigDecimal rounded = value.setScale(2, RoundingMode.HALF_UP);
+        String plain = rounded.abs().toPlainString();
+        int dot = plain.indexOf('.');
+        String whole = plain.substring(0, dot);
+        StringBuilder sb = new StringBuilder(plain.length() + 6);
+        if (rounded.signum() < 0) {
+            sb.append('-');
+        }
+        int head = whole.length() - 3;
+        for (int i = 0; i < whole.length(); i++) {
+            if (i > 0 && i <= head && (head - i) % 2 == 0) {
+                sb.append(',');
+            }
+            sb.append(whole.charAt(i));
+        }
+        return sb.append(plain, dot, plain.length()).toString();
+    }
+    
+    private static BigDecimal sum(BigDecimal... values) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal value : values) {
+            if (value != null) {
+                total = total.add(value);
+            }
+        }
+        return total;
+    }
+    
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+    
+    private static String blankToNull(String value) {
+        return value != null && !value.isBlank() ? value.trim() : null;
+    }
+}
@@ -0,0 +1,268 @@
+package com.mis.invoicing.service;
+
+import com.mis.invoicing.dto.PdfBatchResult;
+import com.mis.invoicing.model.Invoice;
+import com.mis.invoicing.model.Job;
+import com.mis.invoicing.repository.InvoiceRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Single and batch invoice PDFs. A batch renders one month's invoices on a pool
+ * sized to the cores: chunks of invoices are loaded and rendered in parallel, and
+ * only a fixed window of chunks is in flight at a time, so memory stays bounded
+ * however large the month is. Results are written in invoice order. Exports to the
+ * output directory run as background jobs.
+ */
+@Slf4j
+@Service
+public class InvoicePdfService implements JobHandler {
+    private static final int CHUNK_SIZE = 20;
+    // Ids are read in keyset pages of this many, a whole number of chunks
+    private static final int ID_PAGE_SIZE = 50 * CHUNK_SIZE;
+    
+    private final InvoiceRepository invoiceRepository;
+    private final InvoicePdfRenderer renderer;
+    private final Path outputDirectory;
+    private final int threads;
+    private final ExecutorService renderPool;
+    
+    private record Rendered(Long invoiceId, String fileName, byte[] pdf, String error) {
+    }
+    
+    public InvoicePdfService(InvoiceRepository invoiceRepository,
+                             InvoicePdfRenderer renderer,
+                             @Value("${app.pdf.output-dir:invoice-pdfs}") String outputDirectory,
+                             @Value("${app.pdf.threads:0}") int threads) {
+        this.invoiceRepository = invoiceRepository;
+        this.renderer = renderer;
+        this.outputDirectory = Path.of(outputDirectory);
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger count = new AtomicInteger();
+        this.renderPool = Executors.newFixedThreadPool(this.threads, task -> {
+            Thread thread = new Thread(task, "invoice-pdf-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        renderPool.shutdownNow();
+    }
+    
+    public Invoice getInvoice(@NonNull Long id) {
+        return invoiceRepository.findDetailedById(id)
+                .orElseThrow(() -> new RuntimeException("Invoice not found with id: " + id));
+    }
+    
+    public void render(Invoice invoice, OutputStream out) throws IOException {
+        renderer.render(invoice, out);
+    }
+    
+    public static String fileName(Invoice invoice) {
+        String number = invoice.getInvoiceNumber() != null ? invoice.getInvoiceNumber() : "invoice-" + invoice.getId();
+        return number.replaceAll("[^A-Za-z0-9._-]", "-") + ".pdf";
+    }
+    
+    /** Streams a ZIP of the month's invoices; documents that fail to render are listed in errors.txt. */
+    public void writeMonthZip(YearMonth month, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        List<String> errors = new ArrayList<>();
+        ZipOutputStream zip = new ZipOutputStream(out);
+        int documents = renderAll(new IdCursor(month, null), rendered -> {
+            if (rendered.error() != null) {
+                errors.add(rendered.fileName() + ": " + rendered.error());
+                return;
+            }
+            // PDF content streams are already compressed
+            ZipEntry entry = new ZipEntry(rendered.fileName());
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(rendered.pdf().length);
+            CRC32 crc = new CRC32();
+            crc.update(rendered.pdf());
+            entry.setCrc(crc.getValue());
+            zip.putNextEntry(entry);
+            zip.write(rendered.pdf());
+            zip.closeEntry();
+        }, (lastId, chunk, failed) -> {
+        });
+        if (!errors.isEmpty()) {
+            zip.putNextEntry(new ZipEntry("errors.txt"));
+            zip.write(String.join("\n", errors).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+        log.info("Rendered {} invoice PDF(s) for {} to ZIP in {} ms ({} failed)",
+                documents - errors.size(), month, (System.nanoTime() - started) / 1_000_000, errors.size());
+    }
+    
+    @Override
+    public Job.JobType type() {
+        return Job.JobType.INVOICE_PDF_EXPORT;
+    }
+    
+    /**
+     * Writes the month's invoices to {@code <output-dir>/<yyyy-MM>/}, replacing files of
+     * the same name. The checkpoint is the last invoice id written, so a resumed run
+     * skips the documents already on disk.
+     */
+    @Override
+    public PdfBatchResult run(JobContext job) throws IOException {
+        long started = System.nanoTime();
+        YearMonth month = YearMonth.parse(job.param("month"));
+        Long afterId = job.checkpoint() != null ? Long.valueOf(job.checkpoint()) : null;
+        Path directory = outputDirectory.resolve(month.toString()).toAbsolutePath();
+        Files.createDirectories(directory);
+        IdCursor ids = new IdCursor(month, afterId);
+        job.total(job.processed() + ids.remaining());
+        renderAll(ids, rendered -> {
+            if (rendered.error() == null) {
+                Files.write(directory.resolve(rendered.fileName()), rendered.pdf());
+            }
+        }, (lastId, documents, failed) -> {
+            job.advance(lastId.toString(), documents, failed);
+            job.checkCancelled();
+        });
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Rendered {} invoice PDF(s) for {} to {} in {} ms ({} failed)",
+                job.processed() - job.failed(), month, directory, durationMs, job.failed());
+        return new PdfBatchResult(month, directory.toString(), job.processed() - job.failed(), job.failed(), durationMs);
+    }
+    
+    private interface Sink {
+        void accept(Rendered rendered) throws IOException;
+    }
+    
+    private interface ChunkDone {
+        void written(Long lastId, int documents, int failed) throws IOException;
+    }
+    
+    /** The month's invoice ids in ascending order, fetched a keyset page at a time. */
+    private final class IdCursor {
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private Long afterId;
+        private List<Long> page = List.of();
+        private int position;
+        private boolean exhausted;
+        
+        IdCursor(YearMonth month, Long afterId) {
+            this.from = month.atDay(1).atStartOfDay();
+            this.to = month.plusMonths(1).atDay(1).atStartOfDay();
+            this.afterId = afterId;
+        }
+        
+        long remaining() {
+            return invoiceRepository.countCreatedBetween(from, to, afterId);
+        }
+        
+        boolean hasNext() {
+            if (position < page.size()) {
+                return true;
+            }
+            if (exhausted) {
+                return false;
+            }
+            page = invoiceRepository.findIdsCreatedBetween(from, to, afterId, PageRequest.of(0, ID_PAGE_SIZE));
+            position = 0;
+            exhausted = page.size() < ID_PAGE_SIZE;
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1);
+            }
+            return !page.isEmpty();
+        }
+        
+        /** Up to {@code max} ids from the current page; call {@link #hasNext()} first. */
+        List<Long> next(int max) {
+            List<Long> ids = List.copyOf(page.subList(position, Math.min(position + max, page.size())));
+            position += ids.size();
+            return ids;
+        }
+    }
+    
+    // Keeps at most two chunks per thread in flight and hands results to the sink in id order
+    private int renderAll(IdCursor ids, Sink sink, ChunkDone chunkDone) throws IOException {
+        Deque<Future<List<Rendered>>> window = new ArrayDeque<>();
+        int documents = 0;
+        try {
+            while (!window.isEmpty() || ids.hasNext()) {
+                while (window.size() < threads * 2 && ids.hasNext()) {
+                    List<Long> chunk = ids.next(CHUNK_SIZE);
+                    window.add(renderPool.submit(() -> renderChunk(chunk)));
+                }
+                List<Rendered> chunk = join(window.poll());
+                int failed = 0;
+                for (Rendered rendered : chunk) {
+                    sink.accept(rendered);
+                    failed += rendered.error() != null ? 1 : 0;
+                }
+                documents += chunk.size();
+                if (!chunk.isEmpty()) {
+                    chunkDone.written(chunk.get(chunk.size() - 1).invoiceId(), chunk.size(), failed);
+                }
+            }
+        } finally {
+            // Not interrupted: a chunk stopped halfway through a JDBC call can take the connection down with it
+            window.forEach(pending -> pending.cancel(false));
+        }
+        return documents;
+    }
+    
+    private List<Rendered> renderChunk(List<Long> ids) {
+        List<Rendered> results = new ArrayList<>(ids.size());
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(32 * 1024);
+        for (Invoice invoice : invoiceRepository.findForRendering(ids)) {
+            buffer.reset();
+            try {
+                renderer.render(invoice, buffer);
+                results.add(new Rendered(invoice.getId(), fileName(invoice), buffer.toByteArray(), null));
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not render invoice {}: {}", invoice.getId(), e.toString());
+                results.add(new Rendered(invoice.getId(), fileName(invoice), null, e.toString()));
+            }
+        }
+        return results;
+    }
+    
+    private static <T> T join(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering invoices", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw new RuntimeException("Invoice rendering failed", e.getCause());
+        }
+    }
+}
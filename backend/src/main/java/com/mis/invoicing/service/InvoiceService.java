@@ -1,97 +1,168 @@
 package com.mis.invoicing.service;
 
+import com.mis.invoicing.dto.CursorPage;
+import com.mis.invoicing.dto.InvoiceRow;
 import com.mis.invoicing.model.Client;
 import com.mis.invoicing.model.Invoice;
+import com.mis.invoicing.model.LineItem;
+import com.mis.invoicing.model.Tombstone;
 import com.mis.invoicing.repository.ClientRepository;
 import com.mis.invoicing.repository.InvoiceRepository;
-import com.mis.invoicing.repository.PaymentRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Service
-@RequiredArgsConstructor
 public class InvoiceService {
     private final InvoiceRepository invoiceRepository;
     private final ClientRepository clientRepository;
-    private final PaymentRepository paymentRepository;
+    private final DashboardAggregates dashboardAggregates;
+    private final RevenueRollup revenueRollup;
+    private final NumberAllocator numberAllocator;
+    private final ChangeFeed changeFeed;
+    private final LiveUpdates liveUpdates;
+    private final TransactionTemplate createTx;
     
-    private static final BigDecimal GST_RATE = new BigDecimal("0.18");
+    public InvoiceService(InvoiceRepository invoiceRepository,
+                          ClientRepository clientRepository,
+                          DashboardAggregates dashboardAggregates,
+                          RevenueRollup revenueRollup,
+                          NumberAllocator numberAllocator,
+                          ChangeFeed changeFeed,
+                          LiveUpdates liveUpdates,
+                          PlatformTransactionManager transactionManager) {
+        this.invoiceRepository = invoiceRepository;
+        this.clientRepository = clientRepository;
+        this.dashboardAggregates = dashboardAggregates;
+        this.revenueRollup = revenueRollup;
+        this.numberAllocator = numberAllocator;
+        this.changeFeed = changeFeed;
+        this.liveUpdates = liveUpdates;
+        this.createTx = new TransactionTemplate(transactionManager);
+    }
+    
+    public List<InvoiceRow> getAllInvoices() {
+        return invoiceRepository.findPage(null, null, null, null, null, Pageable.unpaged());
+    }
     
-    public List<Invoice> getAllInvoices() {
-        return invoiceRepository.findAll();
+    public CursorPage<InvoiceRow> getInvoicePage(String cursor, Integer limit, Invoice.InvoiceStatus status,
+                                              Long clientId, LocalDate from, LocalDate to) {
+        int pageSize = CursorPage.clampLimit(limit);
+        LocalDateTime fromTime = from != null ? from.atStartOfDay() : null;
+        LocalDateTime toTime = to != null ? to.plusDays(1).atStartOfDay() : null;
+        List<InvoiceRow> rows = invoiceRepository.findPage(CursorPage.decodeCursor(cursor), status, clientId,
+                fromTime, toTime, CursorPage.probe(pageSize));
+        return CursorPage.of(rows, pageSize, InvoiceRow::getId);
     }
     
     public Optional<Invoice> getInvoiceById(@NonNull Long id) {
-        return invoiceRepository.findById(id);
+        return invoiceRepository.findDetailedById(id);
     }
     
-    public List<Invoice> getInvoicesByClientId(Long clientId) {
-        return invoiceRepository.findByClientId(clientId);
+    /** Changes whenever {@link #getInvoiceById} would return something different; empty if there is no such invoice. */
+    public Optional<String> getInvoiceVersion(@NonNull Long id) {
+        return invoiceRepository.findVersionStamp(id);
     }
     
-    public List<Invoice> getInvoicesByStatus(Invoice.InvoiceStatus status) {
-        return invoiceRepository.findByStatus(status);
+    public List<InvoiceRow> getInvoicesByClientId(Long clientId) {
+        return invoiceRepository.findPage(null, null, clientId, null, null, Pageable.unpaged());
+    }
+    
+    public List<InvoiceRow> getInvoicesByStatus(Invoice.InvoiceStatus status) {
+        return invoiceRepository.findPage(null, status, null, null, null, Pageable.unpaged());
     }
     
     public Invoice createInvoice(@NonNull Long clientId, Invoice invoice, boolean isInterState) {
-        Client client = clientRepository.findById(clientId)
-                .orElseThrow(() -> new RuntimeException("Client not found with id: " + clientId));
-        
-        invoice.setClient(client);
-        calculateGst(invoice, isInterState);
-        return invoiceRepository.save(invoice);
+        // Numbered before the transaction opens: a block refill takes a connection of its own,
+        // and callers holding one while they wait for it could drain the pool
+        if (invoice.getInvoiceNumber() == null) {
+            invoice.setInvoiceNumber(numberAllocator.nextInvoiceNumber());
+        }
+        return createTx.execute(status -> {
+            Client client = clientRepository.findById(clientId)
+                    .orElseThrow(() -> new RuntimeException("Client not found with id: " + clientId));
+            
+            invoice.setClient(client);
+            invoice.setAmountPaid(BigDecimal.ZERO);
+            attachLines(invoice, invoice.getLineItems());
+            GstCalculator.apply(invoice, isInterState);
+            Invoice saved = invoiceRepository.save(invoice);
+            dashboardAggregates.invoiceSaved(null, null, saved);
+            liveUpdates.saved(Tombstone.EntityType.INVOICE, saved.getId());
+            revenueRollup.invoiceCreated(saved);
+            return saved;
+        });
     }
     
+    @Transactional
     public Invoice updateInvoice(@NonNull Long id, Invoice invoiceDetails, boolean isInterState) {
-        Invoice invoice = invoiceRepository.findById(id)
+        Invoice invoice = invoiceRepository.findDetailedById(id)
                 .orElseThrow(() -> new RuntimeException("Invoice not found with id: " + id));
+        Invoice.InvoiceStatus previousStatus = invoice.getStatus();
+        BigDecimal previousTotal = invoice.getTotal();
+        RevenueRollup.Snapshot previousAmounts = RevenueRollup.Snapshot.of(invoice);
         
         invoice.setItems(invoiceDetails.getItems());
         invoice.setSubtotal(invoiceDetails.getSubtotal());
-        calculateGst(invoice, isInterState);
+        attachLines(invoice, invoiceDetails.getLineItems());
+        GstCalculator.apply(invoice, isInterState);
         invoice.setDueDate(invoiceDetails.getDueDate());
+        // A new total can settle the invoice or reopen it, the same as a payment would
+        if (invoice.getBalanceDue().signum() <= 0) {
+            invoice.setStatus(Invoice.InvoiceStatus.PAID);
+        } else if (previousStatus == Invoice.InvoiceStatus.PAID) {
+            invoice.setStatus(Invoice.InvoiceStatus.PENDING);
+        }
         
-        return invoiceRepository.save(invoice);
+        Invoice saved = invoiceRepository.save(invoice);
+        dashboardAggregates.invoiceSaved(previousStatus, previousTotal, saved);
+        liveUpdates.saved(Tombstone.EntityType.INVOICE, saved.getId());
+        revenueRollup.invoiceUpdated(previousAmounts, saved);
+        return saved;
     }
     
+    @Transactional
     public void updateInvoiceStatus(@NonNull Long id) {
         Invoice invoice = invoiceRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Invoice not found with id: " + id));
         
-        BigDecimal totalPayments = paymentRepository.getTotalPaymentsByInvoiceId(id);
-        if (totalPayments != null && totalPayments.compareTo(invoice.getTotal()) >= 0) {
+        if (invoice.getBalanceDue() != null && invoice.getBalanceDue().signum() <= 0) {
+            Invoice.InvoiceStatus previousStatus = invoice.getStatus();
             invoice.setStatus(Invoice.InvoiceStatus.PAID);
-            invoiceRepository.save(invoice);
+            Invoice saved = invoiceRepository.save(invoice);
+            dashboardAggregates.invoiceSaved(previousStatus, saved.getTotal(), saved);
+            liveUpdates.saved(Tombstone.EntityType.INVOICE, saved.getId());
         }
     }
     
+    @Transactional
     public void deleteInvoice(@NonNull Long id) {
-        invoiceRepository.deleteById(id);
+        invoiceRepository.findById(id).ifPresent(invoice -> {
+            invoiceRepository.delete(invoice);
+            changeFeed.deleted(Tombstone.EntityType.INVOICE, id);
+            dashboardAggregates.invoiceDeleted(invoice);
+            liveUpdates.deleted(Tombstone.EntityType.INVOICE, id);
+            revenueRollup.invoiceDeleted(invoice);
+        });
     }
     
-    private void calculateGst(Invoice invoice, boolean isInterState) {
-        if (invoice.getSubtotal() != null) {
-            BigDecimal gstAmount = invoice.getSubtotal().multiply(GST_RATE).setScale(2, RoundingMode.HALF_UP);
-            
-            if (isInterState) {
-                // IGST for inter-state transactions
-                invoice.setIgst(gstAmount);
-                invoice.setCgst(BigDecimal.ZERO);
-                invoice.setSgst(BigDecimal.ZERO);
-            } else {
-                // CGST + SGST for intra-state transactions (9% each)
-                BigDecimal halfGst = gstAmount.divide(new BigDecimal("2"), 2, RoundingMode.HALF_UP);
-                invoice.setCgst(halfGst);
-                invoice.setSgst(halfGst);
-                invoice.setIgst(BigDecimal.ZERO);
-            }
-            
-            invoice.setTotal(invoice.getSubtotal().add(gstAmount));
+    // Replaces the invoice's lines; orphaned rows are deleted on flush
+    static void attachLines(Invoice invoice, List<LineItem> lines) {
+        List<LineItem> incoming = lines != null ? List.copyOf(lines) : List.of();
+        invoice.getLineItems().clear();
+        for (LineItem line : incoming) {
+            line.setId(null);
+            line.setInvoice(invoice);
+            line.setEstimate(null);
+            invoice.getLineItems().add(line);
         }
     }
 }
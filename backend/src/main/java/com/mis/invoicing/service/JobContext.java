@@ -0,0 +1,94 @@
+package com.mis.invoicing.service;
+
+import com.mis.invoicing.model.Job;
+import com.mis.invoicing.repository.JobRepository;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * What a running {@link JobHandler} sees of its job: parameters, the checkpoint to
+ * resume from, and the calls that record progress and observe cancellation.
+ */
+public class JobContext {
+    private final Long id;
+    private final Map<String, String> params;
+    private final JobRepository jobRepository;
+    private final TransactionTemplate chunkTx;
+    private String checkpoint;
+    private long processed;
+    private long failed;
+    private volatile boolean cancelled;
+    
+    /** Thrown by {@link #checkCancelled()}; ends the job as CANCELLED. */
+    public static class CancelledException extends RuntimeException {
+        CancelledException(Long id) {
+            super("Job " + id + " was cancelled");
+        }
+    }
+    
+    JobContext(Job job, Map<String, String> params, JobRepository jobRepository, TransactionTemplate chunkTx) {
+        this.id = job.getId();
+        this.params = params;
+        this.jobRepository = jobRepository;
+        this.chunkTx = chunkTx;
+        this.checkpoint = job.getCheckpoint();
+        this.processed = job.getProcessed();
+        this.failed = job.getFailed();
+        this.cancelled = job.isCancelRequested();
+    }
+    
+    public Long id() {
+        return id;
+    }
+    
+    public String param(String name) {
+        return params.get(name);
+    }
+    
+    /** Last checkpoint recorded with {@link #advance}, or null when starting from scratch. */
+    public String checkpoint() {
+        return checkpoint;
+    }
+    
+    public long processed() {
+        return processed;
+    }
+    
+    public long failed() {
+        return failed;
+    }
+    
+    public void total(long total) {
+        jobRepository.updateTotal(id, total, LocalDateTime.now());
+    }
+    
+    /**
+     * Records a finished chunk. Called inside {@link #inTransaction} it commits (or
+     * rolls back) together with the chunk's own writes.
+     */
+    public void advance(String checkpoint, long processed, long failed) {
+        jobRepository.advance(id, checkpoint, processed, failed, LocalDateTime.now());
+        this.checkpoint = checkpoint;
+        this.processed += processed;
+        this.failed += failed;
+    }
+    
+    public <T> T inTransaction(TransactionCallback<T> chunk) {
+        return chunkTx.execute(chunk);
+    }
+    
+    /** Stops the job if a cancel was requested, on this instance or any other. */
+    public void checkCancelled() {
+        if (cancelled || jobRepository.isCancelRequested(id)) {
+            cancelled = true;
+            throw new CancelledException(id);
+        }
+    }
+    
+    void cancel() {
+        cancelled = true;
+    }
+}
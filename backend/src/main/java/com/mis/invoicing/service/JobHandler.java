@@ -0,0 +1,21 @@
+package com.mis.invoicing.service;
+
+import com.mis.invoicing.model.Job;
+
+/**
+ * Body of one kind of background job. Handlers are beans, found by {@link JobService}
+ * through their {@link #type()}.
+ */
+public interface JobHandler {
+    
+    Job.JobType type();
+    
+    /**
+     * Runs a job, or resumes it from {@link JobContext#checkpoint()} after a restart or
+     * a failure. Work should go in chunks: each one committed together with
+     * {@link JobContext#advance}, with {@link JobContext#checkCancelled()} between them.
+     *
+     * @return summary stored as the job's JSON result, or null
+     */
+    Object run(JobContext job) throws Exception;
+}
@@ -0,0 +1,310 @@
+package com.mis.invoicing.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mis.invoicing.dto.CursorPage;
+import com.mis.invoicing.model.Job;
+import com.mis.invoicing.repository.JobRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs long bulk operations off the request threads. Jobs are rows in {@code jobs};
+ * a fixed worker pool picks them up in submission order, with a per-type limit on
+ * how many run at once. Handlers commit a checkpoint with every chunk, so a job
+ * interrupted by a restart is queued again on startup and continues where it
+ * stopped, and a failed or cancelled one can be resumed the same way.
+ *
+ * <p>Claiming a job is a conditional UPDATE, so it never runs twice at once; jobs
+ * left RUNNING at startup are assumed to belong to this instance, as with the
+ * overdue invoice job.
+ */
+@Slf4j
+@Service
+public class JobService {
+    private static final int MAX_ERROR_LENGTH = 1000;
+    
+    private final JobRepository jobRepository;
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+    private final TransactionTemplate chunkTx;
+    private final Map<Job.JobType, JobHandler> handlers = new EnumMap<>(Job.JobType.class);
+    private final ExecutorService workers;
+    private final int retentionDays;
+    
+    // Job ids waiting for a slot and jobs running, per type; guarded by dispatchLock
+    private final Map<Job.JobType, Deque<Long>> waiting = new EnumMap<>(Job.JobType.class);
+    private final Map<Job.JobType, Integer> running = new EnumMap<>(Job.JobType.class);
+    private final ReentrantLock dispatchLock = new ReentrantLock();
+    private final Map<Long, JobContext> active = new ConcurrentHashMap<>();
+    private volatile boolean stopping;
+    
+    public JobService(JobRepository jobRepository,
+                      ObjectMapper objectMapper,
+                      Environment environment,
+                      PlatformTransactionManager transactionManager,
+                      List<JobHandler> handlers,
+                      @Value("${app.jobs.threads:2}") int threads,
+                      @Value("${app.jobs.retention-days:30}") int retentionDays) {
+        this.jobRepository = jobRepository;
+        this.objectMapper = objectMapper;
+        this.environment = environment;
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        for (JobHandler handler : handlers) {
+            this.handlers.put(handler.type(), handler);
+        }
+        for (Job.JobType type : Job.JobType.values()) {
+            waiting.put(type, new ArrayDeque<>());
+            running.put(type, 0);
+        }
+        AtomicInteger count = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, threads), task -> {
+            Thread thread = new Thread(task, "job-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.retentionDays = retentionDays;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        // Running jobs stop at their next chunk boundary and stay RUNNING, to be resumed on the next start
+        stopping = true;
+        active.values().forEach(JobContext::cancel);
+        workers.shutdown();
+    }
+    
+    /** Parameters for {@link #submit}; null values are left out. */
+    public static Map<String, String> params(Object... namesAndValues) {
+        Map<String, String> params = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < namesAndValues.length; i += 2) {
+            if (namesAndValues[i + 1] != null) {
+                params.put(namesAndValues[i].toString(), namesAndValues[i + 1].toString());
+            }
+        }
+        return params;
+    }
+    
+    public Job submit(Job.JobType type, Map<String, String> params) {
+        if (!handlers.containsKey(type)) {
+            throw new RuntimeException("No handler for job type " + type);
+        }
+        Job job = new Job();
+        job.setType(type);
+        job.setStatus(Job.JobStatus.QUEUED);
+        job.setParams(toJson(params));
+        Authentication user = SecurityContextHolder.getContext().getAuthentication();
+        job.setCreatedBy(user != null ? user.getName() : null);
+        Job saved = jobRepository.save(job);
+        enqueue(saved.getId(), type);
+        dispatch();
+        return saved;
+    }
+    
+    public Optional<Job> getJob(@NonNull Long id) {
+        return jobRepository.findById(id);
+    }
+    
+    public List<Job> getRecentJobs(Job.JobStatus status, Job.JobType type, Integer limit) {
+        return jobRepository.findRecent(status, type, PageRequest.of(0, CursorPage.clampLimit(limit)));
+    }
+    
+    public Job cancel(@NonNull Long id) {
+        Job job = jobRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Job not found with id: " + id));
+        LocalDateTime now = LocalDateTime.now();
+        if (jobRepository.requestCancel(id, now) > 0) {
+            if (jobRepository.cancelQueued(id, now) > 0) {
+                dispatchLock.lock();
+                try {
+                    waiting.get(job.getType()).remove(id);
+                } finally {
+                    dispatchLock.unlock();
+                }
+            }
+            JobContext context = active.get(id);
+            if (context != null) {
+                context.cancel();
+            }
+        }
+        return jobRepository.findById(id).orElseThrow();
+    }
+    
+    /** Queues a failed or cancelled job again; it continues from its last checkpoint. */
+    public Job resume(@NonNull Long id) {
+        Job job = jobRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Job not found with id: " + id));
+        if (jobRepository.reopen(id, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Only failed or cancelled jobs can be resumed");
+        }
+        enqueue(id, job.getType());
+        dispatch();
+        return jobRepository.findById(id).orElseThrow();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        List<Job> unfinished = jobRepository.findByStatusInOrderByIdAsc(
+                List.of(Job.JobStatus.QUEUED, Job.JobStatus.RUNNING));
+        for (Job job : unfinished) {
+            LocalDateTime now = LocalDateTime.now();
+            if (job.getStatus() == Job.JobStatus.RUNNING) {
+                jobRepository.requeue(job.getId(), Job.JobStatus.RUNNING, now);
+            }
+            if (job.isCancelRequested()) {
+                // Cancelled while the instance was stopping
+                jobRepository.cancelQueued(job.getId(), now);
+                continue;
+            }
+            if (job.getStatus() == Job.JobStatus.RUNNING) {
+                log.info("Resuming {} job {} from checkpoint {} after {} item(s)",
+                        job.getType(), job.getId(), job.getCheckpoint(), job.getProcessed());
+            }
+            enqueue(job.getId(), job.getType());
+        }
+        dispatch();
+    }
+    
+    @Scheduled(cron = "${app.jobs.cleanup-cron:0 30 1 * * *}")
+    public void deleteOldJobs() {
+        int deleted = jobRepository.deleteFinishedBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("Deleted {} finished job(s) older than {} day(s)", deleted, retentionDays);
+        }
+    }
+    
+    // --- dispatch ---
+    
+    private void enqueue(Long id, Job.JobType type) {
+        dispatchLock.lock();
+        try {
+            Deque<Long> queue = waiting.get(type);
+            if (!queue.contains(id)) {
+                queue.add(id);
+            }
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+    
+    private void dispatch() {
+        if (stopping) {
+            return;
+        }
+        dispatchLock.lock();
+        try {
+            for (Job.JobType type : Job.JobType.values()) {
+                Deque<Long> queue = waiting.get(type);
+                while (!queue.isEmpty() && running.get(type) < limit(type)) {
+                    Long id = queue.poll();
+                    running.merge(type, 1, Integer::sum);
+                    workers.execute(() -> execute(id, type));
+                }
+            }
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+    
+    // app.jobs.concurrency.<type>, e.g. app.jobs.concurrency.invoice-pdf-export=1
+    private int limit(Job.JobType type) {
+        String key = "app.jobs.concurrency." + type.name().toLowerCase().replace('_', '-');
+        return Math.max(1, environment.getProperty(key, Integer.class, 1));
+    }
+    
+    private void execute(Long id, Job.JobType type) {
+        try {
+            if (jobRepository.claim(id, LocalDateTime.now()) > 0) {
+                run(jobRepository.findById(id).orElseThrow(), type);
+            }
+        } catch (RuntimeException e) {
+            if (!stopping) {
+                log.error("Could not run job {}", id, e);
+            }
+        } finally {
+            dispatchLock.lock();
+            try {
+                running.merge(type, -1, Integer::sum);
+            } finally {
+                dispatchLock.unlock();
+            }
+            dispatch();
+        }
+    }
+    
+    private void run(Job job, Job.JobType type) {
+        JobContext context = new JobContext(job, fromJson(job.getParams()), jobRepository, chunkTx);
+        active.put(job.getId(), context);
+        long started = System.nanoTime();
+        try {
+            Object result = handlers.get(type).run(context);
+            jobRepository.finish(job.getId(), Job.JobStatus.SUCCEEDED, toJson(result), null, LocalDateTime.now());
+            log.info("{} job {} finished in {} ms: {} processed, {} failed", type, job.getId(),
+                    (System.nanoTime() - started) / 1_000_000, context.processed(), context.failed());
+        } catch (Exception e) {
+            if (stopping) {
+                log.info("{} job {} stopped by shutdown at checkpoint {}", type, job.getId(), context.checkpoint());
+            } else if (e instanceof JobContext.CancelledException) {
+                jobRepository.finish(job.getId(), Job.JobStatus.CANCELLED, null, null, LocalDateTime.now());
+                log.info("{} job {} cancelled after {} item(s)", type, job.getId(), context.processed());
+            } else {
+                log.warn("{} job {} failed at checkpoint {}", type, job.getId(), context.checkpoint(), e);
+                String error = e.getMessage() != null ? e.getMessage() : e.toString();
+                jobRepository.finish(job.getId(), Job.JobStatus.FAILED, null,
+                        error.substring(0, Math.min(error.length(), MAX_ERROR_LENGTH)), LocalDateTime.now());
+            }
+        } finally {
+            active.remove(job.getId());
+        }
+    }
+    
+    private String toJson(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize job data", e);
+        }
+    }
+    
+    private Map<String, String> fromJson(String params) {
+        if (params == null) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(params, new TypeReference<Map<String, String>>() {
+            });
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Invalid job parameters: " + params, e);
+        }
+    }
+}
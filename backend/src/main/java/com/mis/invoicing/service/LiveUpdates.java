@@ -0,0 +1,371 @@
+package com.mis.invoicing.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mis.invoicing.dto.LiveEvent;
+import com.mis.invoicing.model.Tombstone;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Push channel behind /api/events. Write paths report changes after commit into one
+ * shared inbox, where repeated changes to a record collapse into one. A scheduled
+ * flush turns the inbox into a single {@code changes} event, plus a {@code dashboard}
+ * event with fresh stats, serializes each once and queues the same frames for every
+ * subscriber. A small writer pool drains the per-subscriber queues, so a slow
+ * connection only holds up itself; one that falls a full buffer behind is dropped
+ * and, on reconnecting, starts again from current state.
+ *
+ * <p>With nobody subscribed the write-path hooks return straight away.
+ */
+@Slf4j
+@Service
+public class LiveUpdates {
+    private final DashboardService dashboardService;
+    private final ObjectMapper objectMapper;
+    private final BillingMetrics billingMetrics;
+    private final ExecutorService writers;
+    private final long timeout;
+    private final int maxSubscribers;
+    private final int bufferSize;
+    private final int reloadThreshold;
+    private final long heartbeatNanos;
+    
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    
+    // Changes committed since the last flush, last op per record; guarded by inboxLock
+    private final ReentrantLock inboxLock = new ReentrantLock();
+    private Map<Tombstone.EntityType, Map<Long, LiveEvent.Op>> inbox = new EnumMap<>(Tombstone.EntityType.class);
+    private Set<Tombstone.EntityType> reloads = EnumSet.noneOf(Tombstone.EntityType.class);
+    private long lastFrame = System.nanoTime();
+    
+    public LiveUpdates(DashboardService dashboardService,
+                       ObjectMapper objectMapper,
+                       BillingMetrics billingMetrics,
+                       @Value("${app.events.writer-threads:2}") int writerThreads,
+                       @Value("${app.events.timeout:1800000}") long timeout,
+                       @Value("${app.events.max-subscribers:1000}") int maxSubscribers,
+                       @Value("${app.events.buffer-size:64}") int bufferSize,
+                       @Value("${app.events.reload-threshold:100}") int reloadThreshold,
+                       @Value("${app.events.heartbeat-interval:25000}") long heartbeatInterval) {
+        this.dashboardService = dashboardService;
+        this.objectMapper = objectMapper;
+        this.billingMetrics = billingMetrics;
+        AtomicInteger count = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(Math.max(1, writerThreads), task -> {
+            Thread thread = new Thread(task, "sse-writer-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timeout = timeout;
+        this.maxSubscribers = maxSubscribers;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.reloadThreshold = Math.max(1, reloadThreshold);
+        this.heartbeatNanos = heartbeatInterval * 1_000_000L;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        writers.shutdown();
+    }
+    
+    public SseEmitter subscribe() {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many event subscribers");
+        }
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeout));
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(e -> remove(subscriber));
+        subscribers.add(subscriber);
+        billingMetrics.eventSubscribers(subscriberCount.get());
+        
+        // Current stats straight away, so a reconnect after a drop needs no separate fetch
+        subscriber.offer(null, dashboardFrame());
+        schedule(subscriber);
+        return subscriber.emitter;
+    }
+    
+    // --- write-path hooks ---
+    
+    public void saved(Tombstone.EntityType type, Long id) {
+        record(type, id, LiveEvent.Op.UPSERT);
+    }
+    
+    public void deleted(Tombstone.EntityType type, Long id) {
+        record(type, id, LiveEvent.Op.DELETE);
+    }
+    
+    public void saved(Tombstone.EntityType type, Collection<Long> ids) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        if (ids.size() > reloadThreshold) {
+            AfterCommit.run(() -> reload(type));
+        } else {
+            ids.forEach(id -> record(type, id, LiveEvent.Op.UPSERT));
+        }
+    }
+    
+    // A subscriber joining between this check and the commit fetches current state anyway
+    private void record(Tombstone.EntityType type, Long id, LiveEvent.Op op) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            inboxLock.lock();
+            try {
+                if (reloads.contains(type)) {
+                    return;
+                }
+                Map<Long, LiveEvent.Op> changes = inbox.computeIfAbsent(type, t -> new LinkedHashMap<>());
+                changes.put(id, op);
+                if (changes.size() > reloadThreshold) {
+                    inbox.remove(type);
+                    reloads.add(type);
+                }
+            } finally {
+                inboxLock.unlock();
+            }
+        });
+    }
+    
+    private void reload(Tombstone.EntityType type) {
+        inboxLock.lock();
+        try {
+            inbox.remove(type);
+            reloads.add(type);
+        } finally {
+            inboxLock.unlock();
+        }
+    }
+    
+    // --- fan-out ---
+    
+    @Scheduled(fixedDelayString = "${app.events.flush-interval:250}")
+    public void flush() {
+        Map<Tombstone.EntityType, Map<Long, LiveEvent.Op>> changes;
+        Set<Tombstone.EntityType> reloaded;
+        boolean heartbeat;
+        inboxLock.lock();
+        try {
+            changes = inbox;
+            reloaded = reloads;
+            inbox = new EnumMap<>(Tombstone.EntityType.class);
+            reloads = EnumSet.noneOf(Tombstone.EntityType.class);
+            long now = System.nanoTime();
+            heartbeat = changes.isEmpty() && reloaded.isEmpty() && now - lastFrame >= heartbeatNanos;
+            if (heartbeat || !changes.isEmpty() || !reloaded.isEmpty()) {
+                lastFrame = now;
+            }
+        } finally {
+            inboxLock.unlock();
+        }
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        
+        Set<DataWithMediaType> changesFrame = null;
+        Set<DataWithMediaType> dashboardFrame = null;
+        if (!changes.isEmpty() || !reloaded.isEmpty()) {
+            List<LiveEvent> events = new ArrayList<>();
+            reloaded.forEach(type -> events.add(new LiveEvent(type, null, LiveEvent.Op.RELOAD)));
+            changes.forEach((type, ops) -> ops.forEach((id, op) -> events.add(new LiveEvent(type, id, op))));
+            changesFrame = SseEmitter.event().name("changes").data(toJson(events)).build();
+            dashboardFrame = dashboardFrame();
+        } else if (heartbeat) {
+            // Keeps proxies from closing idle streams and finds connections that went away
+            changesFrame = SseEmitter.event().comment("ping").build();
+        } else {
+            return;
+        }
+        
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.offer(changesFrame, dashboardFrame)) {
+                schedule(subscriber);
+            } else {
+                log.debug("Dropping event subscriber {} frames behind", bufferSize);
+                billingMetrics.eventSubscriberDropped();
+                close(subscriber);
+            }
+        }
+    }
+    
+    private Set<DataWithMediaType> dashboardFrame() {
+        return SseEmitter.event().name("dashboard").data(toJson(dashboardService.getDashboardStats())).build();
+    }
+    
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize event", e);
+        }
+    }
+    
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.startDraining()) {
+            writers.execute(() -> drain(subscriber));
+        }
+    }
+    
+    private void drain(Subscriber subscriber) {
+        Set<DataWithMediaType> frame;
+        while ((frame = subscriber.next()) != null) {
+            try {
+                subscriber.emitter.send(frame);
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; the emitter's error callback removes it
+                remove(subscriber);
+                return;
+            }
+        }
+        if (subscriber.takeCompletion()) {
+            subscriber.emitter.complete();
+        }
+    }
+    
+    private void remove(Subscriber subscriber) {
+        subscriber.close(false);
+        if (subscribers.remove(subscriber)) {
+            billingMetrics.eventSubscribers(subscriberCount.decrementAndGet());
+        }
+    }
+    
+    // Never blocks the flush: an emitter mid-write is completed by its writer once the write returns
+    private void close(Subscriber subscriber) {
+        boolean idle = subscriber.close(true);
+        if (subscribers.remove(subscriber)) {
+            billingMetrics.eventSubscribers(subscriberCount.decrementAndGet());
+        }
+        if (idle) {
+            writers.execute(subscriber.emitter::complete);
+        }
+    }
+    
+    /** One connection's pending frames; a newer dashboard frame replaces an unsent one. */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Deque<Set<DataWithMediaType>> frames = new ArrayDeque<>();
+        private Set<DataWithMediaType> dashboard;
+        private boolean draining;
+        private boolean closed;
+        private boolean completeWhenIdle;
+        
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+        
+        /** False when the buffer is already full. */
+        boolean offer(Set<DataWithMediaType> frame, Set<DataWithMediaType> dashboardFrame) {
+            lock.lock();
+            try {
+                if (closed) {
+                    return true;
+                }
+                if (frame != null) {
+                    if (frames.size() >= bufferSize) {
+                        return false;
+                    }
+                    frames.add(frame);
+                }
+                if (dashboardFrame != null) {
+                    dashboard = dashboardFrame;
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        boolean startDraining() {
+            lock.lock();
+            try {
+                if (draining || closed || (frames.isEmpty() && dashboard == null)) {
+                    return false;
+                }
+                draining = true;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        /** The next frame to write, or null once there is none and draining has stopped. */
+        Set<DataWithMediaType> next() {
+            lock.lock();
+            try {
+                Set<DataWithMediaType> frame = closed ? null : frames.poll();
+                if (frame == null && !closed) {
+                    frame = dashboard;
+                    dashboard = null;
+                }
+                if (frame == null) {
+                    draining = false;
+                }
+                return frame;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        /**
+         * Marks the subscriber closed. With {@code complete}, returns true if the caller
+         * should complete the emitter now, false if the writer using it will.
+         */
+        boolean close(boolean complete) {
+            lock.lock();
+            try {
+                if (closed) {
+                    return false;
+                }
+                closed = true;
+                frames.clear();
+                dashboard = null;
+                completeWhenIdle = complete && draining;
+                return complete && !draining;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        boolean takeCompletion() {
+            lock.lock();
+            try {
+                boolean complete = completeWhenIdle;
+                completeWhenIdle = false;
+                return complete;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.mis.invoicing.service;
+
+import com.mis.invoicing.model.NumberSeries;
+import com.mis.invoicing.repository.NumberSeriesRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out per-financial-year document numbers such as {@code INV/2026-27/000123}.
+ * Each instance reserves a block of numbers from the {@code number_series} table
+ * under a row lock and then serves that block from memory without locking.
+ */
+@Service
+public class NumberAllocator {
+    public static final String INVOICE_PREFIX = "INV";
+    public static final String ESTIMATE_PREFIX = "EST";
+    
+    private static final int MAX_RESERVE_ATTEMPTS = 3;
+    
+    private final NumberSeriesRepository seriesRepository;
+    private final TransactionTemplate reserveTx;
+    private final int blockSize;
+    private final ZoneId zone;
+    
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+    
+    public NumberAllocator(NumberSeriesRepository seriesRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.numbering.block-size:50}") int blockSize,
+                           @Value("${app.numbering.zone:Asia/Kolkata}") String zone) {
+        this.seriesRepository = seriesRepository;
+        this.reserveTx = new TransactionTemplate(transactionManager);
+        // Reservations commit on their own so a rolled-back caller never hands numbers out twice
+        this.reserveTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = Math.max(1, blockSize);
+        this.zone = ZoneId.of(zone);
+    }
+    
+    public String nextInvoiceNumber() {
+        return next(INVOICE_PREFIX);
+    }
+    
+    public String nextEstimateNumber() {
+        return next(ESTIMATE_PREFIX);
+    }
+    
+    public String next(String prefix) {
+        String key = prefix + "/" + financialYear(LocalDate.now(zone));
+        long value = series.computeIfAbsent(key, Series::new).next();
+        return format(key, value);
+    }
+    
+    // Indian financial year runs April to March, e.g. 2026-27
+    static String financialYear(LocalDate date) {
+        int start = date.getMonthValue() >= 4 ? date.getYear() : date.getYear() - 1;
+        int end = (start + 1) % 100;
+        return start + "-" + (end < 10 ? "0" : "") + end;
+    }
+    
+    static String format(String key, long value) {
+        String digits = Long.toString(value);
+        StringBuilder sb = new StringBuilder(key.length() + 8).append(key).append('/');
+        for (int i = digits.length(); i < 6; i++) {
+            sb.append('0');
+        }
+        return sb.append(digits).toString();
+    }
+    
+    private Block reserve(String key) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return reserveTx.execute(status -> {
+                    NumberSeries row = seriesRepository.findForUpdate(key).orElseGet(() -> {
+                        seriesRepository.insert(key, 1L);
+                        return seriesRepository.findForUpdate(key).orElseThrow();
+                    });
+                    long start = row.getNextValue();
+                    row.setNextValue(start + blockSize);
+                    return new Block(start, start + blockSize);
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Another instance created the series row first; lock and use it
+                if (attempt >= MAX_RESERVE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+    
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+        
+        Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+    
+    private final class Series {
+        private final String key;
+        private final ReentrantLock refillLock = new ReentrantLock();
+        private volatile Block current = new Block(0, 0);
+        
+        Series(String key) {
+            this.key = key;
+        }
+        
+        long next() {
+            while (true) {
+                Block block = current;
+                long value = block.next.getAndIncrement();
+                if (value < block.end) {
+                    return value;
+                }
+                refill(block);
+            }
+        }
+        
+        private void refill(Block exhausted) {
+            refillLock.lock();
+            try {
+                if (current == exhausted) {
+                    current = reserve(key);
+                }
+            } finally {
+                refillLock.unlock();
+            }
+        }
+    }
+}
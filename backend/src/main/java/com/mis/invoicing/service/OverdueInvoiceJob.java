@@ -0,0 +1,159 @@
+package com.mis.invoicing.service;
+
+import com.mis.invoicing.model.BatchCheckpoint;
+import com.mis.invoicing.model.Invoice;
+import com.mis.invoicing.model.Tombstone;
+import com.mis.invoicing.repository.BatchCheckpointRepository;
+import com.mis.invoicing.repository.InvoiceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves PENDING invoices past their due date to OVERDUE. Work is done in short
+ * chunked transactions with bulk UPDATEs, and each chunk commits its progress to
+ * {@code batch_checkpoints} together with the status change, so a restart picks
+ * up an interrupted run instead of starting over.
+ */
+@Slf4j
+@Service
+public class OverdueInvoiceJob {
+    public static final String JOB_NAME = "overdue-invoices";
+    
+    private final InvoiceRepository invoiceRepository;
+    private final BatchCheckpointRepository checkpointRepository;
+    private final DashboardAggregates dashboardAggregates;
+    private final LiveUpdates liveUpdates;
+    private final BillingMetrics billingMetrics;
+    private final TransactionTemplate chunkTx;
+    private final int chunkSize;
+    private final ZoneId zone;
+    private final ReentrantLock runLock = new ReentrantLock();
+    
+    public OverdueInvoiceJob(InvoiceRepository invoiceRepository,
+                             BatchCheckpointRepository checkpointRepository,
+                             DashboardAggregates dashboardAggregates,
+                             LiveUpdates liveUpdates,
+                             BillingMetrics billingMetrics,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.overdue.chunk-size:1000}") int chunkSize,
+                             @Value("${app.overdue.zone:Asia/Kolkata}") String zone) {
+        this.invoiceRepository = invoiceRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.dashboardAggregates = dashboardAggregates;
+        this.liveUpdates = liveUpdates;
+        this.billingMetrics = billingMetrics;
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.zone = ZoneId.of(zone);
+    }
+    
+    /** Today in the zone due dates are judged in; what a run without an explicit date uses. */
+    public LocalDate today() {
+        return LocalDate.now(zone);
+    }
+    
+    public Optional<BatchCheckpoint> getLastRun() {
+        return checkpointRepository.findById(JOB_NAME);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedRun() {
+        getLastRun()
+                .filter(checkpoint -> checkpoint.getStatus() == BatchCheckpoint.RunStatus.RUNNING)
+                .ifPresent(checkpoint -> {
+                    log.info("Resuming overdue invoice run for {} after {} row(s)",
+                            checkpoint.getAsOfDate(), checkpoint.getRowsUpdated());
+                    run(checkpoint.getAsOfDate());
+                });
+    }
+    
+    @Scheduled(cron = "${app.overdue.cron:0 15 0 * * *}", zone = "${app.overdue.zone:Asia/Kolkata}")
+    public void runScheduled() {
+        run(today());
+    }
+    
+    public BatchCheckpoint run(LocalDate asOf) {
+        if (!runLock.tryLock()) {
+            // Already running in this instance; report progress instead of overlapping
+            return getLastRun().orElseThrow();
+        }
+        try {
+            BatchCheckpoint checkpoint = chunkTx.execute(status -> begin(asOf));
+            long started = System.nanoTime();
+            
+            int processed;
+            do {
+                processed = chunkTx.execute(status -> processChunk(checkpoint.getAsOfDate()));
+            } while (processed == chunkSize);
+            
+            long durationMs = (System.nanoTime() - started) / 1_000_000;
+            BatchCheckpoint finished = chunkTx.execute(status -> finish(durationMs));
+            log.info("Overdue invoice run for {} updated {} row(s) in {} chunk(s), {} ms",
+                    finished.getAsOfDate(), finished.getRowsUpdated(), finished.getChunks(), durationMs);
+            billingMetrics.overdueRunFinished(durationMs, finished.getRowsUpdated());
+            return finished;
+        } finally {
+            runLock.unlock();
+        }
+    }
+    
+    private BatchCheckpoint begin(LocalDate asOf) {
+        BatchCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                .orElseGet(() -> new BatchCheckpoint(JOB_NAME, null, null, null, 0, 0, null, null, null));
+        if (checkpoint.getStatus() != BatchCheckpoint.RunStatus.RUNNING) {
+            checkpoint.setStatus(BatchCheckpoint.RunStatus.RUNNING);
+            checkpoint.setAsOfDate(asOf);
+            checkpoint.setLastProcessedId(null);
+            checkpoint.setRowsUpdated(0);
+            checkpoint.setChunks(0);
+            checkpoint.setStartedAt(LocalDateTime.now());
+            checkpoint.setFinishedAt(null);
+        }
+        return checkpointRepository.save(checkpoint);
+    }
+    
+    private int processChunk(LocalDate asOf) {
+        List<Long> ids = invoiceRepository.findIdsDueBefore(
+                Invoice.InvoiceStatus.PENDING, asOf, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        
+        BigDecimal total = invoiceRepository.sumTotalByIdInAndStatus(ids, Invoice.InvoiceStatus.PENDING);
+        int updated = invoiceRepository.transitionStatus(
+                ids, Invoice.InvoiceStatus.PENDING, Invoice.InvoiceStatus.OVERDUE, LocalDateTime.now());
+        dashboardAggregates.invoicesTransitioned(
+                Invoice.InvoiceStatus.PENDING, Invoice.InvoiceStatus.OVERDUE, updated, total);
+        liveUpdates.saved(Tombstone.EntityType.INVOICE, ids);
+        
+        BatchCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME).orElseThrow();
+        checkpoint.setLastProcessedId(ids.get(ids.size() - 1));
+        checkpoint.setRowsUpdated(checkpoint.getRowsUpdated() + updated);
+        checkpoint.setChunks(checkpoint.getChunks() + 1);
+        checkpointRepository.save(checkpoint);
+        return ids.size();
+    }
+    
+    private BatchCheckpoint finish(long durationMs) {
+        BatchCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME).orElseThrow();
+        checkpoint.setStatus(BatchCheckpoint.RunStatus.COMPLETED);
+        checkpoint.setFinishedAt(LocalDateTime.now());
+        checkpoint.setLastDurationMs(durationMs);
+        return checkpointRepository.save(checkpoint);
+    }
+}
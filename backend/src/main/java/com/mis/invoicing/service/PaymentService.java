@@ -1,67 +1,161 @@
 package com.mis.invoicing.service;
 
+import com.mis.invoicing.dto.CursorPage;
+import com.mis.invoicing.dto.PaymentRow;
 import com.mis.invoicing.model.Invoice;
 import com.mis.invoicing.model.Payment;
+import com.mis.invoicing.model.Tombstone;
 import com.mis.invoicing.repository.InvoiceRepository;
 import com.mis.invoicing.repository.PaymentRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
 @Service
-@RequiredArgsConstructor
 public class PaymentService {
+    private static final int MAX_LEDGER_ATTEMPTS = 8;
+    
     private final PaymentRepository paymentRepository;
     private final InvoiceRepository invoiceRepository;
+    private final DashboardAggregates dashboardAggregates;
+    private final RevenueRollup revenueRollup;
+    private final BillingMetrics billingMetrics;
+    private final ChangeFeed changeFeed;
+    private final LiveUpdates liveUpdates;
+    private final TransactionTemplate ledgerTx;
+    
+    public PaymentService(PaymentRepository paymentRepository,
+                          InvoiceRepository invoiceRepository,
+                          DashboardAggregates dashboardAggregates,
+                          RevenueRollup revenueRollup,
+                          BillingMetrics billingMetrics,
+                          ChangeFeed changeFeed,
+                          LiveUpdates liveUpdates,
+                          PlatformTransactionManager transactionManager) {
+        this.paymentRepository = paymentRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.dashboardAggregates = dashboardAggregates;
+        this.revenueRollup = revenueRollup;
+        this.billingMetrics = billingMetrics;
+        this.changeFeed = changeFeed;
+        this.liveUpdates = liveUpdates;
+        this.ledgerTx = new TransactionTemplate(transactionManager);
+    }
+    
+    public List<PaymentRow> getAllPayments() {
+        return paymentRepository.findPage(null, null, null, null, null, Pageable.unpaged());
+    }
     
-    public List<Payment> getAllPayments() {
-        return paymentRepository.findAll();
+    public CursorPage<PaymentRow> getPaymentPage(String cursor, Integer limit, Long invoiceId,
+                                              Long clientId, LocalDate from, LocalDate to) {
+        int pageSize = CursorPage.clampLimit(limit);
+        LocalDateTime fromTime = from != null ? from.atStartOfDay() : null;
+        LocalDateTime toTime = to != null ? to.plusDays(1).atStartOfDay() : null;
+        List<PaymentRow> rows = paymentRepository.findPage(CursorPage.decodeCursor(cursor), invoiceId, clientId,
+                fromTime, toTime, CursorPage.probe(pageSize));
+        return CursorPage.of(rows, pageSize, PaymentRow::getId);
     }
     
     public Optional<Payment> getPaymentById(@NonNull Long id) {
-        return paymentRepository.findById(id);
+        return paymentRepository.findDetailedById(id);
     }
     
-    public List<Payment> getPaymentsByInvoiceId(@NonNull Long invoiceId) {
-        return paymentRepository.findByInvoiceId(invoiceId);
+    /** Changes whenever {@link #getPaymentById} would return something different; empty if there is no such payment. */
+    public Optional<String> getPaymentVersion(@NonNull Long id) {
+        return paymentRepository.findVersionStamp(id);
+    }
+    
+    public List<PaymentRow> getPaymentsByInvoiceId(@NonNull Long invoiceId) {
+        return paymentRepository.findPage(null, invoiceId, null, null, null, Pageable.unpaged());
     }
     
     public Payment recordPayment(@NonNull Long invoiceId, Payment payment) {
-        Invoice invoice = invoiceRepository.findById(invoiceId)
-                .orElseThrow(() -> new RuntimeException("Invoice not found with id: " + invoiceId));
-        
-        payment.setInvoice(invoice);
-        Payment savedPayment = paymentRepository.save(payment);
-        
-        // Check if invoice is fully paid
-        updateInvoiceStatus(invoiceId);
-        
-        return savedPayment;
+        Payment saved = billingMetrics.recordPayment(() -> withRetry(() -> ledgerTx.execute(status -> {
+            Invoice invoice = invoiceRepository.findByIdForUpdate(invoiceId)
+                    .orElseThrow(() -> new RuntimeException("Invoice not found with id: " + invoiceId));
+            
+            // A previous attempt may have assigned an id before rolling back
+            payment.setId(null);
+            payment.setInvoice(invoice);
+            Payment savedPayment = paymentRepository.save(payment);
+            
+            applyToLedger(invoice, payment.getAmount());
+            dashboardAggregates.paymentRecorded();
+            liveUpdates.saved(Tombstone.EntityType.PAYMENT, savedPayment.getId());
+            revenueRollup.paymentRecorded(savedPayment);
+            return savedPayment;
+        })));
+        billingMetrics.paymentAmount(saved.getAmount());
+        return saved;
     }
     
     public void deletePayment(@NonNull Long id) {
-        Payment payment = paymentRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Payment not found with id: " + id));
-        Long invoiceId = java.util.Objects.requireNonNull(payment.getInvoice().getId());
-        
-        paymentRepository.deleteById(id);
-        
-        // Recalculate invoice status after deleting payment
-        updateInvoiceStatus(invoiceId);
+        withRetry(() -> ledgerTx.execute(status -> {
+            Payment payment = paymentRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Payment not found with id: " + id));
+            Invoice invoice = invoiceRepository.findByIdForUpdate(payment.getInvoice().getId()).orElseThrow();
+            
+            paymentRepository.delete(payment);
+            changeFeed.deleted(Tombstone.EntityType.PAYMENT, id);
+            
+            applyToLedger(invoice, payment.getAmount().negate());
+            dashboardAggregates.paymentDeleted();
+            liveUpdates.deleted(Tombstone.EntityType.PAYMENT, id);
+            revenueRollup.paymentDeleted(payment);
+            return null;
+        }));
     }
     
-    private void updateInvoiceStatus(@NonNull Long invoiceId) {
-        Invoice invoice = invoiceRepository.findById(invoiceId).orElseThrow();
-        BigDecimal totalPayments = paymentRepository.getTotalPaymentsByInvoiceId(invoiceId);
+    // Moves the running balance by the payment amount. Ledger writers serialize on the
+    // invoice row lock; the @Version check still catches edits made outside the ledger.
+    private void applyToLedger(Invoice invoice, BigDecimal amount) {
+        Invoice.InvoiceStatus previousStatus = invoice.getStatus();
+        BigDecimal paid = invoice.getAmountPaid() != null ? invoice.getAmountPaid() : BigDecimal.ZERO;
+        
+        invoice.setAmountPaid(paid.add(amount));
+        invoice.setBalanceDue(invoice.getTotal().subtract(invoice.getAmountPaid()));
         
-        if (totalPayments != null && totalPayments.compareTo(invoice.getTotal()) >= 0) {
+        if (invoice.getBalanceDue().signum() <= 0) {
             invoice.setStatus(Invoice.InvoiceStatus.PAID);
-        } else {
+        } else if (previousStatus == Invoice.InvoiceStatus.PAID) {
             invoice.setStatus(Invoice.InvoiceStatus.PENDING);
         }
-        invoiceRepository.save(invoice);
+        Invoice saved = invoiceRepository.saveAndFlush(invoice);
+        dashboardAggregates.invoiceSaved(previousStatus, saved.getTotal(), saved);
+        liveUpdates.saved(Tombstone.EntityType.INVOICE, saved.getId());
+    }
+    
+    // Jittered so writers racing on the same invoice don't collide again in lockstep
+    private static void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 5L << Math.min(attempt, 5)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying payment ledger update", e);
+        }
+    }
+    
+    private <T> T withRetry(Supplier<T> ledgerOperation) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return ledgerOperation.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_LEDGER_ATTEMPTS) {
+                    throw e;
+                }
+                billingMetrics.ledgerRetried();
+                backoff(attempt);
+            }
+        }
     }
 }
@@ -0,0 +1,95 @@
+package com.mis.invoicing.service;
+
+import com.mis.invoicing.dto.CursorPage;
+import com.mis.invoicing.dto.HsnSummary;
+import com.mis.invoicing.dto.ItemSummary;
+import com.mis.invoicing.dto.RevenuePoint;
+import com.mis.invoicing.model.DailyRevenue;
+import com.mis.invoicing.repository.DailyRevenueRepository;
+import com.mis.invoicing.repository.LineItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class ReportService {
+    private static final int DEFAULT_SERIES_DAYS = 30;
+    
+    private final LineItemRepository lineItemRepository;
+    private final DailyRevenueRepository dailyRevenueRepository;
+    private final RevenueRollup revenueRollup;
+    
+    public enum Granularity {
+        DAY, WEEK, MONTH
+    }
+    
+    private record SeriesKey(LocalDate periodStart, String category) {
+    }
+    
+    public List<HsnSummary> getHsnSummary(LocalDate from, LocalDate to) {
+        return lineItemRepository.summarizeByHsn(startOf(from), endOf(to));
+    }
+    
+    public List<ItemSummary> getTopItems(LocalDate from, LocalDate to, Integer limit) {
+        return lineItemRepository.summarizeByItem(startOf(from), endOf(to),
+                PageRequest.of(0, CursorPage.clampLimit(limit)));
+    }
+    
+    /**
+     * Revenue time series read from the daily rollup only, so its cost depends on the
+     * number of days and categories, not on invoice volume. Weeks start on Monday.
+     */
+    public List<RevenuePoint> getRevenueSeries(LocalDate from, LocalDate to, Granularity granularity,
+                                               boolean byCategory) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_SERIES_DAYS - 1);
+        Granularity step = granularity != null ? granularity : Granularity.DAY;
+        // Make this instance's own recent writes visible before reading
+        revenueRollup.flush();
+        
+        Map<SeriesKey, RevenuePoint> points = new LinkedHashMap<>();
+        for (DailyRevenue day : dailyRevenueRepository.findRange(start, end)) {
+            LocalDate period = periodStart(day.getRevenueDate(), step);
+            String category = byCategory && !day.getCategory().isEmpty() ? day.getCategory() : null;
+            RevenuePoint point = points.computeIfAbsent(new SeriesKey(period, category), k -> new RevenuePoint(period, category, 0,
+                    BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, 0, BigDecimal.ZERO));
+            point.setInvoices(point.getInvoices() + day.getInvoiceCount());
+            point.setTaxableValue(point.getTaxableValue().add(day.getTaxableValue()));
+            point.setTaxAmount(point.getTaxAmount().add(day.getTaxAmount()));
+            point.setInvoiced(point.getInvoiced().add(day.getInvoicedTotal()));
+            point.setPayments(point.getPayments() + day.getPaymentCount());
+            point.setReceived(point.getReceived().add(day.getPaymentsReceived()));
+        }
+        List<RevenuePoint> series = new ArrayList<>(points.values());
+        series.sort(Comparator.comparing(RevenuePoint::getPeriodStart)
+                .thenComparing(RevenuePoint::getCategory, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return series;
+    }
+    
+    private static LocalDate periodStart(LocalDate date, Granularity granularity) {
+        return switch (granularity) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+    
+    private static LocalDateTime startOf(LocalDate from) {
+        return from != null ? from.atStartOfDay() : null;
+    }
+    
+    private static LocalDateTime endOf(LocalDate to) {
+        return to != null ? to.plusDays(1).atStartOfDay() : null;
+    }
+}
@@ -0,0 +1,355 @@
+package com.mis.invoicing.service;
+
+import com.mis.invoicing.model.Client;
+import com.mis.invoicing.model.Invoice;
+import com.mis.invoicing.model.Job;
+import com.mis.invoicing.model.Payment;
+import com.mis.invoicing.repository.ClientRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the {@code daily_revenue} rollup in step with invoices and payments.
+ * Write paths report deltas that are applied in memory after their transaction
+ * commits and upserted in one batch on a short interval, so concurrent writers
+ * never contend on the same rollup row. A backfill recomputes any date range from
+ * the raw tables; it runs on startup when the rollup is empty, nightly for the
+ * last few days, and on demand as a background job (e.g. after an unclean
+ * shutdown or a change of client category).
+ */
+@Slf4j
+@Component
+public class RevenueRollup implements JobHandler {
+    // Delta slots; amounts are in paise
+    private static final int INVOICES = 0;
+    private static final int TAXABLE = 1;
+    private static final int TAX = 2;
+    private static final int INVOICED = 3;
+    private static final int PAYMENTS = 4;
+    private static final int RECEIVED = 5;
+    private static final int SLOTS = 6;
+    
+    // Days recomputed per transaction (and per checkpoint) by a backfill job
+    private static final int BACKFILL_SLICE_DAYS = 366;
+    
+    private static final String UPDATE_SQL = "UPDATE daily_revenue SET invoice_count = invoice_count + ?, "
+            + "taxable_value = taxable_value + ?, tax_amount = tax_amount + ?, invoiced_total = invoiced_total + ?, "
+            + "payment_count = payment_count + ?, payments_received = payments_received + ? "
+            + "WHERE revenue_date = ? AND category = ?";
+    private static final String INSERT_SQL = "INSERT INTO daily_revenue (invoice_count, taxable_value, tax_amount, "
+            + "invoiced_total, payment_count, payments_received, revenue_date, category) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INVOICE_TOTALS_SQL = "SELECT CAST(i.created_at AS DATE), COALESCE(c.category, ''), "
+            + "COUNT(*), SUM(COALESCE(i.subtotal, 0)), "
+            + "SUM(COALESCE(i.cgst, 0) + COALESCE(i.sgst, 0) + COALESCE(i.igst, 0)), SUM(COALESCE(i.total, 0)) "
+            + "FROM invoices i JOIN clients c ON c.id = i.client_id "
+            + "WHERE i.created_at >= ? AND i.created_at < ? "
+            + "GROUP BY CAST(i.created_at AS DATE), COALESCE(c.category, '')";
+    private static final String PAYMENT_TOTALS_SQL = "SELECT CAST(p.payment_date AS DATE), COALESCE(c.category, ''), "
+            + "COUNT(*), SUM(p.amount) "
+            + "FROM payments p JOIN invoices i ON i.id = p.invoice_id JOIN clients c ON c.id = i.client_id "
+            + "WHERE p.payment_date >= ? AND p.payment_date < ? "
+            + "GROUP BY CAST(p.payment_date AS DATE), COALESCE(c.category, '')";
+    
+    private final JdbcTemplate jdbc;
+    private final ClientRepository clientRepository;
+    private final TransactionTemplate writeTx;
+    private final int reconcileDays;
+    
+    // Deltas committed but not yet written; guarded by pendingLock
+    private Map<Key, long[]> pending = new HashMap<>();
+    private final ReentrantLock pendingLock = new ReentrantLock();
+    // Serializes flushes and backfills, so a backfilled range is never overwritten by older deltas
+    private final ReentrantLock writeLock = new ReentrantLock();
+    
+    private record Key(LocalDate date, String category) {
+    }
+    
+    /** Amounts of an invoice before an edit, so the edit can be applied as a delta. */
+    public record Snapshot(long taxable, long tax, long invoiced) {
+        public static Snapshot of(Invoice invoice) {
+            return new Snapshot(toPaise(invoice.getSubtotal()),
+                    toPaise(invoice.getCgst()) + toPaise(invoice.getSgst()) + toPaise(invoice.getIgst()),
+                    toPaise(invoice.getTotal()));
+        }
+    }
+    
+    public RevenueRollup(JdbcTemplate jdbc,
+                         ClientRepository clientRepository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${app.revenue.reconcile-days:3}") int reconcileDays) {
+        this.jdbc = jdbc;
+        this.clientRepository = clientRepository;
+        this.writeTx = new TransactionTemplate(transactionManager);
+        this.reconcileDays = Math.max(1, reconcileDays);
+    }
+    
+    // --- write-path hooks ---
+    
+    public void invoiceCreated(Invoice invoice) {
+        invoiceChanged(invoice, 1, new Snapshot(0, 0, 0), Snapshot.of(invoice));
+    }
+    
+    public void invoiceUpdated(Snapshot before, Invoice invoice) {
+        invoiceChanged(invoice, 0, before, Snapshot.of(invoice));
+    }
+    
+    public void invoiceDeleted(Invoice invoice) {
+        invoiceChanged(invoice, -1, Snapshot.of(invoice), new Snapshot(0, 0, 0));
+    }
+    
+    public void paymentRecorded(Payment payment) {
+        paymentChanged(payment, 1);
+    }
+    
+    public void paymentDeleted(Payment payment) {
+        paymentChanged(payment, -1);
+    }
+    
+    private void invoiceChanged(Invoice invoice, int count, Snapshot before, Snapshot after) {
+        long[] delta = new long[SLOTS];
+        delta[INVOICES] = count;
+        delta[TAXABLE] = after.taxable() - before.taxable();
+        delta[TAX] = after.tax() - before.tax();
+        delta[INVOICED] = after.invoiced() - before.invoiced();
+        if (count == 0 && delta[TAXABLE] == 0 && delta[TAX] == 0 && delta[INVOICED] == 0) {
+            return;
+        }
+        Key key = new Key(invoice.getCreatedAt().toLocalDate(), categoryOf(invoice.getClient()));
+        AfterCommit.run(() -> add(key, delta));
+    }
+    
+    private void paymentChanged(Payment payment, int sign) {
+        long[] delta = new long[SLOTS];
+        delta[PAYMENTS] = sign;
+        delta[RECEIVED] = sign * toPaise(payment.getAmount());
+        Key key = new Key(payment.getPaymentDate().toLocalDate(), categoryOf(payment.getInvoice().getClient()));
+        AfterCommit.run(() -> add(key, delta));
+    }
+    
+    // Resolved from the second-level cache when the caller only holds a proxy
+    private String categoryOf(Client client) {
+        String category = Hibernate.isInitialized(client) ? client.getCategory()
+                : clientRepository.findById(client.getId()).map(Client::getCategory).orElse(null);
+        return category != null ? category : "";
+    }
+    
+    private void add(Key key, long[] delta) {
+        pendingLock.lock();
+        try {
+            long[] totals = pending.computeIfAbsent(key, k -> new long[SLOTS]);
+            for (int i = 0; i < SLOTS; i++) {
+                totals[i] += delta[i];
+            }
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+    
+    private Map<Key, long[]> drain() {
+        pendingLock.lock();
+        try {
+            Map<Key, long[]> drained = pending;
+            pending = new HashMap<>();
+            return drained;
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+    
+    // --- flush ---
+    
+    @Scheduled(fixedDelayString = "${app.revenue.flush-interval:5000}",
+               initialDelayString = "${app.revenue.flush-interval:5000}")
+    public void flush() {
+        writeLock.lock();
+        try {
+            writePending();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    private void writePending() {
+        Map<Key, long[]> deltas = drain();
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            writeTx.executeWithoutResult(status -> upsert(deltas));
+        } catch (RuntimeException e) {
+            // Keep them for the next flush; a concurrent insert of the same day by another instance lands here too
+            deltas.forEach(this::add);
+            log.warn("Revenue rollup flush of {} row(s) failed, will retry: {}", deltas.size(), e.getMessage());
+        }
+    }
+    
+    private void upsert(Map<Key, long[]> deltas) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> rows.add(row(key, delta)));
+        int[] updated = jdbc.batchUpdate(UPDATE_SQL, rows);
+        List<Object[]> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(rows.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbc.batchUpdate(INSERT_SQL, missing);
+        }
+    }
+    
+    // --- backfill ---
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        Long rows = jdbc.queryForObject("SELECT COUNT(*) FROM daily_revenue", Long.class);
+        if (rows != null && rows == 0) {
+            backfill(null, null);
+        }
+    }
+    
+    @Scheduled(cron = "${app.revenue.reconcile-cron:0 45 0 * * *}", zone = "${app.overdue.zone:Asia/Kolkata}")
+    public void reconcile() {
+        LocalDate today = LocalDate.now();
+        backfill(today.minusDays(reconcileDays - 1L), today);
+    }
+    
+    /**
+     * Recomputes the rollup for {@code from}..{@code to} (inclusive) from the raw
+     * tables in one transaction: one grouped scan each of invoices and payments, and
+     * at most one row per day and category written. Open bounds default to the first
+     * recorded activity and today.
+     *
+     * @return rollup rows written
+     */
+    public int backfill(LocalDate from, LocalDate to) {
+        LocalDate start = from != null ? from : firstActivity();
+        LocalDate end = to != null ? to : LocalDate.now();
+        if (start == null || start.isAfter(end)) {
+            return 0;
+        }
+        long started = System.nanoTime();
+        int written = recompute(start, end.plusDays(1));
+        log.info("Revenue rollup backfilled {} .. {}: {} row(s) in {} ms",
+                start, end, written, (System.nanoTime() - started) / 1_000_000);
+        return written;
+    }
+    
+    @Override
+    public Job.JobType type() {
+        return Job.JobType.REVENUE_BACKFILL;
+    }
+    
+    /**
+     * Backfill job over the {@code from}..{@code to} parameters, one slice of about a
+     * year at a time; the checkpoint is the last day recomputed. Progress is in days.
+     */
+    @Override
+    public Map<String, Object> run(JobContext job) {
+        LocalDate from = job.param("from") != null ? LocalDate.parse(job.param("from")) : firstActivity();
+        LocalDate to = job.param("to") != null ? LocalDate.parse(job.param("to")) : LocalDate.now();
+        if (from == null || from.isAfter(to)) {
+            return Map.of("days", 0);
+        }
+        job.total(ChronoUnit.DAYS.between(from, to) + 1);
+        LocalDate next = job.checkpoint() != null ? LocalDate.parse(job.checkpoint()).plusDays(1) : from;
+        while (!next.isAfter(to)) {
+            job.checkCancelled();
+            LocalDate sliceEnd = next.plusDays(BACKFILL_SLICE_DAYS - 1L);
+            if (sliceEnd.isAfter(to)) {
+                sliceEnd = to;
+            }
+            backfill(next, sliceEnd);
+            job.advance(sliceEnd.toString(), ChronoUnit.DAYS.between(next, sliceEnd) + 1, 0);
+            next = sliceEnd.plusDays(1);
+        }
+        return Map.of("from", from, "to", to, "days", job.processed());
+    }
+    
+    private LocalDate firstActivity() {
+        Timestamp invoice = jdbc.queryForObject("SELECT MIN(created_at) FROM invoices", Timestamp.class);
+        Timestamp payment = jdbc.queryForObject("SELECT MIN(payment_date) FROM payments", Timestamp.class);
+        LocalDate first = null;
+        for (Timestamp ts : new Timestamp[]{invoice, payment}) {
+            if (ts != null && (first == null || ts.toLocalDateTime().toLocalDate().isBefore(first))) {
+                first = ts.toLocalDateTime().toLocalDate();
+            }
+        }
+        return first;
+    }
+    
+    // Rewrites [from, to) in one transaction
+    private int recompute(LocalDate from, LocalDate to) {
+        writeLock.lock();
+        try {
+            // Deltas already committed for this range are part of the recount; write them first
+            // so they are replaced rather than applied twice
+            writePending();
+            return writeTx.execute(status -> {
+                LocalDateTime start = from.atStartOfDay();
+                LocalDateTime end = to.atStartOfDay();
+                Map<Key, long[]> totals = new HashMap<>();
+                jdbc.query(INVOICE_TOTALS_SQL, rs -> {
+                    long[] t = totals.computeIfAbsent(new Key(rs.getDate(1).toLocalDate(), rs.getString(2)),
+                            k -> new long[SLOTS]);
+                    t[INVOICES] = rs.getLong(3);
+                    t[TAXABLE] = toPaise(rs.getBigDecimal(4));
+                    t[TAX] = toPaise(rs.getBigDecimal(5));
+                    t[INVOICED] = toPaise(rs.getBigDecimal(6));
+                }, start, end);
+                jdbc.query(PAYMENT_TOTALS_SQL, rs -> {
+                    long[] t = totals.computeIfAbsent(new Key(rs.getDate(1).toLocalDate(), rs.getString(2)),
+                            k -> new long[SLOTS]);
+                    t[PAYMENTS] = rs.getLong(3);
+                    t[RECEIVED] = toPaise(rs.getBigDecimal(4));
+                }, start, end);
+    
+                jdbc.update("DELETE FROM daily_revenue WHERE revenue_date >= ? AND revenue_date < ?",
+                        Date.valueOf(from), Date.valueOf(to));
+                List<Object[]> rows = new ArrayList<>(totals.size());
+                totals.forEach((key, t) -> rows.add(row(key, t)));
+                jdbc.batchUpdate(INSERT_SQL, rows);
+                return rows.size();
+            });
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    // Parameter order shared by UPDATE_SQL and INSERT_SQL
+    private static Object[] row(Key key, long[] t) {
+        return new Object[]{
+                t[INVOICES], rupees(t[TAXABLE]), rupees(t[TAX]), rupees(t[INVOICED]),
+                t[PAYMENTS], rupees(t[RECEIVED]), Date.valueOf(key.date()), key.category()
+        };
+    }
+    
+    private static BigDecimal rupees(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+    
+    private static long toPaise(BigDecimal amount) {
+        return amount != null ? amount.movePointRight(2).longValue() : 0L;
+    }
+}
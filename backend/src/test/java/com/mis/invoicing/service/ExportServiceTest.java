@@ -0,0 +1,101 @@
+package com.mis.invoicing.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mis.invoicing.config.JacksonConfig;
+import com.mis.invoicing.model.Client;
+import com.mis.invoicing.model.Invoice;
+import com.mis.invoicing.model.LineItem;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports more invoices than one persistence-context block and checks every NDJSON
+ * row still carries its priced lines, and that they add up to the invoice subtotal.
+ */
+// JPA slice only; the second-level cache is not needed to exercise the export
+@DataJpaTest(showSql = false, properties = "L2_CACHE_ENABLED=false")
+@Import({ExportService.class, JacksonConfig.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class ExportServiceTest {
+    private static final int INVOICES = 520;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void ndjsonRowsCarryTheirLineItems() throws Exception {
+        Client client = new Client();
+        client.setName("Export Client");
+        entityManager.persist(client);
+
+        Map<String, Invoice> expected = new HashMap<>();
+        for (int i = 0; i < INVOICES; i++) {
+            Invoice invoice = new Invoice();
+            invoice.setClient(client);
+            invoice.setInvoiceNumber("EXP-" + i);
+            for (int line = 0; line < i % 4; line++) {
+                LineItem item = new LineItem();
+                item.setInvoice(invoice);
+                item.setDescription("Item " + line);
+                item.setQuantity(BigDecimal.valueOf(line + 1));
+                item.setUnitPrice(BigDecimal.valueOf(100 + i, 2));
+                item.setGstRate(BigDecimal.valueOf(18));
+                invoice.getLineItems().add(item);
+            }
+            if (invoice.getLineItems().isEmpty()) {
+                invoice.setSubtotal(BigDecimal.valueOf(i, 2));
+            }
+            GstCalculator.apply(invoice, false);
+            entityManager.persist(invoice);
+            expected.put(invoice.getInvoiceNumber(), invoice);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportInvoices(ExportService.Format.NDJSON, null, null, out);
+
+        List<String> rows = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(rows).hasSize(INVOICES);
+        for (String row : rows) {
+            JsonNode json = objectMapper.readTree(row);
+            Invoice invoice = expected.get(json.get("invoiceNumber").asText());
+            String at = invoice.getInvoiceNumber();
+
+            JsonNode lines = json.get("lineItems");
+            assertThat(lines.isArray()).as(at).isTrue();
+            assertThat(lines).as(at).hasSize(invoice.getLineItems().size());
+            if (lines.isEmpty()) {
+                continue;
+            }
+            BigDecimal taxable = BigDecimal.ZERO;
+            for (int i = 0; i < lines.size(); i++) {
+                assertThat(lines.get(i).get("lineNo").asInt()).as(at).isEqualTo(i + 1);
+                taxable = taxable.add(lines.get(i).get("taxableValue").decimalValue());
+            }
+            assertThat(taxable).as(at).isEqualByComparingTo(json.get("subtotal").decimalValue());
+            assertThat(taxable).as(at).isEqualByComparingTo(invoice.getSubtotal());
+        }
+    }
+}
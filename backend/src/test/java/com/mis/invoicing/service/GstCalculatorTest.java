@@ -0,0 +1,227 @@
+package com.mis.invoicing.service;
+
+import com.mis.invoicing.model.Estimate;
+import com.mis.invoicing.model.Invoice;
+import com.mis.invoicing.model.LineItem;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property checks for the fixed-point GST engine: on randomly generated documents
+ * it must produce exactly the BigDecimal reference results (value and scale), and
+ * the flat-rate Batch must agree with pricing documents one at a time. Seeds are
+ * fixed so a failure reproduces; the case number is in the assertion message.
+ */
+class GstCalculatorTest {
+    private static final int CASES = 20_000;
+    private static final String[] RATES = {"0", "5", "12", "18", "28", "5.0", "12.00", "18.0", "28.00"};
+    private static final int[] SLABS_BP = {0, 500, 1200, 1800, 2800};
+
+    @Test
+    void invoiceFixedPointMatchesDecimal() {
+        Random random = new Random(15);
+        for (int i = 0; i < CASES; i++) {
+            List<LineItem> lines = randomLines(random);
+            BigDecimal subtotal = lines.isEmpty() ? randomAmount(random, 2) : null;
+            BigDecimal paid = random.nextInt(3) == 0 ? null : randomAmount(random, random.nextInt(3));
+            boolean interState = random.nextBoolean();
+
+            Invoice fixed = invoice(lines, subtotal, paid);
+            Invoice reference = invoice(lines, subtotal, paid);
+            GstCalculator.apply(fixed, interState);
+            GstCalculator.applyDecimal(reference, interState);
+
+            String at = "case " + i + ": " + describe(lines, subtotal, paid, interState);
+            assertThat(fixed.getSubtotal()).as(at).isEqualTo(reference.getSubtotal());
+            assertThat(fixed.getCgst()).as(at).isEqualTo(reference.getCgst());
+            assertThat(fixed.getSgst()).as(at).isEqualTo(reference.getSgst());
+            assertThat(fixed.getIgst()).as(at).isEqualTo(reference.getIgst());
+            assertThat(fixed.getTotal()).as(at).isEqualTo(reference.getTotal());
+            assertThat(fixed.getBalanceDue()).as(at).isEqualTo(reference.getBalanceDue());
+            assertLinesEqual(fixed.getLineItems(), reference.getLineItems(), at);
+        }
+    }
+
+    @Test
+    void estimateFixedPointMatchesDecimal() {
+        Random random = new Random(16);
+        for (int i = 0; i < CASES; i++) {
+            List<LineItem> lines = randomLines(random);
+            BigDecimal subtotal = lines.isEmpty() ? randomAmount(random, 2) : null;
+
+            Estimate fixed = estimate(lines, subtotal);
+            Estimate reference = estimate(lines, subtotal);
+            GstCalculator.apply(fixed);
+            GstCalculator.applyDecimal(reference);
+
+            String at = "case " + i + ": " + describe(lines, subtotal, null, false);
+            assertThat(fixed.getSubtotal()).as(at).isEqualTo(reference.getSubtotal());
+            assertThat(fixed.getGstAmount()).as(at).isEqualTo(reference.getGstAmount());
+            assertThat(fixed.getTotal()).as(at).isEqualTo(reference.getTotal());
+            assertLinesEqual(fixed.getLineItems(), reference.getLineItems(), at);
+        }
+    }
+
+    // Inputs with more decimals than the columns hold fall back to BigDecimal, and must still agree
+    @Test
+    void excessScaleFallsBackToDecimal() {
+        Random random = new Random(17);
+        for (int i = 0; i < CASES / 10; i++) {
+            List<LineItem> lines = randomLines(random);
+            if (lines.isEmpty()) {
+                continue;
+            }
+            lines.get(0).setUnitPrice(randomAmount(random, 3 + random.nextInt(2)));
+            boolean interState = random.nextBoolean();
+
+            Invoice fixed = invoice(lines, null, null);
+            Invoice reference = invoice(lines, null, null);
+            GstCalculator.apply(fixed, interState);
+            GstCalculator.applyDecimal(reference, interState);
+
+            String at = "case " + i + ": " + describe(lines, null, null, interState);
+            assertThat(fixed.getTotal()).as(at).isEqualTo(reference.getTotal());
+            assertThat(fixed.getCgst()).as(at).isEqualTo(reference.getCgst());
+            assertThat(fixed.getIgst()).as(at).isEqualTo(reference.getIgst());
+            assertLinesEqual(fixed.getLineItems(), reference.getLineItems(), at);
+        }
+    }
+
+    @Test
+    void batchMatchesSingleDocuments() {
+        Random random = new Random(18);
+        GstCalculator.Batch batch = new GstCalculator.Batch(4);
+        for (int round = 0; round < 50; round++) {
+            batch.clear();
+            int rows = 1 + random.nextInt(500);
+            long[] subtotals = new long[rows];
+            int[] rates = new int[rows];
+            boolean[] interStates = new boolean[rows];
+            for (int row = 0; row < rows; row++) {
+                subtotals[row] = randomPaise(random);
+                rates[row] = SLABS_BP[random.nextInt(SLABS_BP.length)];
+                interStates[row] = random.nextBoolean();
+                assertThat(batch.add(subtotals[row], rates[row], interStates[row])).isEqualTo(row);
+            }
+            batch.compute();
+            assertThat(batch.size()).isEqualTo(rows);
+
+            for (int row = 0; row < rows; row++) {
+                String at = "round " + round + " row " + row + ": subtotal=" + subtotals[row]
+                        + " rateBp=" + rates[row] + " interState=" + interStates[row];
+                BigDecimal subtotal = BigDecimal.valueOf(subtotals[row], 2);
+                BigDecimal gst = subtotal.multiply(BigDecimal.valueOf(rates[row], 4)).setScale(2, RoundingMode.HALF_UP);
+                assertThat(batch.gst(row)).as(at).isEqualTo(paise(gst));
+                assertThat(batch.total(row)).as(at).isEqualTo(paise(subtotal.add(gst)));
+                if (interStates[row]) {
+                    assertThat(batch.igst(row)).as(at).isEqualTo(paise(gst));
+                    assertThat(batch.cgst(row)).as(at).isZero();
+                    assertThat(batch.sgst(row)).as(at).isZero();
+                } else {
+                    long half = paise(gst.divide(BigDecimal.valueOf(2), 2, RoundingMode.HALF_UP));
+                    assertThat(batch.cgst(row)).as(at).isEqualTo(half);
+                    assertThat(batch.sgst(row)).as(at).isEqualTo(half);
+                    assertThat(batch.igst(row)).as(at).isZero();
+                }
+
+                // At the default rate a batch row is the same document priced on its own
+                if (rates[row] == GstCalculator.DEFAULT_RATE_BP) {
+                    Invoice single = invoice(List.of(), subtotal, null);
+                    GstCalculator.apply(single, interStates[row]);
+                    assertThat(batch.total(row)).as(at).isEqualTo(paise(single.getTotal()));
+                    assertThat(batch.cgst(row)).as(at).isEqualTo(paise(single.getCgst()));
+                    assertThat(batch.igst(row)).as(at).isEqualTo(paise(single.getIgst()));
+                }
+            }
+        }
+    }
+
+    // --- generators ---
+
+    // 0-6 lines across all slabs, quantities with 0-3 decimals, prices with 0-2 and rates written at mixed scales
+    private static List<LineItem> randomLines(Random random) {
+        int count = random.nextInt(7);
+        List<LineItem> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LineItem line = new LineItem();
+            line.setDescription("Item " + i);
+            int quantityScale = random.nextInt(4);
+            long quantityUnscaled = 1 + random.nextInt(random.nextBoolean() ? 10 : 100_000);
+            line.setQuantity(BigDecimal.valueOf(quantityUnscaled, quantityScale));
+            line.setUnitPrice(randomAmount(random, random.nextInt(3)));
+            line.setGstRate(new BigDecimal(RATES[random.nextInt(RATES.length)]));
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    private static BigDecimal randomAmount(Random random, int scale) {
+        long bound = switch (random.nextInt(3)) {
+            case 0 -> 1_000;
+            case 1 -> 10_000_000;
+            default -> 1_000_000_000_000L;
+        };
+        return BigDecimal.valueOf(Math.floorMod(random.nextLong(), bound), scale);
+    }
+
+    private static long randomPaise(Random random) {
+        return Math.floorMod(random.nextLong(), random.nextBoolean() ? 100_000L : 100_000_000_000_000L);
+    }
+
+    // --- helpers ---
+
+    private static Invoice invoice(List<LineItem> lines, BigDecimal subtotal, BigDecimal paid) {
+        Invoice invoice = new Invoice();
+        invoice.setSubtotal(subtotal);
+        invoice.setAmountPaid(paid);
+        lines.forEach(line -> invoice.getLineItems().add(copy(line)));
+        return invoice;
+    }
+
+    private static Estimate estimate(List<LineItem> lines, BigDecimal subtotal) {
+        Estimate estimate = new Estimate();
+        estimate.setSubtotal(subtotal);
+        lines.forEach(line -> estimate.getLineItems().add(copy(line)));
+        return estimate;
+    }
+
+    private static LineItem copy(LineItem line) {
+        LineItem copy = new LineItem();
+        copy.setDescription(line.getDescription());
+        copy.setQuantity(line.getQuantity());
+        copy.setUnitPrice(line.getUnitPrice());
+        copy.setGstRate(line.getGstRate());
+        return copy;
+    }
+
+    private static void assertLinesEqual(List<LineItem> fixed, List<LineItem> reference, String at) {
+        assertThat(fixed).as(at).hasSameSizeAs(reference);
+        for (int i = 0; i < fixed.size(); i++) {
+            assertThat(fixed.get(i).getLineNo()).as(at).isEqualTo(reference.get(i).getLineNo());
+            assertThat(fixed.get(i).getTaxableValue()).as(at + " line " + (i + 1))
+                    .isEqualTo(reference.get(i).getTaxableValue());
+            assertThat(fixed.get(i).getTaxAmount()).as(at + " line " + (i + 1))
+                    .isEqualTo(reference.get(i).getTaxAmount());
+        }
+    }
+
+    private static long paise(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    private static String describe(List<LineItem> lines, BigDecimal subtotal, BigDecimal paid, boolean interState) {
+        StringBuilder text = new StringBuilder();
+        for (LineItem line : lines) {
+            text.append('[').append(line.getQuantity()).append(" x ").append(line.getUnitPrice())
+                    .append(" @ ").append(line.getGstRate()).append("%] ");
+        }
+        return text + "subtotal=" + subtotal + " paid=" + paid + " interState=" + interState;
+    }
+}
@@ -0,0 +1,15 @@
+import { useEffect, useRef } from 'react';
+import { subscribeToEvents } from '../services/api';
+
+// Calls handlers[name](data) for each event pushed on /api/events while mounted
+const useLiveEvents = (handlers) => {
+    const handlersRef = useRef(handlers);
+
+    useEffect(() => {
+        handlersRef.current = handlers;
+    });
+
+    useEffect(() => subscribeToEvents((name, data) => handlersRef.current[name]?.(data)), []);
+};
+
+export default useLiveEvents;
@@ -2,6 +2,7 @@ import { useState, useEffect } from 'react';
 import { HiOutlineUsers, HiOutlineDocumentText, HiOutlineCreditCard, HiOutlineCurrencyRupee } from 'react-icons/hi';
 import StatCard from '../components/common/StatCard';
 import { dashboardApi } from '../services/api';
+import useLiveEvents from '../hooks/useLiveEvents';
 
 const Dashboard = () => {
     const [stats, setStats] = useState({
@@ -30,6 +31,14 @@ const Dashboard = () => {
         fetchStats();
     }, []);
 
+    // Fresh stats are pushed after every change, so there is nothing to poll
+    useLiveEvents({
+        dashboard: (data) => {
+            setStats(data);
+            setLoading(false);
+        },
+    });
+
     const formatCurrency = (amount) => {
         return new Intl.NumberFormat('en-IN', {
             style: 'currency',
@@ -3,6 +3,7 @@ import { HiOutlinePlus, HiOutlinePencil, HiOutlineTrash, HiOutlineDocumentDuplic
 import Button from '../components/common/Button';
 import Modal from '../components/common/Modal';
 import { estimateApi, clientApi } from '../services/api';
+import useLiveEvents from '../hooks/useLiveEvents';
 
 const Estimates = () => {
     const [estimates, setEstimates] = useState([]);
@@ -28,6 +29,14 @@ const Estimates = () => {
         fetchData();
     }, []);
 
+    useLiveEvents({
+        changes: (changes) => {
+            if (changes.some((c) => c.type === 'ESTIMATE' || c.type === 'CLIENT')) {
+                fetchData();
+            }
+        },
+    });
+
     const fetchData = async () => {
         try {
             const [estimatesRes, clientsRes] = await Promise.all([
@@ -50,6 +59,8 @@ const Estimates = () => {
                 items: formData.items,
                 subtotal: parseFloat(formData.subtotal),
                 status: formData.status,
+                // Priced lines are kept as-is; the server recomputes the subtotal from them
+                lineItems: editingEstimate?.lineItems || [],
             };
 
             if (editingEstimate) {
@@ -86,8 +97,16 @@ const Estimates = () => {
         }
     };
 
-    const openModal = (estimate = null) => {
-        if (estimate) {
+    const openModal = async (row = null) => {
+        if (row) {
+            // List rows are slim; editing needs the full estimate (items)
+            let estimate;
+            try {
+                estimate = (await estimateApi.getById(row.id)).data;
+            } catch (error) {
+                console.error('Error loading estimate:', error);
+                return;
+            }
             setEditingEstimate(estimate);
             setFormData({
                 clientId: estimate.client?.id || '',
@@ -160,7 +179,7 @@ const Estimates = () => {
                             {estimates.map((estimate) => (
                                 <tr key={estimate.id} className="hover:bg-gray-700/30 transition-colors">
                                     <td className="px-3 sm:px-6 py-3 sm:py-4 text-white font-medium text-sm">{estimate.estimateNumber}</td>
-                                    <td className="px-3 sm:px-6 py-3 sm:py-4 text-gray-300 text-sm">{estimate.client?.name || '-'}</td>
+                                    <td className="px-3 sm:px-6 py-3 sm:py-4 text-gray-300 text-sm">{estimate.clientName || '-'}</td>
                                     <td className="px-3 sm:px-6 py-3 sm:py-4 text-gray-300 text-sm hidden md:table-cell">{formatCurrency(estimate.subtotal)}</td>
                                     <td className="px-3 sm:px-6 py-3 sm:py-4 text-gray-300 text-sm hidden lg:table-cell">{formatCurrency(estimate.gstAmount)}</td>
                                     <td className="px-3 sm:px-6 py-3 sm:py-4 text-white font-semibold text-sm">{formatCurrency(estimate.total)}</td>
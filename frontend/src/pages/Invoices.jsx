@@ -3,6 +3,7 @@ import { HiOutlinePlus, HiOutlineEye, HiOutlineTrash } from 'react-icons/hi';
 import Button from '../components/common/Button';
 import Modal from '../components/common/Modal';
 import { invoiceApi, clientApi } from '../services/api';
+import useLiveEvents from '../hooks/useLiveEvents';
 
 const Invoices = () => {
     const [invoices, setInvoices] = useState([]);
@@ -28,6 +29,14 @@ const Invoices = () => {
         fetchData();
     }, []);
 
+    useLiveEvents({
+        changes: (changes) => {
+            if (changes.some((c) => c.type === 'INVOICE' || c.type === 'CLIENT')) {
+                fetchData();
+            }
+        },
+    });
+
     const fetchData = async () => {
         try {
             const [invoicesRes, clientsRes] = await Promise.all([
@@ -71,6 +80,30 @@ const Invoices = () => {
         }
     };
 
+    // List rows are slim; the detail view loads the full invoice (items, client)
+    const openViewer = async (id) => {
+        try {
+            const response = await invoiceApi.getById(id);
+            setViewingInvoice(response.data);
+        } catch (error) {
+            console.error('Error loading invoice:', error);
+        }
+    };
+
+    const downloadPdf = async (invoice) => {
+        try {
+            const response = await invoiceApi.getPdf(invoice.id);
+            const url = URL.createObjectURL(response.data);
+            const link = document.createElement('a');
+            link.href = url;
+            link.download = `${invoice.invoiceNumber.replace(/[^A-Za-z0-9._-]/g, '-')}.pdf`;
+            link.click();
+            URL.revokeObjectURL(url);
+        } catch (error) {
+            console.error('Error downloading invoice PDF:', error);
+        }
+    };
+
     const openModal = () => {
         setFormData({
             clientId: clients[0]?.id || '',
@@ -140,7 +173,7 @@ const Invoices = () => {
                             {invoices.map((invoice) => (
                                 <tr key={invoice.id} className="hover:bg-gray-700/30 transition-colors">
                                     <td className="px-3 sm:px-6 py-3 sm:py-4 text-white font-medium text-sm">{invoice.invoiceNumber}</td>
-                                    <td className="px-3 sm:px-6 py-3 sm:py-4 text-gray-300 text-sm">{invoice.client?.name || '-'}</td>
+                                    <td className="px-3 sm:px-6 py-3 sm:py-4 text-gray-300 text-sm">{invoice.clientName || '-'}</td>
                                     <td className="px-3 sm:px-6 py-3 sm:py-4 text-gray-300 text-sm hidden md:table-cell">{formatCurrency(invoice.subtotal)}</td>
                                     <td className="px-3 sm:px-6 py-3 sm:py-4 text-gray-300 text-sm hidden lg:table-cell">
                                         {invoice.igst > 0
@@ -158,7 +191,7 @@ const Invoices = () => {
                                     <td className="px-3 sm:px-6 py-3 sm:py-4">
                                         <div className="flex items-center justify-end gap-1 sm:gap-2">
                                             <button
-                                                onClick={() => setViewingInvoice(invoice)}
+                                                onClick={() => openViewer(invoice.id)}
                                                 className="p-2 rounded-lg hover:bg-gray-700 text-gray-400 hover:text-white transition-colors"
                                             >
                                                 <HiOutlineEye className="w-5 h-5" />
@@ -291,7 +324,32 @@ const Invoices = () => {
                         <div>
                             <p className="text-gray-400 text-sm mb-2">Items</p>
                             <div className="bg-gray-700/30 rounded-xl p-4">
-                                <pre className="text-gray-300 whitespace-pre-wrap">{viewingInvoice.items || 'No items listed'}</pre>
+                                {viewingInvoice.lineItems?.length > 0 ? (
+                                    <table className="w-full text-sm">
+                                        <thead>
+                                            <tr className="text-gray-400 text-left">
+                                                <th className="pb-2 font-medium">Description</th>
+                                                <th className="pb-2 font-medium hidden sm:table-cell">HSN/SAC</th>
+                                                <th className="pb-2 font-medium text-right">Qty × Rate</th>
+                                                <th className="pb-2 font-medium text-right">GST</th>
+                                                <th className="pb-2 font-medium text-right">Amount</th>
+                                            </tr>
+                                        </thead>
+                                        <tbody className="text-gray-300">
+                                            {viewingInvoice.lineItems.map((line) => (
+                                                <tr key={line.id}>
+                                                    <td className="py-1">{line.description}</td>
+                                                    <td className="py-1 hidden sm:table-cell">{line.hsnSac || '-'}</td>
+                                                    <td className="py-1 text-right">{line.quantity} × {formatCurrency(line.unitPrice)}</td>
+                                                    <td className="py-1 text-right">{line.gstRate}%</td>
+                                                    <td className="py-1 text-right">{formatCurrency(line.taxableValue)}</td>
+                                                </tr>
+                                            ))}
+                                        </tbody>
+                                    </table>
+                                ) : (
+                                    <pre className="text-gray-300 whitespace-pre-wrap">{viewingInvoice.items || 'No items listed'}</pre>
+                                )}
                             </div>
                         </div>
 
@@ -302,17 +360,17 @@ const Invoices = () => {
                             </div>
                             {viewingInvoice.igst > 0 ? (
                                 <div className="flex justify-between">
-                                    <span className="text-gray-400">IGST (18%)</span>
+                                    <span className="text-gray-400">IGST</span>
                                     <span className="text-white">{formatCurrency(viewingInvoice.igst)}</span>
                                 </div>
                             ) : (
                                 <>
                                     <div className="flex justify-between">
-                                        <span className="text-gray-400">CGST (9%)</span>
+                                        <span className="text-gray-400">CGST</span>
                                         <span className="text-white">{formatCurrency(viewingInvoice.cgst)}</span>
                                     </div>
                                     <div className="flex justify-between">
-                                        <span className="text-gray-400">SGST (9%)</span>
+                                        <span className="text-gray-400">SGST</span>
                                         <span className="text-white">{formatCurrency(viewingInvoice.sgst)}</span>
                                     </div>
                                 </>
@@ -323,10 +381,13 @@ const Invoices = () => {
                             </div>
                         </div>
 
-                        <div className="flex justify-end pt-4 border-t border-gray-700/50">
+                        <div className="flex flex-col-reverse sm:flex-row justify-end gap-3 pt-4 border-t border-gray-700/50">
                             <Button variant="ghost" onClick={() => setViewingInvoice(null)} className="w-full sm:w-auto justify-center">
                                 Close
                             </Button>
+                            <Button onClick={() => downloadPdf(viewingInvoice)} className="w-full sm:w-auto justify-center">
+                                Download PDF
+                            </Button>
                         </div>
                     </div>
                 )}
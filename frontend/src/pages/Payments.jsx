@@ -3,6 +3,7 @@ import { HiOutlinePlus, HiOutlineTrash } from 'react-icons/hi';
 import Button from '../components/common/Button';
 import Modal from '../components/common/Modal';
 import { paymentApi, invoiceApi } from '../services/api';
+import useLiveEvents from '../hooks/useLiveEvents';
 
 const Payments = () => {
     const [payments, setPayments] = useState([]);
@@ -22,6 +23,14 @@ const Payments = () => {
         fetchData();
     }, []);
 
+    useLiveEvents({
+        changes: (changes) => {
+            if (changes.some((c) => c.type === 'PAYMENT' || c.type === 'INVOICE')) {
+                fetchData();
+            }
+        },
+    });
+
     const fetchData = async () => {
         try {
             const [paymentsRes, invoicesRes] = await Promise.all([
@@ -136,7 +145,7 @@ const Payments = () => {
                         <tbody className="divide-y divide-gray-700/50">
                             {payments.map((payment) => (
                                 <tr key={payment.id} className="hover:bg-gray-700/30 transition-colors">
-                                    <td className="px-3 sm:px-6 py-3 sm:py-4 text-white font-medium text-sm">{payment.invoice?.invoiceNumber || '-'}</td>
+                                    <td className="px-3 sm:px-6 py-3 sm:py-4 text-white font-medium text-sm">{payment.invoiceNumber || '-'}</td>
                                     <td className="px-3 sm:px-6 py-3 sm:py-4 text-emerald-400 font-semibold text-sm">{formatCurrency(payment.amount)}</td>
                                     <td className="px-3 sm:px-6 py-3 sm:py-4">
                                         <span className="px-2 sm:px-3 py-1 rounded-full text-xs font-medium bg-indigo-500/20 text-indigo-400">
@@ -187,7 +196,7 @@ const Payments = () => {
                             <option value="">Select an invoice</option>
                             {invoices.map((invoice) => (
                                 <option key={invoice.id} value={invoice.id} className="bg-gray-800">
-                                    {invoice.invoiceNumber} - {formatCurrency(invoice.total)} ({invoice.client?.name})
+                                    {invoice.invoiceNumber} - {formatCurrency(invoice.total)} ({invoice.clientName})
                                 </option>
                             ))}
                         </select>
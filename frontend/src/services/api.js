@@ -37,6 +37,7 @@ api.interceptors.response.use(
 // Client API
 export const clientApi = {
     getAll: () => api.get('/clients'),
+    getPage: (params) => api.get('/clients/page', { params }),
     getById: (id) => api.get(`/clients/${id}`),
     getByCategory: (category) => api.get(`/clients/category/${category}`),
     search: (name) => api.get('/clients/search', { params: { name } }),
@@ -48,6 +49,7 @@ export const clientApi = {
 // Estimate API
 export const estimateApi = {
     getAll: () => api.get('/estimates'),
+    getPage: (params) => api.get('/estimates/page', { params }),
     getById: (id) => api.get(`/estimates/${id}`),
     getByClientId: (clientId) => api.get(`/estimates/client/${clientId}`),
     create: (clientId, estimate) => api.post('/estimates', estimate, { params: { clientId } }),
@@ -59,6 +61,7 @@ export const estimateApi = {
 // Invoice API
 export const invoiceApi = {
     getAll: () => api.get('/invoices'),
+    getPage: (params) => api.get('/invoices/page', { params }),
     getById: (id) => api.get(`/invoices/${id}`),
     getByClientId: (clientId) => api.get(`/invoices/client/${clientId}`),
     getByStatus: (status) => api.get(`/invoices/status/${status}`),
@@ -67,11 +70,13 @@ export const invoiceApi = {
     update: (id, invoice, isInterState = false) =>
         api.put(`/invoices/${id}`, invoice, { params: { isInterState } }),
     delete: (id) => api.delete(`/invoices/${id}`),
+    getPdf: (id) => api.get(`/invoices/${id}/pdf`, { responseType: 'blob' }),
 };
 
 // Payment API
 export const paymentApi = {
     getAll: () => api.get('/payments'),
+    getPage: (params) => api.get('/payments/page', { params }),
     getById: (id) => api.get(`/payments/${id}`),
     getByInvoiceId: (invoiceId) => api.get(`/payments/invoice/${invoiceId}`),
     record: (invoiceId, payment) => api.post('/payments', payment, { params: { invoiceId } }),
@@ -83,4 +88,71 @@ export const dashboardApi = {
     getStats: () => api.get('/dashboard/stats'),
 };
 
+// Live updates from /api/events (server-sent events). Read with fetch rather than
+// EventSource so the token goes in the Authorization header; reconnects with backoff
+// until the returned function is called.
+export const subscribeToEvents = (onEvent) => {
+    const controller = new AbortController();
+    let retryMs = 1000;
+
+    const dispatch = (block) => {
+        let name = 'message';
+        const data = [];
+        for (const line of block.split('\n')) {
+            if (line.startsWith('event:')) {
+                name = line.slice(6).trim();
+            } else if (line.startsWith('data:')) {
+                data.push(line.slice(5));
+            }
+        }
+        // Comment-only blocks are heartbeats
+        if (data.length > 0) {
+            onEvent(name, JSON.parse(data.join('\n')));
+        }
+    };
+
+    const connect = async () => {
+        while (!controller.signal.aborted) {
+            try {
+                const response = await fetch(`${API_BASE_URL}/events`, {
+                    headers: { Authorization: `Bearer ${localStorage.getItem('token')}` },
+                    signal: controller.signal,
+                });
+                if (response.status === 401) {
+                    return;
+                }
+                if (!response.ok) {
+                    throw new Error(`Event stream returned ${response.status}`);
+                }
+                retryMs = 1000;
+                const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+                let buffer = '';
+                for (;;) {
+                    const { value, done } = await reader.read();
+                    if (done) {
+                        break;
+                    }
+                    buffer += value;
+                    let end;
+                    while ((end = buffer.indexOf('\n\n')) >= 0) {
+                        dispatch(buffer.slice(0, end));
+                        buffer = buffer.slice(end + 2);
+                    }
+                }
+            } catch (error) {
+                if (controller.signal.aborted) {
+                    return;
+                }
+                console.error('Event stream error:', error);
+            }
+            // Closed by the server (timeout, or dropped for falling behind): wait, then resubscribe
+            await new Promise((resolve) => setTimeout(resolve, retryMs));
+            retryMs = Math.min(retryMs * 2, 30000);
+        }
+    };
+
+    connect();
+    return () => controller.abort();
+};
+
 export default api;